@@ -0,0 +1,85 @@
+package benchmarks;
+
+import ai.PatternEvaluator;
+import ai.SearchEngine;
+import ai.SearchResult;
+import ai.TranspositionTable;
+import logic.Board;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+//AiBenchmark class measures the incremental evaluator update and a fixed-depth search
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class AiBenchmark {
+    private static final int SEARCH_DEPTH = 2;
+
+    @Param({"empty", "midgame", "nearfull"})
+    public String position;
+
+    private Board board;
+    private PatternEvaluator evaluator;
+    private SearchEngine engine;
+    private TranspositionTable table;
+    private int player;
+    private int[] freeCells;
+    private int next;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        List<int[]> moves = Positions.moves(position);
+        board = (Board) Positions.board("Board", moves);
+        player = moves.size() % 2 == 0 ? 1 : 2;
+        evaluator = new PatternEvaluator(board);
+        table = new TranspositionTable(16);
+        engine = new SearchEngine(board, table);
+
+        int count = 0;
+        freeCells = new int[Positions.SIZE * Positions.SIZE];
+        for (int cell = 0; cell < freeCells.length; cell++) {
+            if (board.getCell(cell / Positions.SIZE, cell % Positions.SIZE) == 0) {
+                freeCells[count++] = cell;
+            }
+        }
+        freeCells = Arrays.copyOf(freeCells, count);
+    }
+
+    //one evaluator make/unmake pair plus a leaf score lookup
+    @Benchmark
+    public int evaluatorPlaceRemove() {
+        int cell = freeCells[next];
+        next = next + 1 == freeCells.length ? 0 : next + 1;
+        int row = cell / Positions.SIZE;
+        int col = cell % Positions.SIZE;
+        if (!evaluator.placeStone(row, col, player)) {
+            return 0;
+        }
+        int score = evaluator.evaluate(3 - player);
+        evaluator.removeStone(row, col);
+        return score;
+    }
+
+    @Benchmark
+    @OutputTimeUnit(TimeUnit.MILLISECONDS)
+    public SearchResult searchFixedDepth() {
+        table.newSearch();
+        return engine.search(player, Long.MAX_VALUE, SEARCH_DEPTH);
+    }
+}
@@ -0,0 +1,76 @@
+package benchmarks;
+
+import logic.GameBoard;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+//BoardBenchmark class measures checkWin, getMaxLength and place/remove on both board implementations
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class BoardBenchmark {
+    @Param({"empty", "midgame", "nearfull"})
+    public String position;
+
+    @Param({"Board", "BitBoard"})
+    public String impl;
+
+    private GameBoard board;
+    private int[] cells; //every cell of the board, probed in turn
+    private int next;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        List<int[]> moves = Positions.moves(position);
+        board = Positions.board(impl, moves);
+        cells = new int[Positions.SIZE * Positions.SIZE];
+        for (int i = 0; i < cells.length; i++) {
+            cells[i] = i;
+        }
+    }
+
+    private int nextCell() {
+        int cell = cells[next];
+        next = next + 1 == cells.length ? 0 : next + 1;
+        return cell;
+    }
+
+    @Benchmark
+    public boolean checkWin() {
+        int cell = nextCell();
+        return board.checkWin(cell / Positions.SIZE, cell % Positions.SIZE, 1);
+    }
+
+    @Benchmark
+    public int getMaxLength() {
+        int cell = nextCell();
+        return board.getMaxLength(cell / Positions.SIZE, cell % Positions.SIZE, 1);
+    }
+
+    //place and take back a stone on the next cell (a no-op on occupied cells)
+    @Benchmark
+    public boolean placeRemove() {
+        int cell = nextCell();
+        int row = cell / Positions.SIZE;
+        int col = cell % Positions.SIZE;
+        if (board.placeStone(row, col, 1)) {
+            return board.removeStone(row, col);
+        }
+        return false;
+    }
+}
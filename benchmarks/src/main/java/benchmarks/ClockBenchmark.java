@@ -0,0 +1,71 @@
+package benchmarks;
+
+import clock.Deadline;
+import clock.TimingWheel;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+//ClockBenchmark class measures re-arming one turn deadline (what every move does to its game
+//clock) and a cancel plus arm, on a TimingWheel already holding many other clocks' deadlines
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ClockBenchmark {
+    private static final int SPREAD = 600_000; //deadlines up to ten minutes ahead
+
+    @Param({"1000", "100000", "500000"})
+    public int clocks;
+
+    private TimingWheel wheel;
+    private Deadline[] deadlines;
+    private long[] delays;
+    private int next;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        wheel = new TimingWheel();
+        Random random = new Random(1);
+        deadlines = new Deadline[clocks];
+        delays = new long[1024];
+        for (int i = 0; i < clocks; i++) {
+            deadlines[i] = new Deadline(() -> {
+            });
+            wheel.arm(deadlines[i], 1 + random.nextInt(SPREAD));
+        }
+        for (int i = 0; i < delays.length; i++) {
+            delays[i] = 1 + random.nextInt(SPREAD);
+        }
+    }
+
+    @Benchmark
+    public int rearm() {
+        int i = next;
+        next = next + 1 == clocks ? 0 : next + 1;
+        wheel.arm(deadlines[i], delays[i & 1023]);
+        return wheel.size();
+    }
+
+    @Benchmark
+    public int cancelArm() {
+        int i = next;
+        next = next + 1 == clocks ? 0 : next + 1;
+        wheel.cancel(deadlines[i]);
+        wheel.arm(deadlines[i], delays[i & 1023]);
+        return wheel.size();
+    }
+}
@@ -0,0 +1,101 @@
+package benchmarks;
+
+import controller.GomokuController;
+import logic.GameBoard;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+//ControllerBenchmark class measures makeMove/undoMove/redoMove and the full-board recalculateMaxRow scan
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ControllerBenchmark {
+    @Param({"empty", "midgame", "nearfull"})
+    public String position;
+
+    @Param({"Board", "BitBoard"})
+    public String impl;
+
+    private GomokuController controller;
+    private int[] freeCells; //empty cells where the side to move doesn't make five
+    private int next;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        GameBoard board = Positions.newBoard(impl);
+        controller = new GomokuController(board);
+        for (int[] move : Positions.moves(position)) {
+            controller.makeMove(move[0], move[1]);
+        }
+
+        List<Integer> free = new ArrayList<>();
+        int player = controller.getCurrentPlayer();
+        for (int row = 0; row < Positions.SIZE; row++) {
+            for (int col = 0; col < Positions.SIZE; col++) {
+                if (board.getCell(row, col) == 0 && !board.checkWin(row, col, player)) {
+                    free.add(row * Positions.SIZE + col);
+                }
+            }
+        }
+        freeCells = free.stream().mapToInt(Integer::intValue).toArray();
+    }
+
+    //one move plus its undo, the make/unmake cycle used while browsing a game
+    @Benchmark
+    public boolean makeUndo() {
+        int cell = freeCells[next];
+        next = next + 1 == freeCells.length ? 0 : next + 1;
+        controller.makeMove(cell / Positions.SIZE, cell % Positions.SIZE);
+        return controller.undoMove();
+    }
+
+    //undo then redo of the last move; static with its own state, since the empty position has no move to undo
+    @Benchmark
+    public static boolean undoRedo(Played played) {
+        played.controller.undoMove();
+        return played.controller.redoMove();
+    }
+
+    @Benchmark
+    public void recalculateMaxRow(Blackhole blackhole) {
+        blackhole.consume(controller.recalculateMaxRow(1));
+        blackhole.consume(controller.recalculateMaxRow(2));
+    }
+
+    //a position with at least one move played, for the benchmarks that take one back
+    @State(Scope.Thread)
+    public static class Played {
+        @Param({"midgame", "nearfull"})
+        public String position;
+
+        @Param({"Board", "BitBoard"})
+        public String impl;
+
+        GomokuController controller;
+
+        @Setup(Level.Trial)
+        public void setUp() {
+            controller = new GomokuController(Positions.newBoard(impl));
+            for (int[] move : Positions.moves(position)) {
+                controller.makeMove(move[0], move[1]);
+            }
+        }
+    }
+}
@@ -0,0 +1,77 @@
+package benchmarks;
+
+import logic.BitBoard;
+import logic.Board;
+import logic.GameBoard;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+
+//Positions class builds the fixed test positions used by every benchmark:
+//empty, mid-game (60 stones) and near-full (360 stones), all without a five on the board
+public class Positions {
+    public static final int SIZE = 20;
+
+    private Positions() {
+    }
+
+    //moves {row, col} with black first, alternating, for the named position
+    public static List<int[]> moves(String kind) {
+        switch (kind) {
+            case "empty":
+                return new ArrayList<>();
+            case "midgame":
+                return play(60, 5);
+            case "nearfull":
+                return play(SIZE * SIZE * 9 / 10, 5);
+            default:
+                throw new IllegalArgumentException(kind);
+        }
+    }
+
+    public static GameBoard newBoard(String impl) {
+        return impl.equals("BitBoard") ? new BitBoard(SIZE) : new Board(SIZE);
+    }
+
+    //board of the given implementation with the moves played on it
+    public static GameBoard board(String impl, List<int[]> moves) {
+        GameBoard board = newBoard(impl);
+        int player = 1;
+        for (int[] move : moves) {
+            board.placeStone(move[0], move[1], player);
+            player = 3 - player;
+        }
+        return board;
+    }
+
+    //play up to count random moves, skipping any that would make five
+    private static List<int[]> play(int count, long seed) {
+        List<Integer> cells = new ArrayList<>();
+        for (int cell = 0; cell < SIZE * SIZE; cell++) {
+            cells.add(cell);
+        }
+        Collections.shuffle(cells, new Random(seed));
+
+        Board board = new Board(SIZE);
+        List<int[]> moves = new ArrayList<>();
+        int player = 1;
+        boolean placed = true;
+        while (moves.size() < count && placed) {
+            placed = false;
+            for (int i = 0; i < cells.size(); i++) {
+                int row = cells.get(i) / SIZE;
+                int col = cells.get(i) % SIZE;
+                if (!board.checkWin(row, col, player)) {
+                    board.placeStone(row, col, player);
+                    moves.add(new int[]{row, col});
+                    cells.remove(i);
+                    player = 3 - player;
+                    placed = true;
+                    break;
+                }
+            }
+        }
+        return moves;
+    }
+}
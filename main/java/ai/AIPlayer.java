@@ -0,0 +1,131 @@
+//AIPlayer class is the computer opponent: it copies the game board,
+//searches it and hands back a move before the turn timer runs out
+package ai;
+
+import logic.Board;
+import logic.GameBoard;
+import logic.Move;
+import logic.SparseBoard;
+import logic.Zobrist;
+import rules.RuleSet;
+import rules.Rules;
+import java.util.concurrent.TimeUnit;
+
+public class AIPlayer {
+    //time kept in reserve so the move is back before the turn clock expires,
+    //even if the machine is busy or a GC pause hits near the deadline
+    private static final long SAFETY_MARGIN_MS = 250;
+    private static final int TABLE_BITS = 20;
+    private static final long THREAT_MS = 200; //most time given to the threat solver per move
+    private final int maxDepth;
+    private final ParallelSearch search; //table is kept between moves
+    private volatile OpeningBook book; //checked before searching, null for none
+    private final ThreatSolver solver = new ThreatSolver();
+    private volatile RuleSet rules = Rules.FREESTYLE;
+
+    public AIPlayer() {
+        this(SearchEngine.MAX_DEPTH, 1);
+    }
+
+    public AIPlayer(int maxDepth, int threads) {
+        this(maxDepth, threads, TABLE_BITS);
+    }
+
+    //tableBits sets the transposition table to 2^tableBits entries (16 bytes each)
+    public AIPlayer(int maxDepth, int threads, int tableBits) {
+        this.maxDepth = maxDepth;
+        this.search = new ParallelSearch(threads, new TranspositionTable(tableBits));
+    }
+
+    //play book moves while the position is in the book; the book may be shared between players
+    public void setOpeningBook(OpeningBook book) {
+        this.book = book;
+    }
+
+    //rules the moves are chosen under; the threat solver only knows freestyle fives,
+    //so under other rules it is skipped and the search alone decides
+    public void setRules(RuleSet rules) {
+        this.rules = rules;
+        search.setRules(rules);
+    }
+
+    //pick a move for player, using at most timeBudgetMillis of wall-clock time
+    public SearchResult chooseMove(GameBoard position, int player, long timeBudgetMillis) {
+        if (position.getBoardSize() == SparseBoard.UNBOUNDED) {
+            return chooseWindowMove(position, player, timeBudgetMillis);
+        }
+        long start = System.nanoTime();
+        OpeningBook book = this.book;
+        RuleSet rules = this.rules;
+        if (book != null) {
+            Move move = book.probe(position, player);
+            if (move != null && !rules.isForbidden(position, move.getRow(), move.getCol(), player)) {
+                return new SearchResult(move.getRow(), move.getCol(), 0, 0, 0); //depth 0: no search was done
+            }
+        }
+
+        //short budgets (fast engine matches) keep a fifth in reserve instead
+        long margin = Math.min(SAFETY_MARGIN_MS, timeBudgetMillis / 5);
+        long budget = Math.max(timeBudgetMillis - margin, 1);
+        long deadline = start + TimeUnit.MILLISECONDS.toNanos(budget);
+
+        //a forced win by fours and threes is often far deeper than alpha-beta reaches
+        long threatDeadline = start + TimeUnit.MILLISECONDS.toNanos(Math.min(THREAT_MS, budget / 10));
+        Move win = rules.getId() == RuleSet.FREESTYLE ? solver.solve(position, player, ThreatSolver.VCT, threatDeadline) : null;
+        if (win != null) {
+            return new SearchResult(win.getRow(), win.getCol(), SearchEngine.WIN_SCORE,
+                    2 * solver.getWinDepth() - 1, solver.getNodes());
+        }
+
+        //the search works on private copies so the game board is never touched
+        return search.search(position, player, deadline, maxDepth);
+    }
+
+    //a board with no fixed size is searched through the largest fixed board, placed over
+    //the middle of the stones; stones outside it are left out and its edges count as walls
+    private SearchResult chooseWindowMove(GameBoard position, int player, long timeBudgetMillis) {
+        int[] bounds = {Integer.MAX_VALUE, Integer.MAX_VALUE, Integer.MIN_VALUE, Integer.MIN_VALUE};
+        position.forEachStone((row, col, stone) -> {
+            bounds[0] = Math.min(bounds[0], row);
+            bounds[1] = Math.min(bounds[1], col);
+            bounds[2] = Math.max(bounds[2], row);
+            bounds[3] = Math.max(bounds[3], col);
+        });
+        if (bounds[0] == Integer.MAX_VALUE) {
+            return new SearchResult(SparseBoard.CENTER, SparseBoard.CENTER, 0, 0, 0); //empty board
+        }
+
+        int size = Zobrist.MAX_SIZE;
+        int top = Math.max(0, Math.min((bounds[0] + bounds[2]) / 2 - size / 2, SparseBoard.LIMIT - size));
+        int left = Math.max(0, Math.min((bounds[1] + bounds[3]) / 2 - size / 2, SparseBoard.LIMIT - size));
+        Board window = new Board(size);
+        position.forEachStone((row, col, stone) -> {
+            if (row >= top && row < top + size && col >= left && col < left + size) {
+                window.placeStone(row - top, col - left, stone);
+            }
+        });
+
+        SearchResult result = chooseMove(window, player, timeBudgetMillis);
+        if (result.getRow() < 0) {
+            return result;
+        }
+        return new SearchResult(result.getRow() + top, result.getCol() + left, result.getScore(),
+                result.getDepth(), result.getNodes());
+    }
+
+    //make a chooseMove running on another thread return soon with the best move so far; until
+    //resume() every search, even one that has not started yet, stops at once
+    public void stop() {
+        search.stop();
+    }
+
+    //let searches run to their budget again after stop()
+    public void resume() {
+        search.clearStop();
+    }
+
+    //release the search threads
+    public void shutdown() {
+        search.shutdown();
+    }
+}
@@ -0,0 +1,264 @@
+//BatchEvaluator class runs depth-limited searches on many positions for bulk analysis.
+//positions come in as PositionCodec bytes and are searched on a ForkJoinPool; every
+//worker thread keeps one Board, SearchEngine and small TranspositionTable per board size
+//and decodes each position into them, so nothing is allocated per position after warm-up.
+//at most window positions are in flight: the caller hands results to its sink in input
+//order and only reads the next position once the oldest one is done, so a slow sink or a
+//huge input never piles up in memory. a worker's table carries over between positions,
+//so a result can differ slightly with the thread count, like a Lazy SMP search does
+//usage: java ai.BatchEvaluator (--archive=games.gmk | --random=N) [--size=15] [--threads=N] [--depth=4] [--rules=0]
+package ai;
+
+import logic.Board;
+import logic.Move;
+import rules.RuleSet;
+import rules.Rules;
+import storage.GameArchive;
+import storage.GameRecord;
+import storage.PositionCodec;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.PrintWriter;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Path;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.ForkJoinWorkerThread;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+
+public class BatchEvaluator implements AutoCloseable {
+    private static final int TABLE_BITS = 16; //64K entries, 1 MB per worker and board size
+    private static final int TASKS_PER_THREAD = 4; //enough queued work that no worker waits on the caller
+
+    private final ForkJoinPool pool;
+    private final int threads;
+    private final int maxDepth;
+    private final RuleSet rules;
+    private final ForkJoinTask<PositionEvaluation>[] window; //in-flight searches, oldest at head
+
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    public BatchEvaluator(int threads, int maxDepth, RuleSet rules) {
+        if (threads < 1 || maxDepth < 1) {
+            throw new IllegalArgumentException();
+        }
+        this.threads = threads;
+        this.maxDepth = Math.min(maxDepth, SearchEngine.MAX_DEPTH);
+        this.rules = rules;
+        this.window = new ForkJoinTask[threads * TASKS_PER_THREAD];
+        this.pool = new ForkJoinPool(threads, Worker::new, null, false);
+    }
+
+    public int getThreads() {
+        return threads;
+    }
+
+    //evaluate every position and pass the results to sink in input order, on this thread;
+    //returns the number of positions. a bad position fails the whole call
+    public long evaluate(Iterator<ByteBuffer> positions, Consumer<PositionEvaluation> sink) {
+        int head = 0;
+        int inFlight = 0;
+        long submitted = 0;
+        try {
+            while (positions.hasNext() || inFlight > 0) {
+                if (inFlight < window.length && positions.hasNext()) {
+                    ByteBuffer position = positions.next().duplicate(); //workers never move the caller's buffer
+                    long index = submitted++;
+                    window[(head + inFlight) % window.length] = pool.submit(() -> search(index, position));
+                    inFlight++;
+                    continue;
+                }
+                //window full or input done: wait for the oldest search
+                PositionEvaluation result = window[head].join();
+                window[head] = null;
+                head = (head + 1) % window.length;
+                inFlight--;
+                sink.accept(result);
+            }
+        } finally {
+            //on a failure leave nothing running for the next call
+            for (int i = 0; i < inFlight; i++) {
+                int slot = (head + i) % window.length;
+                window[slot].cancel(false);
+                window[slot] = null;
+            }
+        }
+        return submitted;
+    }
+
+    public long evaluate(Stream<ByteBuffer> positions, Consumer<PositionEvaluation> sink) {
+        return evaluate(positions.iterator(), sink);
+    }
+
+    @Override
+    public void close() {
+        pool.shutdownNow();
+    }
+
+    //runs on a pool worker
+    private PositionEvaluation search(long index, ByteBuffer position) {
+        Worker worker = (Worker) Thread.currentThread();
+        try {
+            Slot slot = worker.slot(PositionCodec.peekBoardSize(position), rules);
+            int player = PositionCodec.decode(position, slot.board);
+            slot.table.newSearch();
+            return new PositionEvaluation(index, player, slot.engine.search(player, Long.MAX_VALUE, maxDepth));
+        } catch (IOException e) {
+            throw new UncheckedIOException("position " + index, e);
+        }
+    }
+
+    //a worker's search state for one board size
+    private static class Slot {
+        final Board board;
+        final TranspositionTable table;
+        final SearchEngine engine;
+
+        Slot(int size, RuleSet rules) {
+            board = new Board(size);
+            table = new TranspositionTable(TABLE_BITS);
+            engine = new SearchEngine(board, table);
+            engine.setRules(rules);
+        }
+    }
+
+    private static class Worker extends ForkJoinWorkerThread {
+        private final Slot[] slots = new Slot[PositionCodec.MAX_SIZE + 1]; //by board size, made on first use
+
+        Worker(ForkJoinPool pool) {
+            super(pool);
+            setName("gomoku-batch-" + getPoolIndex());
+            setDaemon(true);
+        }
+
+        Slot slot(int size, RuleSet rules) {
+            if (slots[size] == null) {
+                slots[size] = new Slot(size, rules);
+            }
+            return slots[size];
+        }
+    }
+
+    public static void main(String[] args) throws IOException {
+        Map<String, String> options = new HashMap<>();
+        for (String arg : args) {
+            int split = arg.indexOf('=');
+            if (!arg.startsWith("--") || split < 0) {
+                System.err.println("bad option: " + arg);
+                System.exit(2);
+            }
+            options.put(arg.substring(2, split), arg.substring(split + 1));
+        }
+        int threads = Integer.parseInt(options.getOrDefault("threads", String.valueOf(Runtime.getRuntime().availableProcessors())));
+        int depth = Integer.parseInt(options.getOrDefault("depth", "4"));
+        int size = Integer.parseInt(options.getOrDefault("size", "15"));
+        RuleSet rules = Rules.of(Integer.parseInt(options.getOrDefault("rules", String.valueOf(RuleSet.FREESTYLE))));
+
+        GameArchive archive = null;
+        Iterator<ByteBuffer> positions;
+        if (options.containsKey("archive")) {
+            archive = new GameArchive(Path.of(options.get("archive")));
+            positions = archivePositions(archive);
+        } else if (options.containsKey("random")) {
+            positions = randomPositions(Long.parseLong(options.get("random")), size, new Random(1));
+        } else {
+            System.err.println("usage: java ai.BatchEvaluator (--archive=games.gmk | --random=N) [--size=15] [--threads=N] [--depth=4] [--rules=0]");
+            System.exit(2);
+            return;
+        }
+
+        PrintWriter out = new PrintWriter(new BufferedWriter(new OutputStreamWriter(System.out), 1 << 16));
+        out.println("index,player,row,col,score,depth,nodes");
+        long start = System.nanoTime();
+        long count;
+        long[] nodes = new long[1];
+        try (BatchEvaluator evaluator = new BatchEvaluator(threads, depth, rules)) {
+            count = evaluator.evaluate(positions, result -> {
+                nodes[0] += result.getNodes();
+                out.println(result.getIndex() + "," + result.getPlayer() + "," + result.getRow() + "," + result.getCol()
+                        + "," + result.getScore() + "," + result.getDepth() + "," + result.getNodes());
+            });
+        } finally {
+            if (archive != null) {
+                archive.close();
+            }
+        }
+        out.flush();
+        double seconds = (System.nanoTime() - start) / 1e9;
+        System.err.printf("%d positions in %.2f s, %d threads, depth %d%n", count, seconds, threads, depth);
+        System.err.printf("%.0f positions/s, %.0f positions/s per core, %.0f nodes/s%n",
+                count / seconds, count / seconds / threads, nodes[0] / seconds);
+    }
+
+    //the position before every move of every game, read one game at a time; unbounded games are skipped
+    private static Iterator<ByteBuffer> archivePositions(GameArchive archive) {
+        return new Iterator<>() {
+            private int game;
+            private List<Move> moves = List.of();
+            private int next; //moves of the current game already on board
+            private Board board;
+
+            @Override
+            public boolean hasNext() {
+                while (next >= moves.size()) {
+                    if (game >= archive.size()) {
+                        return false;
+                    }
+                    try {
+                        GameRecord record = archive.read(game++);
+                        if (record.getBoardSize() == 0) {
+                            continue;
+                        }
+                        if (board == null || board.getBoardSize() != record.getBoardSize()) {
+                            board = new Board(record.getBoardSize());
+                        }
+                        board.clearBoard();
+                        moves = record.getMoves();
+                        next = 0;
+                    } catch (IOException e) {
+                        throw new UncheckedIOException("game " + (game - 1), e);
+                    }
+                }
+                return true;
+            }
+
+            @Override
+            public ByteBuffer next() {
+                if (!hasNext()) {
+                    throw new NoSuchElementException();
+                }
+                Move move = moves.get(next++);
+                ByteBuffer position = PositionCodec.encode(board, move.getPlayer());
+                board.placeStone(move.getRow(), move.getCol(), move.getPlayer());
+                return position;
+            }
+        };
+    }
+
+    //count positions of 4 to 40 stones (fewer on small boards), placed near the centre with the players taking turns
+    private static Iterator<ByteBuffer> randomPositions(long count, int size, Random random) {
+        Board board = new Board(size);
+        return Stream.generate(() -> {
+            board.clearBoard();
+            int spread = Math.max(5, size / 2);
+            int stones = 4 + random.nextInt(Math.min(37, spread * spread / 2 - 3));
+            int low = (size - spread) / 2;
+            int player = 1;
+            for (int placed = 0; placed < stones; ) {
+                if (board.placeStone(low + random.nextInt(spread), low + random.nextInt(spread), player)) {
+                    placed++;
+                    player = 3 - player;
+                }
+            }
+            return PositionCodec.encode(board, player);
+        }).limit(count).iterator();
+    }
+}
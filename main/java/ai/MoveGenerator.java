@@ -0,0 +1,309 @@
+//MoveGenerator class hands SearchEngine its candidate moves in a good order, so alpha-beta
+//cuts off after a few moves instead of trying every cell near a stone. candidates are
+//empty cells at most 2 away from a stone. each gets a key: the table move first, then a
+//winning move, a block of the opponent's five, then the strongest shape it makes for either
+//side (own threat before the same threat blocked), and inside a shape the ply's two killer
+//moves and the history table. when a five can be made only that move is returned, and when
+//the opponent threatens one only the blocks are, since every other move loses.
+//moves and keys live in fixed arrays per ply and next() picks them lazily, so generation
+//allocates nothing and a cut-off skips sorting the rest
+package ai;
+
+import logic.Board;
+import rules.RenjuTracker;
+import rules.RuleSet;
+import rules.Rules;
+import java.util.Arrays;
+
+public class MoveGenerator {
+    private static final int NEIGHBOUR_RANGE = 2;
+
+    //shapes a stone makes along one line, weakest to strongest
+    private static final int TWO = 1;
+    private static final int OPEN_TWO = 2;
+    private static final int THREE = 3;
+    private static final int OPEN_THREE = 4;
+    private static final int FOUR = 5;
+    private static final int OPEN_FOUR = 6; //also two threes or fours at once: can't be stopped either
+    private static final int FIVE = 7;
+
+    private static final int TIER_SHIFT = 24; //key = tier << 24 | killer bonus | history
+    private static final int KILLER_BONUS = 1 << 23;
+    private static final int HISTORY_MAX = (1 << 22) - 1;
+    private static final int TABLE_MOVE_KEY = Integer.MAX_VALUE;
+    private static final int[][] DIRECTIONS = {{0, 1}, {1, 0}, {1, 1}, {1, -1}};
+
+    private final Board board;
+    private final int boardSize;
+    private final int[] nearby; //number of stones within NEIGHBOUR_RANGE of each cell
+    private final int[][] moves; //candidates per ply
+    private final int[][] keys; //ordering key of each candidate, higher goes first
+    private final int[][] killers; //last two moves per ply that caused a cut-off
+    private final int[][] history; //[player - 1][cell], grows with cut-offs deep in the tree
+    private final boolean[] exactFive = new boolean[3]; //by player: an overline does not win
+    private RenjuTracker renju; //black's forbidden cells under Renju, null otherwise
+
+    public MoveGenerator(Board board, int maxPly) {
+        this.board = board;
+        this.boardSize = board.getBoardSize();
+        int cells = boardSize * boardSize;
+        this.nearby = new int[cells];
+        this.moves = new int[maxPly + 1][cells];
+        this.keys = new int[maxPly + 1][cells];
+        this.killers = new int[maxPly + 1][2];
+        this.history = new int[2][cells];
+        setRules(Rules.FREESTYLE, null);
+        rebuild();
+    }
+
+    //renju is the search's tracker, kept in step with the board by the caller
+    public void setRules(RuleSet rules, RenjuTracker renju) {
+        this.renju = renju;
+        exactFive[1] = rules.getId() != RuleSet.FREESTYLE;
+        exactFive[2] = rules.getId() == RuleSet.STANDARD;
+    }
+
+    //recount the stones around every cell, used when the board was changed directly
+    public void rebuild() {
+        Arrays.fill(nearby, 0);
+        for (int row = 0; row < boardSize; row++) {
+            for (int col = 0; col < boardSize; col++) {
+                if (board.getCell(row, col) != 0) {
+                    updateNearby(row, col, 1);
+                }
+            }
+        }
+    }
+
+    //the search placed or removed a stone at (row,col)
+    public void placed(int row, int col) {
+        updateNearby(row, col, 1);
+    }
+
+    public void removed(int row, int col) {
+        updateNearby(row, col, -1);
+    }
+
+    //forget the last search's killers and make its history count for less
+    public void newSearch() {
+        for (int[] plyKillers : killers) {
+            plyKillers[0] = -1;
+            plyKillers[1] = -1;
+        }
+        for (int[] playerHistory : history) {
+            for (int i = 0; i < playerHistory.length; i++) {
+                playerHistory[i] >>= 1;
+            }
+        }
+    }
+
+    public int[] moves(int ply) {
+        return moves[ply];
+    }
+
+    //fill moves(ply) with player's candidates and their keys, return how many;
+    //tableMove (a cell, or TranspositionTable.NO_MOVE) goes first when it is a candidate
+    public int generate(int ply, int player, int tableMove) {
+        int[] plyMoves = moves[ply];
+        int[] plyKeys = keys[ply];
+        int[] playerHistory = history[player - 1];
+        int killer0 = killers[ply][0];
+        int killer1 = killers[ply][1];
+        boolean forbidden = renju != null && player == 1;
+        int cells = boardSize * boardSize;
+        int count = 0;
+        int blocks = 0;
+
+        for (int cell = 0; cell < cells; cell++) {
+            int row = cell / boardSize;
+            int col = cell % boardSize;
+            if (nearby[cell] == 0 || board.getCell(row, col) != 0 || (forbidden && renju.isForbidden(row, col))) {
+                continue;
+            }
+            int attack = threat(row, col, player);
+            if (attack == FIVE) {
+                plyMoves[0] = cell; //nothing else needs a look
+                plyKeys[0] = TABLE_MOVE_KEY;
+                return 1;
+            }
+            int defence = threat(row, col, 3 - player);
+            int key;
+            if (cell == tableMove) {
+                key = TABLE_MOVE_KEY;
+            } else {
+                int tier = Math.max(2 * attack, 2 * defence - 1);
+                key = tier << TIER_SHIFT | playerHistory[cell];
+                if (cell == killer0 || cell == killer1) {
+                    key |= KILLER_BONUS;
+                }
+            }
+            if (defence == FIVE) {
+                blocks++;
+            }
+            plyMoves[count] = cell;
+            plyKeys[count++] = key;
+        }
+
+        //empty board: start in the centre
+        if (count == 0 && !board.isFull() && board.getCell(boardSize / 2, boardSize / 2) == 0) {
+            plyMoves[0] = (boardSize / 2) * boardSize + boardSize / 2;
+            plyKeys[0] = 0;
+            return 1;
+        }
+        //the opponent makes five next move unless this one blocks it
+        if (blocks > 0) {
+            int kept = 0;
+            int blockTier = (2 * FIVE - 1) << TIER_SHIFT;
+            for (int i = 0; i < count; i++) {
+                if (plyKeys[i] >= blockTier && (plyKeys[i] != TABLE_MOVE_KEY || threat(plyMoves[i] / boardSize,
+                        plyMoves[i] % boardSize, 3 - player) == FIVE)) {
+                    plyMoves[kept] = plyMoves[i];
+                    plyKeys[kept++] = plyKeys[i];
+                }
+            }
+            count = kept;
+        }
+        return count;
+    }
+
+    //swap the best of moves(ply)[index..count) into index and return it
+    public int next(int ply, int index, int count) {
+        int[] plyMoves = moves[ply];
+        int[] plyKeys = keys[ply];
+        int best = index;
+        for (int i = index + 1; i < count; i++) {
+            if (plyKeys[i] > plyKeys[best]) {
+                best = i;
+            }
+        }
+        if (best != index) {
+            int move = plyMoves[best];
+            plyMoves[best] = plyMoves[index];
+            plyMoves[index] = move;
+            int key = plyKeys[best];
+            plyKeys[best] = plyKeys[index];
+            plyKeys[index] = key;
+        }
+        return plyMoves[index];
+    }
+
+    //put all of moves(ply) in order, for the root where every move is searched anyway
+    public void sort(int ply, int count) {
+        for (int i = 0; i < count; i++) {
+            next(ply, i, count);
+        }
+    }
+
+    //move made player's search at ply cut off with depth plies left
+    public void cutoff(int ply, int player, int move, int depth) {
+        int[] plyKillers = killers[ply];
+        if (plyKillers[0] != move) {
+            plyKillers[1] = plyKillers[0];
+            plyKillers[0] = move;
+        }
+        int[] playerHistory = history[player - 1];
+        playerHistory[move] += depth * depth;
+        if (playerHistory[move] > HISTORY_MAX) {
+            for (int i = 0; i < playerHistory.length; i++) {
+                playerHistory[i] >>= 1;
+            }
+        }
+    }
+
+    //strongest shape a stone of player at the empty cell (row,col) would make
+    private int threat(int row, int col, int player) {
+        int best = 0;
+        int threats = 0; //lines with an open three or better
+        for (int[] direction : DIRECTIONS) {
+            int shape = shape(row, col, direction[0], direction[1], player);
+            if (shape == FIVE) {
+                return FIVE;
+            }
+            if (shape >= OPEN_THREE) {
+                threats++;
+            }
+            best = Math.max(best, shape);
+        }
+        return threats >= 2 ? Math.max(best, OPEN_FOUR) : best;
+    }
+
+    //shape along one line: the run through (row,col), whether each end is empty,
+    //and the stones just past a one-cell gap at each end (X_XX, XX_X...)
+    private int shape(int row, int col, int dRow, int dCol, int player) {
+        int forward = 0;
+        int r = row + dRow;
+        int c = col + dCol;
+        while (isPlayer(r, c, player)) {
+            forward++;
+            r += dRow;
+            c += dCol;
+        }
+        boolean forwardOpen = isEmpty(r, c);
+        int forwardGap = 0;
+        if (forwardOpen) {
+            r += dRow;
+            c += dCol;
+            while (forwardGap < 4 && isPlayer(r, c, player)) {
+                forwardGap++;
+                r += dRow;
+                c += dCol;
+            }
+        }
+
+        int backward = 0;
+        r = row - dRow;
+        c = col - dCol;
+        while (isPlayer(r, c, player)) {
+            backward++;
+            r -= dRow;
+            c -= dCol;
+        }
+        boolean backwardOpen = isEmpty(r, c);
+        int backwardGap = 0;
+        if (backwardOpen) {
+            r -= dRow;
+            c -= dCol;
+            while (backwardGap < 4 && isPlayer(r, c, player)) {
+                backwardGap++;
+                r -= dRow;
+                c -= dCol;
+            }
+        }
+
+        int run = 1 + forward + backward;
+        if (run >= 5) {
+            return run == 5 || !exactFive[player] ? FIVE : 0;
+        }
+        if (run == 4) {
+            return forwardOpen && backwardOpen ? OPEN_FOUR : forwardOpen || backwardOpen ? FOUR : 0;
+        }
+        //one more stone in the gap makes five
+        if ((forwardOpen && run + forwardGap >= 4) || (backwardOpen && run + backwardGap >= 4)) {
+            return FOUR;
+        }
+        boolean bothOpen = forwardOpen && backwardOpen;
+        if (run == 3 || run + forwardGap == 3 || run + backwardGap == 3) {
+            return bothOpen ? OPEN_THREE : forwardOpen || backwardOpen ? THREE : 0;
+        }
+        if (run == 2 || forwardGap > 0 || backwardGap > 0) {
+            return bothOpen ? OPEN_TWO : TWO;
+        }
+        return 0;
+    }
+
+    private boolean isPlayer(int row, int col, int player) {
+        return row >= 0 && row < boardSize && col >= 0 && col < boardSize && board.getCell(row, col) == player;
+    }
+
+    private boolean isEmpty(int row, int col) {
+        return row >= 0 && row < boardSize && col >= 0 && col < boardSize && board.getCell(row, col) == 0;
+    }
+
+    private void updateNearby(int row, int col, int delta) {
+        for (int r = Math.max(0, row - NEIGHBOUR_RANGE); r <= Math.min(boardSize - 1, row + NEIGHBOUR_RANGE); r++) {
+            for (int c = Math.max(0, col - NEIGHBOUR_RANGE); c <= Math.min(boardSize - 1, col + NEIGHBOUR_RANGE); c++) {
+                nearby[r * boardSize + c] += delta;
+            }
+        }
+    }
+}
@@ -0,0 +1,182 @@
+//OpeningBook class answers early-game positions from a sorted table on disk.
+//positions are keyed by the smallest Zobrist hash over the 8 board symmetries, so a
+//position and its rotations/mirrors share one entry; book moves are stored in that
+//canonical orientation and turned back on lookup. the file is memory-mapped and
+//binary-searched, nothing is loaded into the heap. built by OpeningBookBuilder.
+//file: magic "GMKB", version, board size, entry count, then ENTRY_SIZE-byte entries
+//(key, canonical cell, games, score in half points) sorted by key then cell
+package ai;
+
+import logic.GameBoard;
+import logic.Move;
+import logic.Zobrist;
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+public class OpeningBook implements Closeable {
+    static final int MAGIC = 0x474D4B42; //"GMKB"
+    static final int VERSION = 1;
+    static final int HEADER_SIZE = 16;
+    static final int ENTRY_SIZE = 18; //key 8, cell 2, games 4, score 4
+    private static final int DEFAULT_MIN_GAMES = 3;
+
+    private final FileChannel channel;
+    private final MappedByteBuffer table; //only absolute reads, so threads can share it
+    private final int boardSize;
+    private final int entries;
+    private int minGames = DEFAULT_MIN_GAMES;
+
+    public OpeningBook(Path file) throws IOException {
+        channel = FileChannel.open(file, StandardOpenOption.READ);
+        if (channel.size() > Integer.MAX_VALUE) {
+            channel.close();
+            throw new IOException("opening book is over 2 GB: " + file);
+        }
+        table = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+        if (table.capacity() < HEADER_SIZE || table.getInt(0) != MAGIC || table.getInt(4) != VERSION) {
+            channel.close();
+            throw new IOException("not an opening book: " + file);
+        }
+        boardSize = table.getInt(8);
+        entries = table.getInt(12);
+        if ((long) HEADER_SIZE + (long) entries * ENTRY_SIZE > table.capacity()) {
+            channel.close();
+            throw new IOException("opening book is cut short: " + file);
+        }
+    }
+
+    public int getBoardSize() {
+        return boardSize;
+    }
+
+    public int size() {
+        return entries;
+    }
+
+    //book moves seen in fewer games than this are ignored
+    public void setMinGames(int minGames) {
+        this.minGames = minGames;
+    }
+
+    //best book move for player in this position, or null if the book has nothing
+    public Move probe(GameBoard board, int player) {
+        if (board.getBoardSize() != boardSize) {
+            return null;
+        }
+        long[] hashes = symmetryHashes(board, player);
+        int symmetry = canonical(hashes);
+        long key = hashes[symmetry];
+
+        //first entry with this key
+        int low = 0;
+        int high = entries;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (keyAt(mid) < key) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+
+        //highest average score among the moves played often enough, more games break ties
+        int best = -1;
+        long bestScore = 0;
+        int bestGames = 0;
+        for (int i = low; i < entries && keyAt(i) == key; i++) {
+            int offset = HEADER_SIZE + i * ENTRY_SIZE;
+            int games = table.getInt(offset + 10);
+            long score = table.getInt(offset + 14);
+            if (games < minGames) {
+                continue;
+            }
+            //score / games > bestScore / bestGames, without dividing
+            if (best < 0 || score * bestGames > bestScore * games || (score * bestGames == bestScore * games && games > bestGames)) {
+                best = i;
+                bestScore = score;
+                bestGames = games;
+            }
+        }
+        if (best < 0) {
+            return null;
+        }
+
+        int cell = table.getShort(HEADER_SIZE + best * ENTRY_SIZE + 8);
+        int row = inverseRow(cell / boardSize, cell % boardSize, symmetry, boardSize);
+        int col = inverseCol(cell / boardSize, cell % boardSize, symmetry, boardSize);
+        if (!board.isValidPos(row, col) || board.getCell(row, col) != 0) {
+            return null; //hash collision with a different position
+        }
+        return new Move(row, col, player);
+    }
+
+    @Override
+    public void close() throws IOException {
+        channel.close();
+    }
+
+    private long keyAt(int i) {
+        return table.getLong(HEADER_SIZE + i * ENTRY_SIZE);
+    }
+
+    //hash of the position under each of the 8 symmetries, side to move included
+    static long[] symmetryHashes(GameBoard board, int player) {
+        int n = board.getBoardSize();
+        long[] hashes = new long[8];
+        for (int row = 0; row < n; row++) {
+            for (int col = 0; col < n; col++) {
+                int stone = board.getCell(row, col);
+                if (stone != 0) {
+                    for (int s = 0; s < 8; s++) {
+                        hashes[s] ^= Zobrist.key(symmetryRow(row, col, s, n), symmetryCol(row, col, s, n), stone);
+                    }
+                }
+            }
+        }
+        if (player == 2) {
+            for (int s = 0; s < 8; s++) {
+                hashes[s] ^= Zobrist.SIDE_TO_MOVE;
+            }
+        }
+        return hashes;
+    }
+
+    //symmetry giving the smallest hash, the first one on ties
+    static int canonical(long[] hashes) {
+        int best = 0;
+        for (int s = 1; s < 8; s++) {
+            if (hashes[s] < hashes[best]) {
+                best = s;
+            }
+        }
+        return best;
+    }
+
+    //symmetry s: bit 0 flips rows, bit 1 flips columns, bit 2 then swaps row and column
+    static int symmetryRow(int row, int col, int s, int n) {
+        int r = (s & 1) != 0 ? n - 1 - row : row;
+        int c = (s & 2) != 0 ? n - 1 - col : col;
+        return (s & 4) != 0 ? c : r;
+    }
+
+    static int symmetryCol(int row, int col, int s, int n) {
+        int r = (s & 1) != 0 ? n - 1 - row : row;
+        int c = (s & 2) != 0 ? n - 1 - col : col;
+        return (s & 4) != 0 ? r : c;
+    }
+
+    //undo symmetry s: swap back first, then the flips
+    static int inverseRow(int row, int col, int s, int n) {
+        int r = (s & 4) != 0 ? col : row;
+        return (s & 1) != 0 ? n - 1 - r : r;
+    }
+
+    static int inverseCol(int row, int col, int s, int n) {
+        int c = (s & 4) != 0 ? row : col;
+        return (s & 2) != 0 ? n - 1 - c : c;
+    }
+}
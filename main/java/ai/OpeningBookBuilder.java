@@ -0,0 +1,325 @@
+//OpeningBookBuilder class builds an OpeningBook file offline from finished games.
+//every position of the first plies of each game becomes a (canonical key, move, result)
+//sample; samples are sorted and merged in memory-sized runs spilled to temp files,
+//then the runs are k-way merged into the sorted book, so the input can be any size.
+//usage: java ai.OpeningBookBuilder <games.gmk|psq|sgf|rif> <book> [--size=15] [--plies=12] [--min-games=3]
+package ai;
+
+import logic.Board;
+import logic.Move;
+import logic.Zobrist;
+import notation.GameReader;
+import notation.GameValidator;
+import notation.Notation;
+import notation.NotationException;
+import storage.GameRecord;
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+
+public class OpeningBookBuilder {
+    private static final int RUN_SAMPLES = 1 << 22; //samples sorted in memory at a time, about 50 MB
+
+    private final int boardSize;
+    private final int maxPlies;
+    private final int minGames;
+    private final Board board;
+    private final long[] hashes = new long[8];
+    private final long[] keys = new long[RUN_SAMPLES];
+    private final int[] samples = new int[RUN_SAMPLES]; //canonical cell << 2 | points (0 loss, 1 draw, 2 win)
+    private int count;
+    private final List<Path> runs = new ArrayList<>();
+    private Path tempDir;
+    private int games;
+
+    public OpeningBookBuilder(int boardSize, int maxPlies, int minGames) {
+        if (boardSize < 5 || boardSize > Zobrist.MAX_SIZE) {
+            throw new IllegalArgumentException("board size " + boardSize);
+        }
+        this.boardSize = boardSize;
+        this.maxPlies = maxPlies;
+        this.minGames = minGames;
+        this.board = new Board(boardSize);
+    }
+
+    //add the opening of one game; games on other boards or with no result are ignored
+    public void add(GameRecord record) throws IOException {
+        int result = record.getResult();
+        if (record.getBoardSize() != boardSize || result == GameRecord.UNFINISHED) {
+            return;
+        }
+        games++;
+        board.clearBoard();
+        for (int s = 0; s < 8; s++) {
+            hashes[s] = 0;
+        }
+
+        List<Move> moves = record.getMoves();
+        for (int i = 0; i < moves.size() && i < maxPlies; i++) {
+            Move move = moves.get(i);
+            int player = move.getPlayer();
+            if (!board.isValidPos(move.getRow(), move.getCol()) || board.getCell(move.getRow(), move.getCol()) != 0) {
+                return; //bad game, keep what was added so far
+            }
+
+            //canonical key of the position before the move, same as OpeningBook.symmetryHashes
+            int symmetry = 0;
+            long key = 0;
+            for (int s = 0; s < 8; s++) {
+                long hash = player == 2 ? hashes[s] ^ Zobrist.SIDE_TO_MOVE : hashes[s];
+                if (s == 0 || hash < key) {
+                    key = hash;
+                    symmetry = s;
+                }
+            }
+            int cell = OpeningBook.symmetryRow(move.getRow(), move.getCol(), symmetry, boardSize) * boardSize
+                    + OpeningBook.symmetryCol(move.getRow(), move.getCol(), symmetry, boardSize);
+            int points = result == GameRecord.DRAW ? 1 : result == player ? 2 : 0;
+            if (count == RUN_SAMPLES) {
+                spill();
+            }
+            keys[count] = key;
+            samples[count] = cell << 2 | points;
+            count++;
+
+            board.placeStone(move.getRow(), move.getCol(), player);
+            for (int s = 0; s < 8; s++) {
+                hashes[s] ^= Zobrist.key(OpeningBook.symmetryRow(move.getRow(), move.getCol(), s, boardSize),
+                        OpeningBook.symmetryCol(move.getRow(), move.getCol(), s, boardSize), player);
+            }
+        }
+    }
+
+    public int getGames() {
+        return games;
+    }
+
+    //merge everything added into the book file, returns the number of entries written
+    public int build(Path output) throws IOException {
+        spill();
+        PriorityQueue<Run> queue = new PriorityQueue<>((a, b) -> a.key != b.key ? Long.compare(a.key, b.key) : Integer.compare(a.cell, b.cell));
+        List<Run> open = new ArrayList<>();
+        int entries = 0;
+        try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(output)))) {
+            out.writeInt(OpeningBook.MAGIC);
+            out.writeInt(OpeningBook.VERSION);
+            out.writeInt(boardSize);
+            out.writeInt(0); //entry count, patched below
+
+            for (Path path : runs) {
+                Run run = new Run(path);
+                open.add(run);
+                if (run.advance()) {
+                    queue.add(run);
+                }
+            }
+
+            //sum equal (key, cell) entries across runs
+            while (!queue.isEmpty()) {
+                Run first = queue.poll();
+                long key = first.key;
+                int cell = first.cell;
+                long total = first.games;
+                long score = first.score;
+                if (first.advance()) {
+                    queue.add(first);
+                }
+                while (!queue.isEmpty() && queue.peek().key == key && queue.peek().cell == cell) {
+                    Run run = queue.poll();
+                    total += run.games;
+                    score += run.score;
+                    if (run.advance()) {
+                        queue.add(run);
+                    }
+                }
+                if (total >= minGames) {
+                    writeEntry(out, key, cell, total, score);
+                    entries++;
+                }
+            }
+        } finally {
+            for (Run run : open) {
+                run.in.close();
+            }
+            deleteRuns();
+        }
+
+        try (FileChannel channel = FileChannel.open(output, StandardOpenOption.WRITE)) {
+            channel.write(ByteBuffer.allocate(4).putInt(0, entries), 12);
+        }
+        return entries;
+    }
+
+    //sort the buffered samples, collapse equal (key, cell) pairs and write them as a run
+    private void spill() throws IOException {
+        if (count == 0) {
+            return;
+        }
+        sort(0, count - 1);
+        if (tempDir == null) {
+            tempDir = Files.createTempDirectory("gomoku-book");
+        }
+        Path path = tempDir.resolve("run" + runs.size());
+        try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(path)))) {
+            int i = 0;
+            while (i < count) {
+                long key = keys[i];
+                int cell = samples[i] >>> 2;
+                long total = 0;
+                long score = 0;
+                while (i < count && keys[i] == key && samples[i] >>> 2 == cell) {
+                    total++;
+                    score += samples[i] & 3;
+                    i++;
+                }
+                writeEntry(out, key, cell, total, score);
+            }
+        }
+        runs.add(path);
+        count = 0;
+    }
+
+    private static void writeEntry(DataOutputStream out, long key, int cell, long games, long score) throws IOException {
+        out.writeLong(key);
+        out.writeShort(cell);
+        out.writeInt((int) Math.min(games, Integer.MAX_VALUE));
+        out.writeInt((int) Math.min(score, Integer.MAX_VALUE));
+    }
+
+    private void deleteRuns() throws IOException {
+        for (Path path : runs) {
+            Files.deleteIfExists(path);
+        }
+        runs.clear();
+        if (tempDir != null) {
+            Files.deleteIfExists(tempDir);
+            tempDir = null;
+        }
+    }
+
+    //quicksort of the parallel key/sample arrays by key, then sample
+    private void sort(int low, int high) {
+        while (high - low > 16) {
+            int mid = (low + high) >>> 1;
+            long pivotKey = keys[mid];
+            int pivotSample = samples[mid];
+            int i = low;
+            int j = high;
+            while (i <= j) {
+                while (less(keys[i], samples[i], pivotKey, pivotSample)) {
+                    i++;
+                }
+                while (less(pivotKey, pivotSample, keys[j], samples[j])) {
+                    j--;
+                }
+                if (i <= j) {
+                    swap(i++, j--);
+                }
+            }
+            //recurse into the smaller half, loop on the bigger one
+            if (j - low < high - i) {
+                sort(low, j);
+                low = i;
+            } else {
+                sort(i, high);
+                high = j;
+            }
+        }
+        for (int i = low + 1; i <= high; i++) {
+            for (int j = i; j > low && less(keys[j], samples[j], keys[j - 1], samples[j - 1]); j--) {
+                swap(j, j - 1);
+            }
+        }
+    }
+
+    private static boolean less(long keyA, int sampleA, long keyB, int sampleB) {
+        return keyA != keyB ? keyA < keyB : sampleA < sampleB;
+    }
+
+    private void swap(int a, int b) {
+        long key = keys[a];
+        keys[a] = keys[b];
+        keys[b] = key;
+        int sample = samples[a];
+        samples[a] = samples[b];
+        samples[b] = sample;
+    }
+
+    //one sorted run file being merged
+    private static class Run {
+        final DataInputStream in;
+        long key;
+        int cell;
+        int games;
+        int score;
+
+        Run(Path path) throws IOException {
+            in = new DataInputStream(new BufferedInputStream(Files.newInputStream(path)));
+        }
+
+        boolean advance() throws IOException {
+            try {
+                key = in.readLong();
+            } catch (EOFException e) {
+                return false;
+            }
+            cell = in.readUnsignedShort();
+            games = in.readInt();
+            score = in.readInt();
+            return true;
+        }
+    }
+
+    public static void main(String[] args) throws IOException {
+        if (args.length < 2) {
+            System.err.println("usage: OpeningBookBuilder <games.gmk|psq|sgf|rif> <book> [--size=15] [--plies=12] [--min-games=3]");
+            System.exit(2);
+        }
+        Map<String, String> options = new HashMap<>();
+        for (int i = 2; i < args.length; i++) {
+            int split = args[i].indexOf('=');
+            if (!args[i].startsWith("--") || split < 0) {
+                System.err.println("bad option: " + args[i]);
+                System.exit(2);
+            }
+            options.put(args[i].substring(2, split), args[i].substring(split + 1));
+        }
+        int size = Integer.parseInt(options.getOrDefault("size", "15"));
+        int plies = Integer.parseInt(options.getOrDefault("plies", "12"));
+        int minGames = Integer.parseInt(options.getOrDefault("min-games", "3"));
+
+        long start = System.currentTimeMillis();
+        OpeningBookBuilder builder = new OpeningBookBuilder(size, plies, minGames);
+        GameValidator validator = new GameValidator(); //fills in results for formats that have none
+        try (GameReader reader = Notation.reader(Paths.get(args[0]))) {
+            while (true) {
+                try {
+                    GameRecord record = reader.next();
+                    if (record == null) {
+                        break;
+                    }
+                    builder.add(validator.validate(record));
+                } catch (NotationException e) {
+                    //bad game, skip it
+                }
+            }
+        }
+        int entries = builder.build(Paths.get(args[1]));
+        System.err.printf("%d games, %d book entries in %.1fs%n", builder.getGames(), entries,
+                (System.currentTimeMillis() - start) / 1000.0);
+    }
+}
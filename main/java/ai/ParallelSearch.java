@@ -0,0 +1,166 @@
+//ParallelSearch class runs a Lazy SMP search: N threads search the same
+//position, each on its own Board copy and move stack, and share one
+//transposition table so the helpers' results speed up the main thread.
+//With one thread the search runs on the caller's thread and is deterministic.
+//stop() ends the running search early, from any thread, with the best move found so far
+package ai;
+
+import logic.Board;
+import logic.GameBoard;
+import rules.RuleSet;
+import rules.Rules;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+public class ParallelSearch {
+    private final int threads;
+    private final TranspositionTable table;
+    private final ExecutorService helpers; //threads - 1 helper threads, null when single-threaded
+    private long lastNodes; //nodes searched by all threads in the last search
+    private volatile RuleSet rules = Rules.FREESTYLE;
+    private volatile SearchEngine[] running; //engines of the search in progress, for stop()
+    private volatile boolean stopRequested; //set by stop(), cleared by clearStop()
+
+    public ParallelSearch(int threads, TranspositionTable table) {
+        if (threads < 1) {
+            throw new IllegalArgumentException();
+        }
+        this.threads = threads;
+        this.table = table;
+        this.helpers = threads == 1 ? null : Executors.newFixedThreadPool(threads - 1, runnable -> {
+            Thread thread = new Thread(runnable, "gomoku-smp-helper");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    //rules every engine searches under from the next search on
+    public void setRules(RuleSet rules) {
+        this.rules = rules;
+    }
+
+    //search position for player until deadlineNanos (System.nanoTime()) or maxDepth
+    public SearchResult search(GameBoard position, int player, long deadlineNanos, int maxDepth) {
+        table.newSearch();
+        RuleSet rules = this.rules;
+        SearchEngine[] engines = new SearchEngine[threads]; //[0] is the main engine, the rest are helpers
+        for (int id = 0; id < threads; id++) {
+            engines[id] = new SearchEngine(copyOf(position), table);
+            engines[id].setHelperId(id);
+            engines[id].setRules(rules);
+        }
+        //published before stopRequested is read, so a stop() at any moment reaches these engines
+        running = engines;
+        if (stopRequested) {
+            stopAll(engines);
+        }
+        try {
+            if (threads == 1) {
+                SearchResult result = engines[0].search(player, deadlineNanos, maxDepth);
+                lastNodes = result.getNodes();
+                return result;
+            }
+            return searchParallel(engines, player, deadlineNanos, maxDepth);
+        } finally {
+            running = null;
+        }
+    }
+
+    //finish the running search now, and every search started until clearStop(); safe from any thread
+    public void stop() {
+        stopRequested = true;
+        SearchEngine[] engines = running;
+        if (engines != null) {
+            stopAll(engines);
+        }
+    }
+
+    //let searches run again after stop()
+    public void clearStop() {
+        stopRequested = false;
+    }
+
+    private SearchResult searchParallel(SearchEngine[] engines, int player, long deadlineNanos, int maxDepth) {
+        //start helpers first, each with its own board and engine
+        List<Future<SearchResult>> futures = new ArrayList<>();
+        for (int id = 1; id < threads; id++) {
+            SearchEngine helper = engines[id];
+            futures.add(helpers.submit(() -> helper.search(player, deadlineNanos, maxDepth)));
+        }
+
+        SearchResult best = engines[0].search(player, deadlineNanos, maxDepth);
+        long nodes = best.getNodes();
+
+        //the main thread is done, so stop the helpers and collect what they found
+        for (int id = 1; id < threads; id++) {
+            engines[id].stop();
+        }
+        for (Future<SearchResult> future : futures) {
+            SearchResult result = await(future);
+            nodes += result.getNodes();
+            //a helper that got deeper than the main thread has the better answer
+            if (result.getRow() >= 0 && result.getDepth() > best.getDepth()) {
+                best = result;
+            }
+        }
+        lastNodes = nodes;
+        return new SearchResult(best.getRow(), best.getCol(), best.getScore(), best.getDepth(), nodes);
+    }
+
+    //nodes searched by all threads together in the last search
+    public long getLastNodes() {
+        return lastNodes;
+    }
+
+    public int getThreads() {
+        return threads;
+    }
+
+    //stop the helper threads, the object can't be used after this
+    public void shutdown() {
+        if (helpers != null) {
+            helpers.shutdownNow();
+        }
+    }
+
+    //nodes/second for 1..maxThreads threads, searching position for millis each run
+    public static double[] measureScaling(GameBoard position, int player, int maxThreads, long millis, int tableBits) {
+        double[] nodesPerSecond = new double[maxThreads + 1];
+        for (int n = 1; n <= maxThreads; n++) {
+            ParallelSearch search = new ParallelSearch(n, new TranspositionTable(tableBits));
+            long start = System.nanoTime();
+            search.search(position, player, start + millis * 1_000_000L, SearchEngine.MAX_DEPTH);
+            long elapsed = System.nanoTime() - start;
+            nodesPerSecond[n] = search.getLastNodes() * 1e9 / elapsed;
+            search.shutdown();
+        }
+        return nodesPerSecond;
+    }
+
+    private static void stopAll(SearchEngine[] engines) {
+        for (SearchEngine engine : engines) {
+            engine.stop();
+        }
+    }
+
+    private static Board copyOf(GameBoard position) {
+        Board copy = new Board(position.getBoardSize());
+        copy.copyFrom(position);
+        return copy;
+    }
+
+    private static SearchResult await(Future<SearchResult> future) {
+        try {
+            return future.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException(e);
+        } catch (ExecutionException e) {
+            throw new IllegalStateException(e.getCause());
+        }
+    }
+}
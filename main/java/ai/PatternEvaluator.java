@@ -0,0 +1,275 @@
+//PatternEvaluator class keeps per-line pattern counts (fives, open fours,
+//broken threes, open twos...) for both players. Stones must be placed and
+//removed through it: it then rescans only the four lines through the changed
+//cell, so a leaf score is an O(1) lookup and undo restores the counts exactly
+package ai;
+
+import logic.Board;
+import java.util.Arrays;
+
+public class PatternEvaluator {
+    public static final int FIVE = 0;
+    public static final int OPEN_FOUR = 1; //_XXXX_
+    public static final int FOUR = 2; //one move from five: XXXX_ with one side blocked, XX_XX, XXX_X
+    public static final int OPEN_THREE = 3; //_XXX_
+    public static final int BROKEN_THREE = 4; //_XX_X_
+    public static final int CLOSED_THREE = 5; //three with one side blocked
+    public static final int OPEN_TWO = 6; //_XX_ or _X_X_
+    public static final int CLOSED_TWO = 7;
+    public static final int PATTERNS = 8;
+
+    private static final int[] WEIGHT = {100000, 10000, 1000, 1000, 800, 100, 100, 10};
+    public static final int WINNING = 50000; //leaf score when a win can't be stopped any more
+
+    private final Board board;
+    private final int boardSize;
+    private final int lineCount;
+    private final int[] lineStartRow;
+    private final int[] lineStartCol;
+    private final int[] lineDirection; //index into DIRECTIONS
+    private final int[] lineLength;
+    private final int[][] lineOfCell; //[direction][cell] -> line id
+    private final int[][][] lineCounts; //[line][player - 1][pattern]
+    private final int[][] counts = new int[2][PATTERNS]; //totals over all lines
+    private final int[] lineBuffer; //cells of the line being scanned, from index 1
+
+    //horizontal, vertical, diagonal, anti-diagonal
+    private static final int[][] DIRECTIONS = {{0, 1}, {1, 0}, {1, 1}, {1, -1}};
+
+    public PatternEvaluator(Board board) {
+        this.board = board;
+        this.boardSize = board.getBoardSize();
+        this.lineCount = 6 * boardSize - 2;
+        this.lineStartRow = new int[lineCount];
+        this.lineStartCol = new int[lineCount];
+        this.lineDirection = new int[lineCount];
+        this.lineLength = new int[lineCount];
+        this.lineOfCell = new int[4][boardSize * boardSize];
+        this.lineCounts = new int[lineCount][2][PATTERNS];
+        this.lineBuffer = new int[boardSize + 1];
+        buildLines();
+        rebuild();
+    }
+
+    //place a stone on the board and update the four lines through it
+    public boolean placeStone(int row, int col, int player) {
+        if (!board.placeStone(row, col, player)) {
+            return false;
+        }
+        updateLinesThrough(row, col);
+        return true;
+    }
+
+    //remove a stone from the board and update the four lines through it
+    public boolean removeStone(int row, int col) {
+        if (!board.removeStone(row, col)) {
+            return false;
+        }
+        updateLinesThrough(row, col);
+        return true;
+    }
+
+    //score from the point of view of player, who is about to move
+    public int evaluate(int player) {
+        int me = player - 1;
+        int opp = 2 - player;
+
+        //the side to move turns any four into five
+        if (counts[me][FIVE] > 0 || counts[me][FOUR] > 0 || counts[me][OPEN_FOUR] > 0) {
+            return WINNING;
+        }
+        //two separate fours can't both be blocked
+        if (counts[opp][FIVE] > 0 || counts[opp][OPEN_FOUR] > 0 || counts[opp][FOUR] > 1) {
+            return -WINNING;
+        }
+        return score(me) - score(opp);
+    }
+
+    //number of lines showing pattern for player
+    public int getCount(int player, int pattern) {
+        return counts[player - 1][pattern];
+    }
+
+    //recount every line from scratch, used when the board was changed directly
+    public void rebuild() {
+        for (int p = 0; p < 2; p++) {
+            for (int i = 0; i < PATTERNS; i++) {
+                counts[p][i] = 0;
+            }
+        }
+        for (int line = 0; line < lineCount; line++) {
+            //the old per-line counts describe a board that may be gone, don't take them out
+            Arrays.fill(lineCounts[line][0], 0);
+            Arrays.fill(lineCounts[line][1], 0);
+            scanLine(line);
+        }
+    }
+
+    private int score(int p) {
+        int score = 0;
+        for (int i = 0; i < PATTERNS; i++) {
+            score += WEIGHT[i] * counts[p][i];
+        }
+        return score;
+    }
+
+    private void updateLinesThrough(int row, int col) {
+        int cell = row * boardSize + col;
+        for (int d = 0; d < 4; d++) {
+            int line = lineOfCell[d][cell];
+            if (line >= 0) {
+                scanLine(line);
+            }
+        }
+    }
+
+    //take the line's old counts out of the totals, rescan it and add the new ones
+    private void scanLine(int line) {
+        int length = lineLength[line];
+        int dRow = DIRECTIONS[lineDirection[line]][0];
+        int dCol = DIRECTIONS[lineDirection[line]][1];
+        int row = lineStartRow[line];
+        int col = lineStartCol[line];
+
+        for (int i = 1; i <= length; i++) {
+            lineBuffer[i] = board.getCell(row, col);
+            row += dRow;
+            col += dCol;
+        }
+
+        for (int p = 0; p < 2; p++) {
+            int[] lineCount = lineCounts[line][p];
+            for (int i = 0; i < PATTERNS; i++) {
+                counts[p][i] -= lineCount[i];
+                lineCount[i] = 0;
+            }
+            countPatterns(length, p + 1, lineCount);
+            for (int i = 0; i < PATTERNS; i++) {
+                counts[p][i] += lineCount[i];
+            }
+        }
+    }
+
+    //classify runs of player inside lineBuffer[1..length]
+    private void countPatterns(int length, int player, int[] out) {
+        int i = 1;
+        while (i <= length) {
+            //find a segment free of opponent stones; shorter than 5 it can never make five
+            if (!isFree(lineBuffer[i], player)) {
+                i++;
+                continue;
+            }
+            int segmentEnd = i;
+            while (segmentEnd + 1 <= length && isFree(lineBuffer[segmentEnd + 1], player)) {
+                segmentEnd++;
+            }
+            if (segmentEnd - i + 1 >= 5) {
+                countSegment(i, segmentEnd, player, out);
+            }
+            i = segmentEnd + 1;
+        }
+    }
+
+    private void countSegment(int start, int end, int player, int[] out) {
+        int i = start;
+        while (i <= end) {
+            if (lineBuffer[i] != player) {
+                i++;
+                continue;
+            }
+            int runEnd = i;
+            while (runEnd + 1 <= end && lineBuffer[runEnd + 1] == player) {
+                runEnd++;
+            }
+            int run = runEnd - i + 1;
+            boolean leftOpen = i > start;
+            int next = runEnd + 1;
+
+            //run, one gap, run: broken shapes
+            if (run < 5 && next + 1 <= end && lineBuffer[next] == 0 && lineBuffer[next + 1] == player) {
+                int secondEnd = next + 1;
+                while (secondEnd + 1 <= end && lineBuffer[secondEnd + 1] == player) {
+                    secondEnd++;
+                }
+                int total = run + secondEnd - next;
+                boolean rightOpen = secondEnd < end;
+                if (secondEnd - next >= 5) {
+                    out[FIVE]++;
+                } else if (total >= 4) {
+                    out[FOUR]++;
+                } else if (total == 3) {
+                    out[leftOpen && rightOpen ? BROKEN_THREE : CLOSED_THREE]++;
+                } else if (leftOpen && rightOpen) {
+                    out[OPEN_TWO]++;
+                } else {
+                    out[CLOSED_TWO]++;
+                }
+                i = secondEnd + 1;
+                continue;
+            }
+
+            boolean rightOpen = runEnd < end;
+            if (run >= 5) {
+                out[FIVE]++;
+            } else if (run == 4) {
+                if (leftOpen && rightOpen) {
+                    out[OPEN_FOUR]++;
+                } else if (leftOpen || rightOpen) {
+                    out[FOUR]++;
+                }
+            } else if (run == 3) {
+                if (leftOpen && rightOpen) {
+                    out[OPEN_THREE]++;
+                } else if (leftOpen || rightOpen) {
+                    out[CLOSED_THREE]++;
+                }
+            } else if (run == 2) {
+                if (leftOpen && rightOpen) {
+                    out[OPEN_TWO]++;
+                } else if (leftOpen || rightOpen) {
+                    out[CLOSED_TWO]++;
+                }
+            }
+            i = runEnd + 1;
+        }
+    }
+
+    //empty or own stone (segments end at opponent stones and the border)
+    private static boolean isFree(int cell, int player) {
+        return cell == 0 || cell == player;
+    }
+
+    //number every row, column and diagonal, and remember which line each cell is on
+    private void buildLines() {
+        for (int d = 0; d < 4; d++) {
+            Arrays.fill(lineOfCell[d], -1);
+        }
+        int line = 0;
+        for (int d = 0; d < 4; d++) {
+            for (int row = 0; row < boardSize; row++) {
+                for (int col = 0; col < boardSize; col++) {
+                    //a line starts at a cell whose previous cell is off the board
+                    int prevRow = row - DIRECTIONS[d][0];
+                    int prevCol = col - DIRECTIONS[d][1];
+                    if (board.isValidPos(prevRow, prevCol)) {
+                        continue;
+                    }
+                    int length = 0;
+                    int r = row;
+                    int c = col;
+                    while (board.isValidPos(r, c)) {
+                        lineOfCell[d][r * boardSize + c] = line;
+                        length++;
+                        r += DIRECTIONS[d][0];
+                        c += DIRECTIONS[d][1];
+                    }
+                    lineStartRow[line] = row;
+                    lineStartCol[line] = col;
+                    lineDirection[line] = d;
+                    lineLength[line] = length;
+                    line++;
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,160 @@
+//PonderService class keeps searching the game position while the human thinks, so a
+//hint is ready the moment it is asked for. one daemon thread searches a copy of the
+//position, with a transposition table kept from one position to the next; start() drops
+//the running search and begins on the new position, stop() only drops it.
+//every finished depth is a new best move. it reaches the listener through the publisher
+//(Platform::runLater in the game) at most once per PUBLISH_INTERVAL_MS: the timer holds
+//back an early one, and only the newest is sent. results for an old position never arrive.
+//a position in the opening book is not searched: the book move is the one result, as AIPlayer would play it.
+//start and stop must be called on the publisher's thread
+package ai;
+
+import clock.Deadline;
+import clock.Scheduler;
+import logic.Board;
+import logic.GameBoard;
+import logic.Move;
+import rules.RuleSet;
+import rules.Rules;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Consumer;
+
+public class PonderService {
+    public static final long PUBLISH_INTERVAL_MS = 200;
+    private static final long MAX_PONDER_MS = 60_000; //give the CPU back if the human is away
+    private static final int TABLE_BITS = 20;
+
+    private final Scheduler timer;
+    private final Executor publisher;
+    private final Consumer<SearchResult> listener;
+    private final ExecutorService searcher;
+    private final TranspositionTable table = new TranspositionTable(TABLE_BITS);
+    private final Deadline publishTick = new Deadline(this::publish);
+    private final AtomicBoolean publishArmed = new AtomicBoolean();
+    private volatile Update latest; //newest result, not published yet if publishArmed
+    private volatile long lastPublish;
+    private volatile int generation; //bumped for every new position, only by the publisher's thread
+    private volatile SearchEngine engine; //search running now, null if none
+    private volatile RuleSet rules = Rules.FREESTYLE;
+    private volatile OpeningBook book; //checked before searching, null for none
+    private SearchResult best; //newest result published for the current position
+
+    public PonderService(Scheduler timer, Executor publisher, Consumer<SearchResult> listener) {
+        this.timer = timer;
+        this.publisher = publisher;
+        this.listener = listener;
+        this.lastPublish = timer.now() - PUBLISH_INTERVAL_MS;
+        this.searcher = Executors.newSingleThreadExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "gomoku-ponder");
+            thread.setDaemon(true);
+            thread.setPriority(Thread.MIN_PRIORITY); //never slow down the game itself
+            return thread;
+        });
+    }
+
+    //rules for the next positions
+    public void setRules(RuleSet rules) {
+        this.rules = rules;
+    }
+
+    //the computer's book, so the hint agrees with the move it would play
+    public void setOpeningBook(OpeningBook book) {
+        this.book = book;
+    }
+
+    //search position (fixed size) for player until the next start() or stop()
+    public void start(GameBoard position, int player) {
+        stop();
+        int id = generation;
+        Board copy = new Board(position.getBoardSize());
+        copy.copyFrom(position);
+        searcher.execute(() -> ponder(id, copy, player));
+    }
+
+    //drop the running search and anything it has not published yet
+    public void stop() {
+        generation++;
+        best = null;
+        SearchEngine running = engine;
+        if (running != null) {
+            running.stop();
+        }
+    }
+
+    //best move found so far for the current position, null if no depth is finished yet
+    public SearchResult getBest() {
+        return best;
+    }
+
+    //stop for good and end the search thread
+    public void shutdown() {
+        stop();
+        searcher.shutdownNow();
+    }
+
+    //runs on the search thread
+    private void ponder(int id, Board position, int player) {
+        if (id != generation) {
+            return; //a newer position is already queued
+        }
+        OpeningBook book = this.book;
+        RuleSet rules = this.rules;
+        if (book != null) {
+            Move move = book.probe(position, player);
+            if (move != null && !rules.isForbidden(position, move.getRow(), move.getCol(), player)) {
+                offer(id, new SearchResult(move.getRow(), move.getCol(), 0, 0, 0)); //depth 0: no search was done
+                return;
+            }
+        }
+        SearchEngine search = new SearchEngine(position, table);
+        search.setRules(rules);
+        search.setIterationListener(result -> offer(id, result));
+        engine = search;
+        if (id != generation) {
+            return; //stop() came before it could see this engine
+        }
+        table.newSearch();
+        search.search(player, System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(MAX_PONDER_MS), SearchEngine.MAX_DEPTH);
+        engine = null;
+    }
+
+    //a depth is done: publish now, or when the interval since the last publish is over
+    private void offer(int id, SearchResult result) {
+        latest = new Update(id, result);
+        if (publishArmed.compareAndSet(false, true)) {
+            timer.arm(publishTick, Math.max(timer.now(), lastPublish + PUBLISH_INTERVAL_MS));
+        }
+    }
+
+    //runs on the timer's thread, so only hands the result on
+    private void publish() {
+        publishArmed.set(false); //before reading latest, so a newer one arms the timer again
+        lastPublish = timer.now();
+        Update update = latest;
+        if (update != null) {
+            publisher.execute(() -> deliver(update));
+        }
+    }
+
+    private void deliver(Update update) {
+        if (update.id != generation) {
+            return; //the position changed after this was found
+        }
+        best = update.result;
+        listener.accept(update.result);
+    }
+
+    private static class Update {
+        final int id;
+        final SearchResult result;
+
+        Update(int id, SearchResult result) {
+            this.id = id;
+            this.result = result;
+        }
+    }
+}
@@ -0,0 +1,57 @@
+//PositionEvaluation class is BatchEvaluator's answer for one position: the best move
+//for the player to move and the search score from that player's side
+package ai;
+
+public class PositionEvaluation {
+    private final long index; //position's place in the input, counting from 0
+    private final int player;
+    private final int row;
+    private final int col;
+    private final int score;
+    private final int depth;
+    private final long nodes;
+
+    public PositionEvaluation(long index, int player, SearchResult result) {
+        this.index = index;
+        this.player = player;
+        this.row = result.getRow();
+        this.col = result.getCol();
+        this.score = result.getScore();
+        this.depth = result.getDepth();
+        this.nodes = result.getNodes();
+    }
+
+    public long getIndex() {
+        return index;
+    }
+
+    public int getPlayer() {
+        return player;
+    }
+
+    //-1 when the board is full
+    public int getRow() {
+        return row;
+    }
+
+    public int getCol() {
+        return col;
+    }
+
+    public int getScore() {
+        return score;
+    }
+
+    //score from black's side, so positions with different players to move compare directly
+    public int getBlackScore() {
+        return player == 1 ? score : -score;
+    }
+
+    public int getDepth() {
+        return depth;
+    }
+
+    public long getNodes() {
+        return nodes;
+    }
+}
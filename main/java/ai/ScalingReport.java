@@ -0,0 +1,29 @@
+//ScalingReport class prints Lazy SMP nodes/second for 1..N threads on this host
+//usage: java ai.ScalingReport [maxThreads] [millisPerRun]
+package ai;
+
+import logic.Board;
+
+public class ScalingReport {
+    private static final int TABLE_BITS = 22; //4M entries, 64 MB shared by all threads
+
+    public static void main(String[] args) {
+        int maxThreads = args.length > 0 ? Integer.parseInt(args[0]) : Runtime.getRuntime().availableProcessors();
+        long millis = args.length > 1 ? Long.parseLong(args[1]) : 3000;
+
+        //a fixed mid-game position so every run searches the same tree
+        Board position = new Board(20);
+        int[][] opening = {{9, 9}, {10, 10}, {9, 10}, {8, 8}, {10, 9}, {11, 9}, {8, 10}, {7, 11}, {10, 11}, {11, 12}};
+        int player = 1;
+        for (int[] move : opening) {
+            position.placeStone(move[0], move[1], player);
+            player = 3 - player;
+        }
+
+        double[] nodesPerSecond = ParallelSearch.measureScaling(position, player, maxThreads, millis, TABLE_BITS);
+        System.out.printf("%-8s %14s %8s%n", "threads", "nodes/s", "speedup");
+        for (int n = 1; n <= maxThreads; n++) {
+            System.out.printf("%-8d %14.0f %8.2f%n", n, nodesPerSecond[n], nodesPerSecond[n] / nodesPerSecond[1]);
+        }
+    }
+}
@@ -0,0 +1,285 @@
+//SearchEngine class runs a negamax alpha-beta search with iterative deepening
+//on its own Board. The search stops at a hard wall-clock deadline and always
+//returns the best move of the deepest iteration it got through.
+//under Renju a RenjuTracker follows every move, so black's forbidden moves are
+//left out of each node's candidates with a few table lookups per cell.
+//MoveGenerator supplies and orders the candidates at every node
+package ai;
+
+import logic.Board;
+import logic.Zobrist;
+import rules.RenjuTracker;
+import rules.RuleSet;
+import rules.Rules;
+import java.util.function.Consumer;
+
+public class SearchEngine {
+    public static final int WIN_SCORE = 1_000_000;
+    public static final int MAX_DEPTH = 64;
+    private static final int CHECK_INTERVAL = 1023; //check the clock every 1024 nodes
+    private static final int WIN_THRESHOLD = WIN_SCORE - 1000; //scores above this are forced wins
+    private static final int DEFAULT_TABLE_BITS = 20; //1M entries, 16 MB
+
+    private final Board board;
+    private final int boardSize;
+    private final TranspositionTable table;
+    private final PatternEvaluator evaluator; //all moves go through it so leaf scores stay current
+    private final MoveGenerator generator; //candidates per ply, killers and history
+    private RuleSet rules = Rules.FREESTYLE;
+    private RenjuTracker renju; //kept in step with the board under Renju, null otherwise
+    private long deadline; //System.nanoTime() value where the search must stop
+    private boolean stopped;
+    private volatile boolean stopRequested; //set from another thread by stop()
+    private int helperId; //0 = main search thread, >0 = Lazy SMP helper
+    private long nodes;
+    private Consumer<SearchResult> iterationListener; //told about every finished depth, null for none
+
+    //the engine searches on this board directly, so callers should pass a copy
+    public SearchEngine(Board board) {
+        this(board, new TranspositionTable(DEFAULT_TABLE_BITS));
+    }
+
+    public SearchEngine(Board board, TranspositionTable table) {
+        this.board = board;
+        this.table = table;
+        this.evaluator = new PatternEvaluator(board);
+        this.boardSize = board.getBoardSize();
+        this.generator = new MoveGenerator(board, MAX_DEPTH);
+    }
+
+    //make this engine a Lazy SMP helper; helpers start at a different depth and
+    //root move order so they explore different parts of the tree than the main thread
+    public void setHelperId(int helperId) {
+        this.helperId = helperId;
+    }
+
+    //rules for the search, freestyle by default
+    public void setRules(RuleSet rules) {
+        this.rules = rules;
+        this.renju = rules.getId() == RuleSet.RENJU ? new RenjuTracker(board) : null;
+        generator.setRules(rules, renju);
+    }
+
+    //call listener on the searching thread with the best move after every finished depth
+    public void setIterationListener(Consumer<SearchResult> listener) {
+        this.iterationListener = listener;
+    }
+
+    //ask a running search (possibly on another thread) to finish; the engine stays stopped
+    public void stop() {
+        stopRequested = true;
+    }
+
+    //search for player until deadlineNanos (System.nanoTime()) or until maxDepth is done
+    //(the caller starts a new table generation with TranspositionTable.newSearch())
+    public SearchResult search(int player, long deadlineNanos, int maxDepth) {
+        this.deadline = deadlineNanos;
+        this.stopped = false;
+        this.nodes = 0;
+        evaluator.rebuild();
+        if (renju != null) {
+            renju.rebuild();
+        }
+        generator.rebuild();
+        generator.newSearch();
+
+        int[] rootMoves = generator.moves(0);
+        int count = generator.generate(0, player, TranspositionTable.NO_MOVE);
+        generator.sort(0, count);
+        if (count == 0) {
+            return new SearchResult(-1, -1, 0, 0, 0); //board is full
+        }
+
+        //always have a move ready even if the first iteration gets cut off
+        long rootEntry = table.probe(positionKey(player));
+        int bestMove = rootEntry != 0 && TranspositionTable.moveOf(rootEntry) != TranspositionTable.NO_MOVE
+                ? TranspositionTable.moveOf(rootEntry) : rootMoves[0];
+        int bestScore = 0;
+        int completedDepth = 0;
+
+        if (helperId > 0) {
+            rotate(rootMoves, count, helperId);
+        }
+
+        for (int depth = 1 + (helperId & 1); depth <= Math.min(maxDepth, MAX_DEPTH); depth++) {
+            //try the previous best move first so a cut-off iteration can still use it
+            moveToFront(rootMoves, count, bestMove);
+
+            int alpha = -WIN_SCORE - 1;
+            int iterationMove = -1;
+            for (int i = 0; i < count; i++) {
+                int move = rootMoves[i];
+                int score = searchMove(move, player, depth, alpha, WIN_SCORE + 1, 0);
+                if (stopped) {
+                    break;
+                }
+                if (score > alpha) {
+                    alpha = score;
+                    iterationMove = move;
+                }
+            }
+
+            //a partial iteration is only trusted for the moves it finished
+            if (iterationMove != -1) {
+                bestMove = iterationMove;
+                bestScore = alpha;
+            }
+            if (stopped) {
+                break;
+            }
+            completedDepth = depth;
+            table.store(positionKey(player), depth, TranspositionTable.EXACT, bestScore, bestMove);
+            if (iterationListener != null) {
+                iterationListener.accept(new SearchResult(bestMove / boardSize, bestMove % boardSize, bestScore, depth, nodes));
+            }
+
+            //no need to look deeper once a forced result is known
+            if (Math.abs(bestScore) > WIN_THRESHOLD) {
+                break;
+            }
+        }
+        return new SearchResult(bestMove / boardSize, bestMove % boardSize, bestScore, completedDepth, nodes);
+    }
+
+    private int negamax(int depth, int alpha, int beta, int player, int ply) {
+        if ((++nodes & CHECK_INTERVAL) == 0 && (stopRequested || System.nanoTime() >= deadline)) {
+            stopped = true;
+        }
+        if (stopped) {
+            return 0;
+        }
+        if (depth == 0) {
+            return evaluator.evaluate(player);
+        }
+
+        //reuse a result from another move order when it is deep enough
+        long key = positionKey(player);
+        long entry = table.probe(key);
+        int ttMove = TranspositionTable.NO_MOVE;
+        if (entry != 0) {
+            ttMove = TranspositionTable.moveOf(entry);
+            if (TranspositionTable.depthOf(entry) >= depth) {
+                int ttScore = fromTable(TranspositionTable.scoreOf(entry), ply);
+                int bound = TranspositionTable.boundOf(entry);
+                if (bound == TranspositionTable.EXACT
+                        || (bound == TranspositionTable.LOWER && ttScore >= beta)
+                        || (bound == TranspositionTable.UPPER && ttScore <= alpha)) {
+                    return ttScore;
+                }
+            }
+        }
+
+        int count = generator.generate(ply, player, ttMove);
+        if (count == 0) {
+            return 0; //draw
+        }
+
+        int originalAlpha = alpha;
+        int best = -WIN_SCORE - 1;
+        int bestMove = -1;
+        for (int i = 0; i < count; i++) {
+            int move = generator.next(ply, i, count);
+            int score = searchMove(move, player, depth, alpha, beta, ply);
+            if (stopped) {
+                return 0;
+            }
+            if (score > best) {
+                best = score;
+                bestMove = move;
+            }
+            if (score > alpha) {
+                alpha = score;
+            }
+            if (alpha >= beta) {
+                generator.cutoff(ply, player, move, depth);
+                break; //cut-off
+            }
+        }
+
+        int bound = best <= originalAlpha ? TranspositionTable.UPPER
+                : best >= beta ? TranspositionTable.LOWER : TranspositionTable.EXACT;
+        table.store(key, depth, bound, toTable(best, ply), bestMove);
+        return best;
+    }
+
+    //hash of the position plus whose turn it is
+    private long positionKey(int player) {
+        return player == 2 ? board.getHash() ^ Zobrist.SIDE_TO_MOVE : board.getHash();
+    }
+
+    //win scores are stored relative to the node so they stay valid at any ply
+    private static int toTable(int score, int ply) {
+        if (score > WIN_THRESHOLD) {
+            return score + ply;
+        }
+        if (score < -WIN_THRESHOLD) {
+            return score - ply;
+        }
+        return score;
+    }
+
+    private static int fromTable(int score, int ply) {
+        if (score > WIN_THRESHOLD) {
+            return score - ply;
+        }
+        if (score < -WIN_THRESHOLD) {
+            return score + ply;
+        }
+        return score;
+    }
+
+    //play move, score it for player, then take it back
+    private int searchMove(int move, int player, int depth, int alpha, int beta, int ply) {
+        int row = move / boardSize;
+        int col = move % boardSize;
+        place(row, col, player);
+        int score;
+        if (rules.isWin(board, row, col, player)) {
+            score = WIN_SCORE - ply; //prefer the quickest win
+        } else {
+            score = -negamax(depth - 1, -beta, -alpha, 3 - player, ply + 1);
+        }
+        remove(row, col);
+        return score;
+    }
+
+    private void place(int row, int col, int player) {
+        evaluator.placeStone(row, col, player);
+        generator.placed(row, col);
+        if (renju != null) {
+            renju.place(row, col, player);
+        }
+    }
+
+    private void remove(int row, int col) {
+        evaluator.removeStone(row, col);
+        generator.removed(row, col);
+        if (renju != null) {
+            renju.remove(row, col);
+        }
+    }
+
+    private static void moveToFront(int[] moves, int count, int move) {
+        for (int i = 0; i < count; i++) {
+            if (moves[i] == move) {
+                System.arraycopy(moves, 0, moves, 1, i);
+                moves[0] = move;
+                return;
+            }
+        }
+    }
+
+    //rotate the first count moves left by distance
+    private static void rotate(int[] moves, int count, int distance) {
+        distance %= count;
+        for (int i = 0; i < distance; i++) {
+            int first = moves[0];
+            System.arraycopy(moves, 1, moves, 0, count - 1);
+            moves[count - 1] = first;
+        }
+    }
+
+    public long getNodes() {
+        return nodes;
+    }
+}
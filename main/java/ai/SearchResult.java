@@ -0,0 +1,38 @@
+package ai;
+
+//SearchResult class holds the move picked by the search and how it got there
+public class SearchResult {
+    private final int row;
+    private final int col;
+    private final int score; //from the searching player's point of view
+    private final int depth; //last fully completed depth
+    private final long nodes;
+
+    public SearchResult(int row, int col, int score, int depth, long nodes) {
+        this.row = row;
+        this.col = col;
+        this.score = score;
+        this.depth = depth;
+        this.nodes = nodes;
+    }
+
+    public int getRow() {
+        return row;
+    }
+
+    public int getCol() {
+        return col;
+    }
+
+    public int getScore() {
+        return score;
+    }
+
+    public int getDepth() {
+        return depth;
+    }
+
+    public long getNodes() {
+        return nodes;
+    }
+}
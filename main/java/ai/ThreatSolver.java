@@ -0,0 +1,367 @@
+//ThreatSolver class proves forced wins with threat-space search instead of alpha-beta.
+//VCF only lets the attacker play fours, each with a single forced reply; VCT also lets
+//it play open threes, answered by every cell that stops the three or a counter-four.
+//the attacker never gets a quiet move, so the tree stays narrow and deep lines are reached.
+//results are cached per position hash (a fixed-size table like TranspositionTable).
+//usable on its own (is there a forced win from here?) and by AIPlayer before it searches
+package ai;
+
+import logic.Board;
+import logic.GameBoard;
+import logic.Move;
+import logic.Zobrist;
+
+public class ThreatSolver {
+    public static final int VCF = 1; //victory by continuous fours
+    public static final int VCT = 2; //victory by continuous threats (fours and open threes)
+    public static final int VCF_DEPTH = 24; //attacker moves
+    public static final int VCT_DEPTH = 8;
+    private static final int DEFAULT_CACHE_BITS = 16;
+    private static final long VCT_SALT = 0x9E3779B97F4A7C15L; //VCT and VCF results are cached apart
+    private static final int[][] DIRECTIONS = {{0, 1}, {1, 0}, {1, 1}, {1, -1}};
+
+    private final long[] cacheKeys;
+    private final int[] cacheValues; //depth << 1 | 1 for a win, depth << 1 for no win within depth
+    private final int cacheMask;
+    private Board board;
+    private int size;
+    private int[] marks; //stamp per cell, to collect each cell once
+    private int stamp;
+    //per-ply move lists, so the search allocates nothing
+    private int[][] fours;
+    private int[][] threes;
+    private int[][] replies;
+    private int[][] gains;
+    private long nodes;
+    private long deadline;
+    private boolean timedOut;
+    private int winningCell;
+    private int winDepth;
+
+    public ThreatSolver() {
+        this(DEFAULT_CACHE_BITS);
+    }
+
+    public ThreatSolver(int cacheBits) {
+        cacheKeys = new long[1 << cacheBits];
+        cacheValues = new int[1 << cacheBits];
+        cacheMask = (1 << cacheBits) - 1;
+    }
+
+    //first move of a forced win for attacker (who is to move), or null if none is found in time.
+    //VCT mode tries VCF first, a win by fours alone is shorter and cheaper to find
+    public Move solve(GameBoard position, int attacker, int mode, long deadlineNanos) {
+        prepare(position);
+        deadline = deadlineNanos;
+        timedOut = false;
+        nodes = 0;
+
+        //already a five on the board to complete
+        int count = collectAllFives(attacker, gains[0]);
+        if (count > 0) {
+            winDepth = 1;
+            return toMove(gains[0][0], attacker);
+        }
+
+        if (deepen(attacker, VCF, VCF_DEPTH) || (mode == VCT && deepen(attacker, VCT, VCT_DEPTH))) {
+            return toMove(winningCell, attacker);
+        }
+        return null;
+    }
+
+    //true if attacker, to move, has a forced win that is found within millis
+    public boolean isForcedWin(GameBoard position, int attacker, int mode, long millis) {
+        return solve(position, attacker, mode, System.nanoTime() + millis * 1_000_000L) != null;
+    }
+
+    public long getNodes() {
+        return nodes;
+    }
+
+    //attacker moves in the last win found, the winning five included
+    public int getWinDepth() {
+        return winDepth;
+    }
+
+    public void clearCache() {
+        for (int i = 0; i < cacheKeys.length; i++) {
+            cacheKeys[i] = 0;
+            cacheValues[i] = 0;
+        }
+    }
+
+    //iterative deepening so the shortest win is found first
+    private boolean deepen(int attacker, int mode, int maxDepth) {
+        for (int depth = 1; depth <= maxDepth && !timedOut; depth++) {
+            if (attack(attacker, mode, depth, 0, -1)) {
+                winDepth = depth + 1;
+                return true;
+            }
+        }
+        return false;
+    }
+
+    //attacker to move; lastReply is the defender's last stone (-1 at the root).
+    //true if attacker wins within depth threat moves
+    private boolean attack(int attacker, int mode, int depth, int ply, int lastReply) {
+        if ((++nodes & 1023) == 0 && System.nanoTime() > deadline) {
+            timedOut = true;
+        }
+        if (timedOut || depth == 0) {
+            return false;
+        }
+        long key = board.getHash() ^ (attacker == 2 ? Zobrist.SIDE_TO_MOVE : 0) ^ (mode == VCT ? VCT_SALT : 0);
+        int slot = (int) (key ^ key >>> 32) & cacheMask;
+        if (ply > 0 && cacheKeys[slot] == key) { //the root needs a move, a cached win has none
+            int value = cacheValues[slot];
+            if ((value & 1) == 1 && value >>> 1 <= depth) {
+                return true;
+            }
+            if ((value & 1) == 0 && value >>> 1 >= depth) {
+                return false;
+            }
+        }
+
+        //a four of the defender has to be blocked first, two cannot be
+        int defender = 3 - attacker;
+        int[] defenderFives = gains[ply];
+        int threats = lastReply < 0 ? collectAllFives(defender, defenderFives)
+                : collectFives(lastReply / size, lastReply % size, defender, defenderFives);
+        if (threats >= 2) {
+            return store(key, depth, false);
+        }
+        int forced = threats == 1 ? defenderFives[0] : -1;
+
+        //fours: one forced reply each
+        int[] fourMoves = fours[ply];
+        int fourCount = windowMoves(attacker, 4, fourMoves);
+        for (int i = 0; i < fourCount; i++) {
+            int move = fourMoves[i];
+            if (forced >= 0 && move != forced) {
+                continue;
+            }
+            int row = move / size;
+            int col = move % size;
+            board.placeStone(row, col, attacker);
+            int[] open = gains[ply + 1];
+            int gainCount = collectFives(row, col, attacker, open);
+            boolean win;
+            if (gainCount >= 2) {
+                win = true; //open four or double four, only one can be blocked
+            } else {
+                int reply = open[0];
+                board.placeStone(reply / size, reply % size, defender);
+                win = attack(attacker, mode, depth - 1, ply + 1, reply);
+                board.removeStone(reply / size, reply % size);
+            }
+            board.removeStone(row, col);
+            if (win) {
+                return store(key, depth, record(ply, move));
+            }
+        }
+
+        //open threes: every defence has to lose
+        if (mode == VCT) {
+            int[] threeMoves = threes[ply];
+            int threeCount = windowMoves(attacker, 3, threeMoves);
+            for (int i = 0; i < threeCount && !timedOut; i++) {
+                int move = threeMoves[i];
+                if (forced >= 0 && move != forced) {
+                    continue;
+                }
+                int row = move / size;
+                int col = move % size;
+                board.placeStone(row, col, attacker);
+                int[] defences = replies[ply];
+                int defenceCount = threeDefences(row, col, attacker, defences);
+                boolean win = defenceCount > 0;
+                for (int d = 0; d < defenceCount && win; d++) {
+                    int reply = defences[d];
+                    board.placeStone(reply / size, reply % size, defender);
+                    win = attack(attacker, mode, depth - 1, ply + 1, reply);
+                    board.removeStone(reply / size, reply % size);
+                }
+                board.removeStone(row, col);
+                if (win) {
+                    return store(key, depth, record(ply, move));
+                }
+            }
+        }
+        return store(key, depth, false);
+    }
+
+    //defences against the three just played at (row,col): cells that stop it becoming a four,
+    //and every four the defender can make instead. 0 if the three is not open
+    private int threeDefences(int row, int col, int attacker, int[] out) {
+        int mark = ++stamp;
+        int count = 0;
+        boolean open = false;
+        for (int[] direction : DIRECTIONS) {
+            for (int k = -4; k <= 4; k++) {
+                int r = row + k * direction[0];
+                int c = col + k * direction[1];
+                if (k == 0 || !board.isValidPos(r, c) || board.getCell(r, c) != 0) {
+                    continue;
+                }
+                //would an attacker stone here make a four, or an open four, on this line?
+                board.placeStone(r, c, attacker);
+                int fives = lineFives(r, c, attacker, direction);
+                board.removeStone(r, c);
+                if (fives > 0 && marks[r * size + c] != mark) {
+                    marks[r * size + c] = mark;
+                    out[count++] = r * size + c;
+                }
+                if (fives >= 2) {
+                    open = true;
+                }
+            }
+        }
+        if (!open) {
+            return 0; //a closed three is not a threat
+        }
+
+        //counter-fours, the attacker must answer them before going on
+        return windowMovesInto(3 - attacker, 4, out, count, mark);
+    }
+
+    //cells on the line through (row,col) in direction that complete five for player
+    private int lineFives(int row, int col, int player, int[] direction) {
+        int count = 0;
+        for (int k = -4; k <= 4; k++) {
+            int r = row + k * direction[0];
+            int c = col + k * direction[1];
+            if (board.isValidPos(r, c) && board.getCell(r, c) == 0 && makesFive(r, c, player)) {
+                count++;
+            }
+        }
+        return count;
+    }
+
+    //empty cells on the 4 lines through (row,col) that complete five for player
+    private int collectFives(int row, int col, int player, int[] out) {
+        int mark = ++stamp;
+        int count = 0;
+        for (int[] direction : DIRECTIONS) {
+            for (int k = -4; k <= 4; k++) {
+                int r = row + k * direction[0];
+                int c = col + k * direction[1];
+                if (board.isValidPos(r, c) && board.getCell(r, c) == 0 && marks[r * size + c] != mark
+                        && makesFive(r, c, player)) {
+                    marks[r * size + c] = mark;
+                    out[count++] = r * size + c;
+                }
+            }
+        }
+        return count;
+    }
+
+    //every empty cell that completes five for player
+    private int collectAllFives(int player, int[] out) {
+        int count = 0;
+        for (int row = 0; row < size; row++) {
+            for (int col = 0; col < size; col++) {
+                if (board.getCell(row, col) == 0 && makesFive(row, col, player)) {
+                    out[count++] = row * size + col;
+                }
+            }
+        }
+        return count;
+    }
+
+    //would a stone of player at the empty cell (row,col) make five or more in a row?
+    private boolean makesFive(int row, int col, int player) {
+        for (int[] direction : DIRECTIONS) {
+            int run = 1;
+            for (int k = 1; k < 5 && board.isValidPos(row + k * direction[0], col + k * direction[1])
+                    && board.getCell(row + k * direction[0], col + k * direction[1]) == player; k++) {
+                run++;
+            }
+            for (int k = 1; k < 5 && board.isValidPos(row - k * direction[0], col - k * direction[1])
+                    && board.getCell(row - k * direction[0], col - k * direction[1]) == player; k++) {
+                run++;
+            }
+            if (run >= 5) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    //empty cells that lift a five-cell window of player to target stones (4 = a four, 3 = a three)
+    private int windowMoves(int player, int target, int[] out) {
+        return windowMovesInto(player, target, out, 0, ++stamp);
+    }
+
+    private int windowMovesInto(int player, int target, int[] out, int count, int mark) {
+        for (int[] direction : DIRECTIONS) {
+            for (int row = 0; row < size; row++) {
+                for (int col = 0; col < size; col++) {
+                    int endRow = row + 4 * direction[0];
+                    int endCol = col + 4 * direction[1];
+                    if (!board.isValidPos(endRow, endCol)) {
+                        continue;
+                    }
+                    int stones = 0;
+                    boolean blocked = false;
+                    for (int k = 0; k < 5 && !blocked; k++) {
+                        int cell = board.getCell(row + k * direction[0], col + k * direction[1]);
+                        if (cell == player) {
+                            stones++;
+                        } else if (cell != 0) {
+                            blocked = true;
+                        }
+                    }
+                    if (blocked || stones != target - 1) {
+                        continue;
+                    }
+                    for (int k = 0; k < 5; k++) {
+                        int r = row + k * direction[0];
+                        int c = col + k * direction[1];
+                        if (board.getCell(r, c) == 0 && marks[r * size + c] != mark) {
+                            marks[r * size + c] = mark;
+                            out[count++] = r * size + c;
+                        }
+                    }
+                }
+            }
+        }
+        return count;
+    }
+
+    private boolean store(long key, int depth, boolean win) {
+        if (!timedOut) {
+            int slot = (int) (key ^ key >>> 32) & cacheMask;
+            cacheKeys[slot] = key;
+            cacheValues[slot] = depth << 1 | (win ? 1 : 0);
+        }
+        return win;
+    }
+
+    //remember the first move of a win found at the root
+    private boolean record(int ply, int move) {
+        if (ply == 0) {
+            winningCell = move;
+        }
+        return true;
+    }
+
+    //private copy of the position, buffers sized for its board
+    private void prepare(GameBoard position) {
+        int n = position.getBoardSize();
+        if (board == null || size != n) {
+            board = new Board(n);
+            size = n;
+            marks = new int[n * n];
+            int plies = 2 * Math.max(VCF_DEPTH, VCT_DEPTH) + 2;
+            fours = new int[plies][n * n];
+            threes = new int[plies][n * n];
+            replies = new int[plies][n * n];
+            gains = new int[plies][n * n];
+        }
+        board.copyFrom(position);
+    }
+
+    private Move toMove(int cell, int player) {
+        return new Move(cell / size, cell % size, player);
+    }
+}
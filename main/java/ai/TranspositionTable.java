@@ -0,0 +1,101 @@
+//TranspositionTable class caches search results by Zobrist hash.
+//It is a fixed power-of-two array of packed long entries that many search
+//threads can probe and store into at the same time without locks
+package ai;
+
+import java.util.Arrays;
+
+public class TranspositionTable {
+    public static final int EXACT = 1;
+    public static final int LOWER = 2; //score is at least the stored value (fail high)
+    public static final int UPPER = 3; //score is at most the stored value (fail low)
+    public static final int NO_MOVE = 0x3FF;
+
+    //entry layout (low to high bits): score 32, move 10, depth 8, bound 2, generation 8, valid 1
+    private static final int MOVE_SHIFT = 32;
+    private static final int DEPTH_SHIFT = 42;
+    private static final int BOUND_SHIFT = 50;
+    private static final int GENERATION_SHIFT = 52;
+    private static final long VALID = 1L << 60;
+
+    //each slot is two longs: data and (hash XOR data). A reader that sees a
+    //half-written slot from another thread gets a key mismatch and treats it
+    //as a miss, which is what makes plain unsynchronized arrays safe here
+    private final long[] keys;
+    private final long[] data;
+    private final int mask;
+    private volatile int generation; //bumped per search so old entries get replaced first
+
+    //table with 2^log2Entries slots (16 bytes each)
+    public TranspositionTable(int log2Entries) {
+        if (log2Entries < 1 || log2Entries > 28) {
+            throw new IllegalArgumentException();
+        }
+        int entries = 1 << log2Entries;
+        this.keys = new long[entries];
+        this.data = new long[entries];
+        this.mask = entries - 1;
+    }
+
+    //start a new search, older entries become preferred victims
+    public void newSearch() {
+        generation = (generation + 1) & 0xFF;
+    }
+
+    //return the packed entry for hash, or 0 if there is none
+    public long probe(long hash) {
+        int index = (int) hash & mask;
+        long entry = data[index];
+        if (entry != 0 && (keys[index] ^ entry) == hash) {
+            return entry;
+        }
+        return 0;
+    }
+
+    //replacement policy: entries from an older search are always replaced; within
+    //the same search the deeper result is kept, with a little slack for a new position
+    public void store(long hash, int depth, int bound, int score, int move) {
+        int index = (int) hash & mask;
+        long old = data[index];
+        if (old != 0 && generationOf(old) == generation) {
+            //same position: keep the deeper result; other position: only a much deeper one survives
+            boolean samePosition = (keys[index] ^ old) == hash;
+            if (samePosition ? depthOf(old) > depth : depthOf(old) > depth + 2) {
+                return;
+            }
+        }
+        long entry = (score & 0xFFFFFFFFL)
+                | ((long) (move & NO_MOVE) << MOVE_SHIFT)
+                | ((long) Math.min(depth, 0xFF) << DEPTH_SHIFT)
+                | ((long) bound << BOUND_SHIFT)
+                | ((long) generation << GENERATION_SHIFT)
+                | VALID;
+        data[index] = entry;
+        keys[index] = hash ^ entry;
+    }
+
+    public void clear() {
+        Arrays.fill(keys, 0L);
+        Arrays.fill(data, 0L);
+    }
+
+    public static int scoreOf(long entry) {
+        return (int) entry;
+    }
+
+    public static int moveOf(long entry) {
+        return (int) (entry >>> MOVE_SHIFT) & NO_MOVE;
+    }
+
+    public static int depthOf(long entry) {
+        return (int) (entry >>> DEPTH_SHIFT) & 0xFF;
+    }
+
+    public static int boundOf(long entry) {
+        return (int) (entry >>> BOUND_SHIFT) & 0x3;
+    }
+
+    private static int generationOf(long entry) {
+        return (int) (entry >>> GENERATION_SHIFT) & 0xFF;
+    }
+}
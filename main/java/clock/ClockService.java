@@ -0,0 +1,62 @@
+//ClockService class shares one TimingWheel between threads: arm and cancel take a
+//lock for a list insert or unlink, and a daemon thread advances the wheel every
+//millisecond while timers are armed (and sleeps while none are). actions run on that
+//thread under the lock, so they must only hand work on, e.g. to Platform::runLater
+package clock;
+
+import java.util.concurrent.locks.LockSupport;
+
+public class ClockService implements Scheduler {
+    private static final long TICK_NANOS = 1_000_000;
+
+    private final TimingWheel wheel = new TimingWheel();
+    private final Thread thread;
+    private volatile boolean running = true;
+
+    public ClockService(String name) {
+        thread = new Thread(this::run, name);
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    @Override
+    public long now() {
+        return wheel.now();
+    }
+
+    @Override
+    public void arm(Deadline d, long when) {
+        synchronized (wheel) {
+            wheel.arm(d, when);
+        }
+        LockSupport.unpark(thread); //it may be sleeping with nothing armed
+    }
+
+    @Override
+    public void cancel(Deadline d) {
+        synchronized (wheel) {
+            wheel.cancel(d);
+        }
+    }
+
+    //stop the thread, armed deadlines never run
+    public void shutdown() {
+        running = false;
+        LockSupport.unpark(thread);
+    }
+
+    private void run() {
+        while (running) {
+            boolean idle;
+            synchronized (wheel) {
+                wheel.advance();
+                idle = wheel.size() == 0;
+            }
+            if (idle) {
+                LockSupport.park(this); //until something is armed
+            } else {
+                LockSupport.parkNanos(this, TICK_NANOS);
+            }
+        }
+    }
+}
@@ -0,0 +1,24 @@
+//Deadline class is one timer of a Scheduler: the action to run and the links
+//that keep it in a TimingWheel bucket. it is armed and cancelled again and again
+//(a game clock re-arms the same Deadline every move), so nothing is allocated per arm
+package clock;
+
+public class Deadline {
+    final Runnable action;
+    long when; //millis on the scheduler's clock
+    Deadline prev; //neighbours in the bucket list, null when not armed
+    Deadline next;
+
+    public Deadline(Runnable action) {
+        this.action = action;
+    }
+
+    public boolean isArmed() {
+        return prev != null;
+    }
+
+    //time the action is due, valid while armed
+    public long getWhen() {
+        return when;
+    }
+}
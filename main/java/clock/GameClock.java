@@ -0,0 +1,147 @@
+//GameClock class keeps both players' time under a TimeControl with millisecond
+//precision. only the side to move has a Deadline armed, at the moment its main time
+//and remaining byo-yomi periods run out, so a clock costs nothing between moves and
+//nothing ticks: the time left is worked out from the scheduler's clock when asked.
+//all methods belong to the owner's thread; the scheduler only hands the expiry to the
+//owner's executor, where the clock's state decides whether the running turn is over.
+//a timeout is reported to the owner, who passes the turn (GomokuController.timeOut)
+//and starts the clock for the next player. a player who ran out keeps one period
+//(or gets the increment) for later turns, so a timeout costs the turn, not the game
+package clock;
+
+import runner.TimeControl;
+import java.util.concurrent.Executor;
+import java.util.function.IntConsumer;
+
+public class GameClock {
+    private final TimeControl control;
+    private final Scheduler scheduler;
+    private final IntConsumer onTimeout; //gets the player whose time ran out
+    private final Deadline deadline;
+    private final long[] mainLeft = new long[2]; //[player - 1]
+    private final int[] periodsLeft = new int[2];
+    private int running; //player whose time is running, 0 if stopped
+    private long turnStart;
+
+    //owner runs the expiry checks and onTimeout, e.g. Platform::runLater, or Runnable::run
+    //when the scheduler is advanced on the owner's thread
+    public GameClock(TimeControl control, Scheduler scheduler, Executor owner, IntConsumer onTimeout) {
+        this.control = control;
+        this.scheduler = scheduler;
+        this.onTimeout = onTimeout;
+        this.deadline = new Deadline(() -> owner.execute(this::expire));
+        reset();
+    }
+
+    //full time for both players, clock stopped
+    public void reset() {
+        stop();
+        for (int i = 0; i < 2; i++) {
+            mainLeft[i] = control.getInitialMillis();
+            periodsLeft[i] = control.getPeriods();
+        }
+    }
+
+    //start player's time; whoever was running is stopped without an increment
+    public void start(int player) {
+        stop();
+        running = player;
+        turnStart = scheduler.now();
+        long budget = budget(player);
+        if (budget == 0 && budget(3 - player) == 0) {
+            running = 0; //both out under sudden death: the rest of the game is untimed
+            return;
+        }
+        scheduler.arm(deadline, turnStart + budget);
+    }
+
+    //the running player made a move: charge it, add the increment and start the opponent
+    public void moved() {
+        int player = running;
+        if (player == 0) {
+            return;
+        }
+        charge(player);
+        mainLeft[player - 1] += control.getIncrementMillis();
+        running = 0;
+        start(3 - player);
+    }
+
+    //stop the running player's time (undo, a Swap2 choice, game over)
+    public void stop() {
+        if (running != 0) {
+            charge(running);
+            running = 0;
+        }
+        scheduler.cancel(deadline);
+    }
+
+    //player whose time is running, 0 if stopped
+    public int getRunning() {
+        return running;
+    }
+
+    //time player has left for the current or next move: main time plus byo-yomi periods
+    public long timeLeft(int player) {
+        long budget = budget(player);
+        if (player == running) {
+            budget -= scheduler.now() - turnStart;
+        }
+        return Math.max(0, budget);
+    }
+
+    //main time left, without periods
+    public long mainTimeLeft(int player) {
+        long main = mainLeft[player - 1];
+        if (player == running) {
+            main -= scheduler.now() - turnStart;
+        }
+        return Math.max(0, main);
+    }
+
+    //byo-yomi periods player still has; the one being used counts
+    public int periodsLeft(int player) {
+        if (player != running || control.getPeriodMillis() == 0) {
+            return periodsLeft[player - 1];
+        }
+        long over = scheduler.now() - turnStart - mainLeft[player - 1];
+        int used = over > 0 ? (int) (over / control.getPeriodMillis()) : 0;
+        return Math.max(0, periodsLeft[player - 1] - used);
+    }
+
+    private long budget(int player) {
+        return mainLeft[player - 1] + periodsLeft[player - 1] * control.getPeriodMillis();
+    }
+
+    //take the time since turnStart off player's clock; periods run past are used up
+    private void charge(int player) {
+        long left = mainLeft[player - 1] - (scheduler.now() - turnStart);
+        if (left >= 0) {
+            mainLeft[player - 1] = left;
+            return;
+        }
+        mainLeft[player - 1] = 0;
+        if (control.getPeriodMillis() > 0) {
+            int used = (int) Math.min(periodsLeft[player - 1], -left / control.getPeriodMillis());
+            periodsLeft[player - 1] -= used;
+        }
+    }
+
+    //runs on the owner's thread after the deadline went off; the state decides, since a
+    //move may have been made while the expiry was on its way
+    private void expire() {
+        if (running == 0) {
+            return; //stopped meanwhile
+        }
+        int player = running;
+        long late = scheduler.now() - turnStart - budget(player);
+        if (late < 0) {
+            scheduler.arm(deadline, scheduler.now() - late); //this turn isn't over yet
+            return;
+        }
+        running = 0;
+        mainLeft[player - 1] = control.getPeriods() > 0 ? 0 : control.getIncrementMillis();
+        periodsLeft[player - 1] = Math.min(1, control.getPeriods());
+        onTimeout.accept(player);
+    }
+}
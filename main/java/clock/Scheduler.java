@@ -0,0 +1,15 @@
+//Scheduler interface is what a GameClock needs from a timer service:
+//a millisecond clock and arming/cancelling Deadlines on it.
+//TimingWheel is driven by its owner's thread, ClockService runs its own
+package clock;
+
+public interface Scheduler {
+    //milliseconds since the scheduler started
+    long now();
+
+    //run d's action at time when (now() or earlier runs it on the next tick); re-arms d if armed
+    void arm(Deadline d, long when);
+
+    //d's action won't run unless it is armed again; nothing happens if it isn't armed
+    void cancel(Deadline d);
+}
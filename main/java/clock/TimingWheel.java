@@ -0,0 +1,133 @@
+//TimingWheel class is a hierarchical timing wheel with 1 ms ticks: four levels of
+//256 buckets cover 256 ms, 65 s, 4.6 hours and 49 days. a Deadline goes in the
+//bucket of the coarsest level it needs, so arming and cancelling are a list insert
+//or unlink whatever the number of timers. when the finer level wraps around, the next
+//coarser bucket is emptied into it (every timer moves down at most three times)
+//and the level 0 bucket of each tick holds exactly the timers due then.
+//not thread-safe: the owner calls advance() from the thread that arms and cancels,
+//like GameServer's selector loop; ClockService wraps one behind a lock and a thread
+package clock;
+
+public class TimingWheel implements Scheduler {
+    private static final int LEVELS = 4;
+    private static final int BITS = 8; //256 buckets per level
+    private static final int SLOTS = 1 << BITS;
+    private static final int MASK = SLOTS - 1;
+    private static final long SPAN = 1L << (BITS * LEVELS); //furthest a timer can be placed, later ones wait in the last level
+
+    private final Deadline[][] buckets = new Deadline[LEVELS][SLOTS]; //sentinel heads of circular lists
+    private final long origin = System.nanoTime();
+    private long current; //last tick processed
+    private int size;
+
+    public TimingWheel() {
+        for (int level = 0; level < LEVELS; level++) {
+            for (int slot = 0; slot < SLOTS; slot++) {
+                Deadline head = new Deadline(null);
+                head.prev = head;
+                head.next = head;
+                buckets[level][slot] = head;
+            }
+        }
+    }
+
+    @Override
+    public long now() {
+        return (System.nanoTime() - origin) / 1_000_000;
+    }
+
+    @Override
+    public void arm(Deadline d, long when) {
+        if (d.isArmed()) {
+            unlink(d);
+        } else {
+            size++;
+        }
+        d.when = Math.max(when, current + 1); //past deadlines run on the next tick
+        place(d);
+    }
+
+    @Override
+    public void cancel(Deadline d) {
+        if (d.isArmed()) {
+            unlink(d);
+            size--;
+        }
+    }
+
+    //number of armed deadlines
+    public int size() {
+        return size;
+    }
+
+    //run every deadline due by now(), in time order
+    public void advance() {
+        advance(now());
+    }
+
+    //run every deadline due by time; actions may arm and cancel deadlines, also their own
+    public void advance(long time) {
+        if (size == 0) {
+            current = Math.max(current, time); //nothing to move down or run
+            return;
+        }
+        while (current < time) {
+            long tick = ++current;
+            //coarsest first, so timers moved from level 2 into a level 1 bucket that is
+            //emptied on this same tick go on down to level 0
+            for (int level = LEVELS - 1; level > 0; level--) {
+                if ((tick & ((1L << (BITS * level)) - 1)) == 0) {
+                    cascade(buckets[level][(int) (tick >>> (BITS * level)) & MASK]);
+                }
+            }
+            Deadline head = buckets[0][(int) tick & MASK];
+            while (head.next != head) {
+                Deadline d = head.next;
+                unlink(d);
+                size--;
+                d.action.run();
+            }
+            if (size == 0) {
+                current = time;
+                return;
+            }
+        }
+    }
+
+    //put d in the bucket for d.when as seen from current
+    private void place(Deadline d) {
+        long delay = d.when - current;
+        int level = 0;
+        while (level < LEVELS - 1 && delay >= 1L << (BITS * (level + 1))) {
+            level++;
+        }
+        long when = delay < SPAN ? d.when : current + SPAN - 1; //placed again when that bucket comes round
+        link(buckets[level][(int) (when >>> (BITS * level)) & MASK], d);
+    }
+
+    //move every timer of a coarse bucket down to where it belongs now
+    private void cascade(Deadline head) {
+        Deadline d = head.next;
+        head.prev = head;
+        head.next = head;
+        while (d != head) {
+            Deadline next = d.next;
+            place(d);
+            d = next;
+        }
+    }
+
+    private static void link(Deadline head, Deadline d) {
+        d.prev = head.prev;
+        d.next = head;
+        head.prev.next = d;
+        head.prev = d;
+    }
+
+    private static void unlink(Deadline d) {
+        d.prev.next = d.next;
+        d.next.prev = d.prev;
+        d.prev = null;
+        d.next = null;
+    }
+}
@@ -0,0 +1,44 @@
+//GameEventListener interface lets views and other subscribers follow a game
+//without GomokuController knowing about them (JavaFX view, headless runner, network)
+//every method has an empty default so a subscriber only overrides what it needs
+package controller;
+
+import logic.Move;
+
+public interface GameEventListener {
+    //a stone was placed by player; the controller has already switched turns if the game goes on
+    default void onMoveApplied(int row, int col, int player) {
+    }
+
+    //move was taken back
+    default void onUndo(Move move) {
+    }
+
+    //move was played again
+    default void onRedo(Move move) {
+    }
+
+    //replay moved to the position after moveNumber moves of the current line
+    default void onJump(int moveNumber) {
+    }
+
+    //seat (1 = first player, 2 = second player) made a Swap2 choice
+    default void onSwapChoice(int seat, int choice) {
+    }
+
+    //game ended: winner is 1 or 2, or 0 for a draw
+    default void onGameOver(int winner) {
+    }
+
+    //player ran out of time and the turn passed to the opponent
+    default void onTimeout(int player) {
+    }
+
+    //a move at (row,col) was rejected
+    default void onInvalidMove(int row, int col) {
+    }
+
+    //board was cleared for a new game
+    default void onGameReset() {
+    }
+}
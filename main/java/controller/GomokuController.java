@@ -1,38 +1,60 @@
-//GomokuController class handles game rules, move history, win conditions,
-//and UI updates while maintaining game state
+//GomokuController class handles game rules, move history and win conditions
+//while maintaining game state; views follow the game through GameEventListener.
+//wins and forbidden moves come from a RuleSet, and a game can open with Swap2.
+//every KEYFRAME_INTERVAL moves a BoardSnapshot is kept, so a replay can jump to any
+//move of the current line by restoring a keyframe and applying at most 15 moves
 package controller;
 
-import logic.Board;
+import logic.BoardSnapshot;
+import logic.GameBoard;
+import logic.LineStats;
 import logic.Move;
-import view.GomokuGameFX;
-import view.InvalidMove;
-import view.StatusBar;
-import java.util.Stack;
+import logic.MoveLog;
+import logic.MoveSequence;
+import logic.WinLine;
+import rules.RuleSet;
+import rules.Rules;
+import rules.Swap2Opening;
+import java.util.ArrayList;
+import java.util.List;
 
 public class GomokuController {
-    private final Board board;
-    private final StatusBar statusBar;
+    public static final int KEYFRAME_INTERVAL = 16;
+
+    private final GameBoard board; //either Board or BitBoard
     private int currentPlayer;
     private boolean gameOver;
+    private int winner; //1 or 2 once someone has five, 0 for no winner or a draw
+    private long winLine = WinLine.NONE; //the winner's five, see logic.WinLine
     private int blackMoves;
     private int whiteMoves;
     private int maxBlackRow = 0;
     private int maxWhiteRow = 0;
-    private InvalidMove invalidMove;
-    private final Stack<Move> moveHistory = new Stack<>(); //stores history for undo
-    private final Stack<Move> redoHistory = new Stack<>(); //stores undone moves for redo
-    private final GomokuGameFX gameView;
+    private final LineStats lineStats; //run lengths for the longest line stats, updated per move
+    private final MoveLog moveHistory = new MoveLog(); //stores history for undo
+    private final MoveLog redoHistory = new MoveLog(); //stores undone moves for redo
+    private final List<BoardSnapshot> keyframes = new ArrayList<>(); //[i] = position after (i + 1) * KEYFRAME_INTERVAL moves
+    private final List<GameEventListener> listeners = new ArrayList<>();
+    private RuleSet rules = Rules.FREESTYLE;
+    private Swap2Opening swap2; //null unless the game opens with Swap2
 
-    public GomokuController(Board board, StatusBar statusBar, InvalidMove invalidMove, GomokuGameFX gameView) {
+    public GomokuController(GameBoard board) {
         this.board = board;
-        this.statusBar = statusBar;
         this.currentPlayer = 1; //black starts first (1 = black, 2 = white)
         this.gameOver = false;
-        this.invalidMove = invalidMove;
-        this.gameView = gameView;
+        this.lineStats = new LineStats(board.getBoardSize());
+    }
+
+    //subscribe to move, undo/redo, game over, invalid move and reset events
+    public void addListener(GameEventListener listener) {
+        listeners.add(listener);
+    }
+
+    public void removeListener(GameEventListener listener) {
+        listeners.remove(listener);
     }
 
-    public Board getBoard() {
+    public GameBoard getBoard() {
         return this.board;
     }
 
@@ -44,19 +66,73 @@ public class GomokuController {
         return whiteMoves;
     }
 
+    //rules for the moves from now on; call resetGame() to start a game under them
+    public void setRules(RuleSet rules) {
+        this.rules = rules;
+    }
+
+    public RuleSet getRules() {
+        return rules;
+    }
+
+    //open the next games with Swap2 or not
+    public void setSwap2(boolean enabled) {
+        swap2 = enabled ? new Swap2Opening() : null;
+    }
+
+    //the Swap2 state, null when the game has a normal opening
+    public Swap2Opening getSwap2() {
+        return swap2;
+    }
+
+    //true while a Swap2 choice is due and no stone may be placed
+    public boolean isAwaitingSwapChoice() {
+        return swap2 != null && !gameOver && swap2.isWaiting(moveHistory.size());
+    }
+
+    //make the due Swap2 choice (Swap2Opening.TAKE_BLACK, TAKE_WHITE or PLACE_TWO)
+    public boolean chooseSwap(int choice) {
+        if (!isAwaitingSwapChoice()) {
+            return false;
+        }
+        int seat = swap2.seatToMove(moveHistory.size(), currentPlayer);
+        if (!swap2.choose(choice, moveHistory.size())) {
+            return false;
+        }
+        for (GameEventListener listener : listeners) {
+            listener.onSwapChoice(seat, choice);
+        }
+        return true;
+    }
+
+    //true if the player to move may not play at the empty cell (row,col) under the rules
+    public boolean isForbidden(int row, int col) {
+        return rules.isForbidden(board, row, col, currentPlayer);
+    }
+
     //make a move at a given row and column
     public boolean makeMove(int row, int col) {
-        //reject move is game over or invalid position or already occupied
-        if (gameOver || !board.isValidPos(row, col) || board.getCell(row, col) != 0) {
+        //reject move is game over or invalid position or already occupied,
+        //a Swap2 choice is due or the rules forbid the cell
+        if (gameOver || !board.isValidPos(row, col) || board.getCell(row, col) != 0
+                || isAwaitingSwapChoice() || rules.isForbidden(board, row, col, currentPlayer)) {
+            for (GameEventListener listener : listeners) {
+                listener.onInvalidMove(row, col);
+            }
             return false;
         }
 
-        invalidMove.hideWarning(); //hide previous warning if any
-
         //place stone and track move
+        int player = currentPlayer;
         board.placeStone(row, col, currentPlayer);
-        moveHistory.push(new Move(row, col, currentPlayer));
+        lineStats.push(board, row, col, currentPlayer);
         redoHistory.clear(); //clear redo stack since a new move is made
+        dropKeyframesAfter(moveHistory.size()); //they belong to the line that was just left
+        if (swap2 != null) {
+            swap2.forget(moveHistory.size());
+        }
+        moveHistory.push(row, col, currentPlayer);
+        recordKeyframe();
 
         //update move count for current player
         if (currentPlayer == 1) {
@@ -66,35 +142,33 @@ public class GomokuController {
         }
 
         //check if the move wins the game
-        if (board.checkWin(row, col, currentPlayer)) {
+        winLine = rules.winLine(board, row, col, currentPlayer);
+        if (winLine != WinLine.NONE) {
             gameOver = true;
-            statusBar.updateStatus(currentPlayer, true, currentPlayer); //show winner
-            gameView.animateWinningStones(); //play win animation
+            winner = currentPlayer;
         } else if (board.isFull()) {
             gameOver = true;
-            statusBar.updateStatus(currentPlayer, true, 0); //it's a draw
-            gameView.animateWinningStones();
+            winner = 0; //it's a draw
         } else {
-            updateMax(row, col); //update the longest row of stones stats
+            updateMax(); //update the longest row of stones stats
             switchPlayer(); //pass turn to next player
-            statusBar.updateStatus(currentPlayer, false, 0); //update UI
         }
-        return true;
-    }
-
-    //update max length for current player
-    private void updateMax(int row, int col) {
-        int currentMax = board.getMaxLength(row, col, currentPlayer);
 
-        if (currentPlayer == 1) {  // Black player
-            if (currentMax > maxBlackRow) {
-                maxBlackRow = currentMax;
-            }
-        } else {  // White player
-            if (currentMax > maxWhiteRow) {
-                maxWhiteRow = currentMax;
+        for (GameEventListener listener : listeners) {
+            listener.onMoveApplied(row, col, player);
+        }
+        if (gameOver) {
+            for (GameEventListener listener : listeners) {
+                listener.onGameOver(winner);
             }
         }
+        return true;
+    }
+
+    //update max length for both players from the run-length histogram
+    private void updateMax() {
+        maxBlackRow = lineStats.getMaxRow(1);
+        maxWhiteRow = lineStats.getMaxRow(2);
     }
 
     public int getMaxBlackRow() {
@@ -110,6 +184,20 @@ public class GomokuController {
         currentPlayer = (currentPlayer == 1) ? 2 : 1;
     }
 
+    //the player to move ran out of time: the turn passes to the opponent (a turn clock such
+    //as clock.GameClock calls this); false if the game is over or a Swap2 choice is due
+    public boolean timeOut() {
+        if (gameOver || isAwaitingSwapChoice()) {
+            return false;
+        }
+        int player = currentPlayer;
+        switchPlayer();
+        for (GameEventListener listener : listeners) {
+            listener.onTimeout(player);
+        }
+        return true;
+    }
+
     public int getCurrentPlayer() {
         return currentPlayer;
     }
@@ -118,9 +206,14 @@ public class GomokuController {
         return gameOver;
     }
 
-    //return winner (1 or 2), or 0 if no winner
+    //the winner's five (or longer run) as a logic.WinLine, WinLine.NONE unless someone has won
+    public long getWinLine() {
+        return gameOver ? winLine : WinLine.NONE;
+    }
+
+    //return winner (1 or 2), or 0 if no winner (a full board is a draw)
     public int getWinner() {
-        return gameOver ? currentPlayer : 0;
+        return gameOver ? winner : 0;
     }
 
     //UNDO
@@ -129,24 +222,16 @@ public class GomokuController {
             return false;
         }
 
-        Move lastMove = moveHistory.pop();
-        board.removeStone(lastMove.getRow(), lastMove.getCol()); //remove stone
-        redoHistory.push(lastMove); //push to redo stack
+        int last = undoStep();
 
-        //update move count
-        if (lastMove.getPlayer() == 1) {
-            blackMoves--;
-        } else {
-            whiteMoves--;
+        //longest line stats, no board scan needed
+        updateMax();
+        if (!listeners.isEmpty()) {
+            Move lastMove = new Move(MoveLog.rowOf(last), MoveLog.colOf(last), MoveLog.playerOf(last));
+            for (GameEventListener listener : listeners) {
+                listener.onUndo(lastMove);
+            }
         }
-
-        //recalculate longest line stats
-        maxBlackRow = recalculateMaxRow(1);
-        maxWhiteRow = recalculateMaxRow(2);
-
-        //switch player back to previous players
-        switchPlayer();
-        statusBar.updateStatus(currentPlayer, false, 0);
         return true;
     }
 
@@ -156,55 +241,242 @@ public class GomokuController {
             return false;
         }
 
-        Move nextMove = redoHistory.pop();
-        board.placeStone(nextMove.getRow(), nextMove.getCol(), nextMove.getPlayer());
-        moveHistory.push(nextMove); //track the move again
+        int next = redoStep();
+
+        //longest line stats, no board scan needed
+        updateMax();
+        if (!listeners.isEmpty()) {
+            Move nextMove = new Move(MoveLog.rowOf(next), MoveLog.colOf(next), MoveLog.playerOf(next));
+            for (GameEventListener listener : listeners) {
+                listener.onRedo(nextMove);
+            }
+        }
+        if (gameOver) {
+            for (GameEventListener listener : listeners) {
+                listener.onGameOver(winner);
+            }
+        }
+        return true;
+    }
+
+    //REPLAY: show the position after n moves of the current line (played moves and the
+    //ones that can be redone); works on finished games too, so they can be reviewed
+    public boolean jumpToMove(int n) {
+        int current = moveHistory.size();
+        if (n < 0 || n > current + redoHistory.size()) {
+            return false;
+        }
+
+        //a keyframe is closer than where we are: start from it
+        int frame = n / KEYFRAME_INTERVAL * KEYFRAME_INTERVAL;
+        if (n - frame < Math.abs(n - current)) {
+            restoreKeyframe(frame);
+        }
+        while (moveHistory.size() > n) {
+            undoStep();
+        }
+        while (moveHistory.size() < n) {
+            redoStep();
+        }
+        updateMax();
+        for (GameEventListener listener : listeners) {
+            listener.onJump(n);
+        }
+        return true;
+    }
+
+    //moves on the board now
+    public int getMoveCount() {
+        return moveHistory.size();
+    }
+
+    //moves in the current line, including the ones that were undone and can be redone
+    public int getLineLength() {
+        return moveHistory.size() + redoHistory.size();
+    }
+
+    //take back the last move without events, returns it packed
+    private int undoStep() {
+        int last = moveHistory.pop();
+        board.removeStone(MoveLog.rowOf(last), MoveLog.colOf(last)); //remove stone
+        lineStats.pop();
+        redoHistory.pushPacked(last); //push to redo stack
 
         //update move count
-        if (nextMove.getPlayer() == 1) {
+        if (MoveLog.playerOf(last) == 1) {
+            blackMoves--;
+        } else {
+            whiteMoves--;
+        }
+
+        //whoever played the move is to move again
+        currentPlayer = MoveLog.playerOf(last);
+        gameOver = false;
+        winner = 0;
+        winLine = WinLine.NONE;
+        return last;
+    }
+
+    //play the next move of the line again without events, returns it packed
+    private int redoStep() {
+        int next = redoHistory.pop();
+        int row = MoveLog.rowOf(next);
+        int col = MoveLog.colOf(next);
+        int player = MoveLog.playerOf(next);
+        board.placeStone(row, col, player);
+        lineStats.push(board, row, col, player);
+        moveHistory.pushPacked(next); //track the move again
+        recordKeyframe();
+
+        //update move count
+        if (player == 1) {
             blackMoves++;
         } else {
             whiteMoves++;
         }
 
-        //recalculate longest line stats
-        maxBlackRow = recalculateMaxRow(1);
-        maxWhiteRow = recalculateMaxRow(2);
+        //the last move of a reviewed game wins it again
+        winLine = rules.winLine(board, row, col, player);
+        if (winLine != WinLine.NONE) {
+            gameOver = true;
+            winner = player;
+        } else if (board.isFull()) {
+            gameOver = true;
+            winner = 0;
+        } else {
+            currentPlayer = nextPlayer(player);
+        }
+        return next;
+    }
 
-        //switch to next player after redo
-        currentPlayer = (nextMove.getPlayer() == 1) ? 2 : 1;
-        statusBar.updateStatus(currentPlayer, false, 0);
-        return true;
+    //put the keyframe for frame moves on the board; only the log boundary moves, no move is applied
+    private void restoreKeyframe(int frame) {
+        while (moveHistory.size() > frame) {
+            redoHistory.pushPacked(moveHistory.pop());
+        }
+        while (moveHistory.size() < frame) {
+            moveHistory.pushPacked(redoHistory.pop());
+        }
+        if (frame == 0) {
+            board.clearBoard();
+        } else {
+            keyframes.get(frame / KEYFRAME_INTERVAL - 1).restore(board);
+        }
+        lineStats.restore(board, frame);
+
+        BoardSnapshot snapshot = frame == 0 ? null : keyframes.get(frame / KEYFRAME_INTERVAL - 1);
+        blackMoves = snapshot == null ? 0 : snapshot.getStones(1);
+        whiteMoves = snapshot == null ? 0 : snapshot.getStones(2);
+        gameOver = false;
+        winner = 0;
+        winLine = WinLine.NONE;
+        if (frame > 0) {
+            int last = moveHistory.peek();
+            int player = MoveLog.playerOf(last);
+            winLine = rules.winLine(board, MoveLog.rowOf(last), MoveLog.colOf(last), player);
+            if (winLine != WinLine.NONE) {
+                gameOver = true;
+                winner = player;
+                return;
+            }
+            if (board.isFull()) {
+                gameOver = true;
+                return;
+            }
+            currentPlayer = nextPlayer(player);
+        } else {
+            currentPlayer = redoHistory.isEmpty() ? 1 : MoveLog.playerOf(redoHistory.peek());
+        }
     }
 
-    //check entire board to find max continuous line
-    public int recalculateMaxRow(int player) {
-        int maxRow = 0;
-        for (int row = 0; row < board.getBoardSize(); row++) {
-            for (int col = 0; col < board.getBoardSize(); col++) {
-                if (board.getCell(row, col) == player) {
-                    int currentMax = board.getMaxLength(row, col, player);
-                    if (currentMax > maxRow) {
-                        maxRow = currentMax;
-                    }
+    //player to move after player's move: the next move of the line says so (turns may have
+    //been skipped on timeout), otherwise it is the opponent
+    private int nextPlayer(int player) {
+        return redoHistory.isEmpty() ? 3 - player : MoveLog.playerOf(redoHistory.peek());
+    }
+
+    //keep a snapshot when the move count reaches a new multiple of KEYFRAME_INTERVAL
+    private void recordKeyframe() {
+        int moves = moveHistory.size();
+        if (moves % KEYFRAME_INTERVAL == 0 && keyframes.size() < moves / KEYFRAME_INTERVAL) {
+            keyframes.add(BoardSnapshot.of(board));
+        }
+    }
+
+    //forget keyframes for positions after the first moves moves
+    private void dropKeyframesAfter(int moves) {
+        while (keyframes.size() > moves / KEYFRAME_INTERVAL) {
+            keyframes.remove(keyframes.size() - 1);
+        }
+    }
+
+    //moves played so far, oldest first (undone moves are not included); read-only and live
+    public MoveSequence getMoveLog() {
+        return moveHistory.view();
+    }
+
+    //the same moves as Move objects made on demand, for code that wants a List
+    public List<Move> getMoveHistory() {
+        return moveHistory.asList();
+    }
+
+    //start over and replay a saved game; turns follow the recorded players,
+    //so skipped turns come back as they were. returns false at the first illegal move.
+    //Swap2 choices are not saved, so a loaded game past the opening just goes on
+    public boolean loadGame(List<Move> moves) {
+        resetGame();
+        Swap2Opening opening = swap2;
+        swap2 = null;
+        try {
+            for (Move move : moves) {
+                if (gameOver) {
+                    return false;
+                }
+                currentPlayer = move.getPlayer();
+                if (!makeMove(move.getRow(), move.getCol())) {
+                    return false;
                 }
             }
+            return true;
+        } finally {
+            swap2 = opening;
         }
-        return maxRow;
+    }
+
+    //check entire board to find max continuous line (full scan, LineStats gives the same answer incrementally)
+    public int recalculateMaxRow(int player) {
+        int[] maxRow = {0};
+        board.forEachStone((row, col, stone) -> {
+            if (stone == player) {
+                int currentMax = board.getMaxLength(row, col, player);
+                if (currentMax > maxRow[0]) {
+                    maxRow[0] = currentMax;
+                }
+            }
+        });
+        return maxRow[0];
     }
 
     //reset game for a new match
     public void resetGame() {
         board.clearBoard();  //clear board
+        lineStats.clear();
         blackMoves = 0;  //reset move counter
         whiteMoves = 0;
         maxBlackRow = 0;
         maxWhiteRow = 0;
         gameOver = false;
+        winner = 0;
+        winLine = WinLine.NONE;
         currentPlayer = 1;  //reset to black's turn
         moveHistory.clear(); //clear history
         redoHistory.clear();
-        statusBar.updateStatus(currentPlayer, false, 0); // Reset status bar
-        invalidMove.hideWarning(); //hide any warnings
+        keyframes.clear();
+        if (swap2 != null) {
+            swap2.reset();
+        }
+        for (GameEventListener listener : listeners) {
+            listener.onGameReset();
+        }
     }
 }
\ No newline at end of file
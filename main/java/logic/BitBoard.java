@@ -0,0 +1,204 @@
+//BitBoard class is a bitboard-backed game board for headless/analysis use
+//each player has one long[] bitset for the whole board plus an int mask per
+//row, column, diagonal and anti-diagonal, so win checks are shift-and-AND
+//operations on a single line and nothing is allocated per move
+package logic;
+
+import java.util.Arrays;
+
+public class BitBoard implements GameBoard {
+    private final int boardSize;
+    private final long[][] stones; //[player - 1][cell / 64], cell = row * boardSize + col
+    private final int[][] rows; //[player - 1][row], bit = col
+    private final int[][] cols; //[player - 1][col], bit = row
+    private final int[][] diags; //[player - 1][row - col + boardSize - 1], bit = col
+    private final int[][] antiDiags; //[player - 1][row + col], bit = col
+    private int totalMoves; //total number of stones placed
+    private final int maxMoves; //max number of moves
+    private long hash; //Zobrist hash of the stones on board
+
+    public BitBoard(int boardSize) {
+        if (boardSize < 5 || boardSize > 20) {
+            throw new IllegalArgumentException();
+        }
+        this.boardSize = boardSize;
+        this.totalMoves = 0;
+        this.maxMoves = boardSize * boardSize;
+        this.stones = new long[2][(maxMoves + 63) >>> 6];
+        this.rows = new int[2][boardSize];
+        this.cols = new int[2][boardSize];
+        this.diags = new int[2][2 * boardSize - 1];
+        this.antiDiags = new int[2][2 * boardSize - 1];
+    }
+
+    @Override
+    public boolean placeStone(int row, int col, int player) {
+        //check if position is valid and empty
+        if (!isValidPos(row, col) || (player != 1 && player != 2) || getCell(row, col) != 0) {
+            return false;
+        }
+        int p = player - 1;
+        int cell = row * boardSize + col;
+        stones[p][cell >>> 6] |= 1L << cell;
+        rows[p][row] |= 1 << col;
+        cols[p][col] |= 1 << row;
+        diags[p][row - col + boardSize - 1] |= 1 << col;
+        antiDiags[p][row + col] |= 1 << col;
+        hash ^= Zobrist.key(row, col, player);
+        totalMoves++;
+        return true;
+    }
+
+    @Override
+    public boolean removeStone(int row, int col) {
+        if (!isValidPos(row, col)) {
+            return false;
+        }
+        int player = getCell(row, col);
+        if (player == 0) {
+            return false;
+        }
+        int p = player - 1;
+        int cell = row * boardSize + col;
+        stones[p][cell >>> 6] &= ~(1L << cell);
+        rows[p][row] &= ~(1 << col);
+        cols[p][col] &= ~(1 << row);
+        diags[p][row - col + boardSize - 1] &= ~(1 << col);
+        antiDiags[p][row + col] &= ~(1 << col);
+        hash ^= Zobrist.key(row, col, player);
+        totalMoves--;
+        return true;
+    }
+
+    //check the four lines through (row,col) for five in a row
+    @Override
+    public boolean checkWin(int row, int col, int player) {
+        if (player != 1 && player != 2) {
+            return false;
+        }
+        int p = player - 1;
+        return hasFive(rows[p][row], col)
+                || hasFive(cols[p][col], row)
+                || hasFive(diags[p][row - col + boardSize - 1], col)
+                || hasFive(antiDiags[p][row + col], col);
+    }
+
+    //the run the move completes, read from the same line masks checkWin tests
+    @Override
+    public long findWin(int row, int col, int player) {
+        if (player != 1 && player != 2) {
+            return WinLine.NONE;
+        }
+        int p = player - 1;
+        int line = rows[p][row];
+        int below = runBelow(line, col);
+        int length = below + runAbove(line, col);
+        if (length >= 5) {
+            return WinLine.of(row, col - below, WinLine.HORIZONTAL, length);
+        }
+        line = cols[p][col];
+        below = runBelow(line, row);
+        length = below + runAbove(line, row);
+        if (length >= 5) {
+            return WinLine.of(row - below, col, WinLine.VERTICAL, length);
+        }
+        line = diags[p][row - col + boardSize - 1];
+        below = runBelow(line, col);
+        length = below + runAbove(line, col);
+        if (length >= 5) {
+            return WinLine.of(row - below, col - below, WinLine.DIAGONAL, length);
+        }
+        //bits are cols, and the line starts at its top row, which is its highest col
+        line = antiDiags[p][row + col];
+        int above = runAbove(line, col) - 1;
+        length = runBelow(line, col) + 1 + above;
+        if (length >= 5) {
+            return WinLine.of(row - above, col + above, WinLine.ANTI_DIAGONAL, length);
+        }
+        return WinLine.NONE;
+    }
+
+    //stones of the run through bit pos at lower bits, not counting pos
+    private static int runBelow(int line, int pos) {
+        return Integer.numberOfLeadingZeros(~((line | (1 << pos)) << (31 - pos))) - 1;
+    }
+
+    //stones of the run through bit pos from pos up, counting pos
+    private static int runAbove(int line, int pos) {
+        return Integer.numberOfTrailingZeros(~((line | (1 << pos)) >>> pos));
+    }
+
+    //true if a run of 5 in the line mask covers bit pos (pos counts as occupied)
+    private static boolean hasFive(int line, int pos) {
+        int m = line | (1 << pos);
+        int fives = m & (m >>> 1) & (m >>> 2) & (m >>> 3) & (m >>> 4); //bit s set = run of 5 starting at s
+        int window = pos >= 4 ? 0x1F << (pos - 4) : 0x1F >>> (4 - pos); //starts s in [pos - 4, pos]
+        return (fives & window) != 0;
+    }
+
+    @Override
+    public int getMaxLength(int row, int col, int player) {
+        if (player != 1 && player != 2) {
+            return 1;
+        }
+        int p = player - 1;
+        int maxLength = runLength(rows[p][row], col);
+        maxLength = Math.max(maxLength, runLength(cols[p][col], row));
+        maxLength = Math.max(maxLength, runLength(diags[p][row - col + boardSize - 1], col));
+        maxLength = Math.max(maxLength, runLength(antiDiags[p][row + col], col));
+        return maxLength;
+    }
+
+    //length of the run through bit pos, looking at most 4 stones each way like Board does
+    private static int runLength(int line, int pos) {
+        int m = line | (1 << pos);
+        int up = Math.min(Integer.numberOfTrailingZeros(~(m >>> pos)), 5);
+        int down = Math.min(Integer.numberOfLeadingZeros(~(m << (31 - pos))), 5);
+        return up + down - 1; //pos is counted in both
+    }
+
+    @Override
+    public boolean isValidPos(int row, int col) {
+        return row >= 0 && row < boardSize && col >= 0 && col < boardSize;
+    }
+
+    @Override
+    public int getBoardSize() {
+        return boardSize;
+    }
+
+    @Override
+    public int getCell(int row, int col) {
+        int cell = row * boardSize + col;
+        if ((stones[0][cell >>> 6] & (1L << cell)) != 0) {
+            return 1;
+        }
+        if ((stones[1][cell >>> 6] & (1L << cell)) != 0) {
+            return 2;
+        }
+        return 0;
+    }
+
+    @Override
+    public long getHash() {
+        return hash;
+    }
+
+    @Override
+    public boolean isFull() {
+        return totalMoves >= maxMoves;
+    }
+
+    @Override
+    public void clearBoard() {
+        for (int p = 0; p < 2; p++) {
+            Arrays.fill(stones[p], 0L);
+            Arrays.fill(rows[p], 0);
+            Arrays.fill(cols[p], 0);
+            Arrays.fill(diags[p], 0);
+            Arrays.fill(antiDiags[p], 0);
+        }
+        totalMoves = 0;
+        hash = 0;
+    }
+}
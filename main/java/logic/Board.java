@@ -2,12 +2,14 @@
 //handles stone placements, win checking, and board status updates
 package logic;
 
-public class Board {
+public class Board implements GameBoard {
     public static final int DEFAULT_SIZE = 19; //default board size
+    private static final int[][] DIRECTIONS = {{0, 1}, {1, 0}, {1, 1}, {1, -1}}; //same order as WinLine
     private final int[][] board; //2D array
     private final int boardSize;
     private int totalMoves; //total number of stones placed
     private final int maxMoves; //max number of moves
+    private long hash; //Zobrist hash of the stones on board
 
     public Board(int boardSize) {
         if (boardSize < 5 || boardSize > 20) {
@@ -22,10 +24,11 @@ public class Board {
     //place a stone on board at specified position
     public boolean placeStone(int row, int col, int player) {
         //check if position is valid and empty
-        if (!isValidPos(row, col) || board[row][col] != 0) {
+        if (!isValidPos(row, col) || board[row][col] != 0 || player < 1 || player > 2) {
             return false;
         }
         board[row][col] = player; //place stone
+        hash ^= Zobrist.key(row, col, player);
         totalMoves++; //increment move count
         return true;
     }
@@ -35,6 +38,7 @@ public class Board {
         if (!isValidPos(row, col) || board[row][col] == 0) {
             return false;
         }
+        hash ^= Zobrist.key(row, col, board[row][col]);
         board[row][col] = 0; //remove the stone
         totalMoves--; //decrement the move count
         return true;
@@ -60,6 +64,31 @@ public class Board {
         return false;
     }
 
+    //the run the move completes, measured while looking for it; directions in WinLine order
+    @Override
+    public long findWin(int row, int col, int player) {
+        for (int direction = 0; direction < DIRECTIONS.length; direction++) {
+            int dRow = DIRECTIONS[direction][0];
+            int dCol = DIRECTIONS[direction][1];
+            int back = countRun(row, col, player, -dRow, -dCol);
+            int length = back + 1 + countRun(row, col, player, dRow, dCol);
+            if (length >= 5) {
+                return WinLine.of(row - back * dRow, col - back * dCol, direction, length);
+            }
+        }
+        return WinLine.NONE;
+    }
+
+    //stones of player next to (row,col) in one direction, up to the edge (an overline is measured in full)
+    private int countRun(int row, int col, int player, int dx, int dy) {
+        int count = 0;
+        while (isValidPos(row + (count + 1) * dx, col + (count + 1) * dy)
+                && board[row + (count + 1) * dx][col + (count + 1) * dy] == player) {
+            count++;
+        }
+        return count;
+    }
+
     //Helper method to count consecutive stones in a given direction
     private int countConsecutive(int row, int col, int player, int dx, int dy) {
         int count = 0;
@@ -95,6 +124,10 @@ public class Board {
         return board[row][col];
     }
 
+    public long getHash() {
+        return hash;
+    }
+
     //check if the board is full
     public boolean isFull() {
         return totalMoves >= maxMoves;
@@ -108,6 +141,25 @@ public class Board {
             }
         }
         totalMoves = 0;
+        hash = 0;
+    }
+
+    //copy every stone from another board of the same size (used to give the AI its own board)
+    public void copyFrom(GameBoard other) {
+        if (other.getBoardSize() != boardSize) {
+            throw new IllegalArgumentException();
+        }
+        totalMoves = 0;
+        hash = 0;
+        for (int i = 0; i < boardSize; i++) {
+            for (int j = 0; j < boardSize; j++) {
+                board[i][j] = other.getCell(i, j);
+                if (board[i][j] != 0) {
+                    totalMoves++;
+                    hash ^= Zobrist.key(i, j, board[i][j]);
+                }
+            }
+        }
     }
 
     //get max Length of consecutive stones
@@ -0,0 +1,103 @@
+//BoardSnapshot class is a compact copy of a position: one bitset per player over the
+//cells (row * size + col), 100 bytes for a 20x20 board. a board with no fixed size is
+//kept as a list of packed coordinates per player instead. used as replay keyframes
+package logic;
+
+import java.util.Arrays;
+
+public class BoardSnapshot {
+    private final int boardSize;
+    private long[] black; //bitset, or (row << 32 | col) per stone when boardSize is 0
+    private long[] white;
+    private int blackCount; //stones in the lists, only used when boardSize is 0
+    private int whiteCount;
+
+    private BoardSnapshot(int boardSize) {
+        this.boardSize = boardSize;
+        int words = boardSize > 0 ? (boardSize * boardSize + 63) >>> 6 : 16;
+        this.black = new long[words];
+        this.white = new long[words];
+    }
+
+    public static BoardSnapshot of(GameBoard board) {
+        int n = board.getBoardSize();
+        BoardSnapshot snapshot = new BoardSnapshot(n);
+        if (n == 0) {
+            board.forEachStone(snapshot::add);
+            snapshot.black = Arrays.copyOf(snapshot.black, snapshot.blackCount);
+            snapshot.white = Arrays.copyOf(snapshot.white, snapshot.whiteCount);
+            return snapshot;
+        }
+        for (int row = 0; row < n; row++) {
+            for (int col = 0; col < n; col++) {
+                int cell = row * n + col;
+                int stone = board.getCell(row, col);
+                if (stone == 1) {
+                    snapshot.black[cell >>> 6] |= 1L << cell;
+                } else if (stone == 2) {
+                    snapshot.white[cell >>> 6] |= 1L << cell;
+                }
+            }
+        }
+        return snapshot;
+    }
+
+    //put this position on board, replacing whatever was there
+    public void restore(GameBoard board) {
+        if (board.getBoardSize() != boardSize) {
+            throw new IllegalArgumentException("snapshot is for a " + boardSize + " board");
+        }
+        board.clearBoard();
+        if (boardSize == 0) {
+            for (long stone : black) {
+                board.placeStone((int) (stone >>> 32), (int) stone, 1);
+            }
+            for (long stone : white) {
+                board.placeStone((int) (stone >>> 32), (int) stone, 2);
+            }
+            return;
+        }
+        place(board, black, 1);
+        place(board, white, 2);
+    }
+
+    public int getStones(int player) {
+        long[] bits = player == 1 ? black : white;
+        if (boardSize == 0) {
+            return bits.length;
+        }
+        int count = 0;
+        for (long word : bits) {
+            count += Long.bitCount(word);
+        }
+        return count;
+    }
+
+    //one placeStone per set bit, empty cells are skipped a word at a time
+    private void place(GameBoard board, long[] bits, int player) {
+        for (int w = 0; w < bits.length; w++) {
+            long word = bits[w];
+            while (word != 0) {
+                int cell = (w << 6) + Long.numberOfTrailingZeros(word);
+                board.placeStone(cell / boardSize, cell % boardSize, player);
+                word &= word - 1;
+            }
+        }
+    }
+
+    //collect one stone of a board with no fixed size
+    private void add(int row, int col, int player) {
+        long stone = (long) row << 32 | col;
+        if (player == 1) {
+            if (blackCount == black.length) {
+                black = Arrays.copyOf(black, blackCount * 2);
+            }
+            black[blackCount++] = stone;
+        } else {
+            if (whiteCount == white.length) {
+                white = Arrays.copyOf(white, whiteCount * 2);
+            }
+            white[whiteCount++] = stone;
+        }
+    }
+}
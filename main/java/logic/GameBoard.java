@@ -0,0 +1,60 @@
+//GameBoard interface is the common board API shared by the array-backed Board
+//and the bitboard-backed BitBoard, so the controller can use either one
+package logic;
+
+public interface GameBoard {
+    //place a stone on board at specified position
+    boolean placeStone(int row, int col, int player);
+
+    //remove stone from specified position
+    boolean removeStone(int row, int col);
+
+    //check if the stone at (row,col) completes five in a row
+    boolean checkWin(int row, int col, int player);
+
+    //the five (or longer run) the stone at (row,col) completes, WinLine.NONE if there is none;
+    //the run is measured by the scan that finds it. Board and BitBoard scan their own storage
+    default long findWin(int row, int col, int player) {
+        for (int direction = 0; direction < 4; direction++) {
+            long line = WinLine.through(this, row, col, player, direction);
+            if (WinLine.length(line) >= 5) {
+                return line;
+            }
+        }
+        return WinLine.NONE;
+    }
+
+    //get max length of consecutive stones through (row,col)
+    int getMaxLength(int row, int col, int player);
+
+    //check if (row,col) is valid on board
+    boolean isValidPos(int row, int col);
+
+    //cells per side, or 0 for a board with no fixed size (SparseBoard): use isValidPos and forEachStone there
+    int getBoardSize();
+
+    //0 = empty, 1 = black, 2 = white
+    int getCell(int row, int col);
+
+    //Zobrist hash of the stones on board, kept up to date by placeStone/removeStone
+    long getHash();
+
+    //check if the board is full
+    boolean isFull();
+
+    //clear the board and reset all values to 0
+    void clearBoard();
+
+    //call visitor for every stone, in no particular order; fixed-size boards scan every cell
+    default void forEachStone(StoneVisitor visitor) {
+        int n = getBoardSize();
+        for (int row = 0; row < n; row++) {
+            for (int col = 0; col < n; col++) {
+                int player = getCell(row, col);
+                if (player != 0) {
+                    visitor.visit(row, col, player);
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,194 @@
+//LineStats class tracks the longest line of stones for each player without
+//rescanning the board. For every direction it stores run lengths at the two
+//ends of each run, plus a histogram of run lengths per player. Moves are
+//pushed and popped in stack order (like undo/redo), so each push logs the
+//runs it merged and a pop splits them back exactly. on a board with no fixed
+//size (SparseBoard) the run lengths go in LongIntMaps instead of arrays
+package logic;
+
+import java.util.Arrays;
+
+public class LineStats {
+    //horizontal, vertical, diagonal, anti-diagonal
+    private static final int[][] DIRECTIONS = {{0, 1}, {1, 0}, {1, 1}, {1, -1}};
+    private static final int LOG_ENTRY = 11; //row, col, player, 4 left runs, 4 right runs
+
+    private final int boardSize;
+    private final int[][] runLength; //[direction][cell], only valid at the two ends of a run
+    private final LongIntMap[] sparseRuns; //[direction], used instead of runLength when boardSize is 0
+    private int[][] histogram; //[player - 1][length] = number of runs of that length
+    private int[] log; //one LOG_ENTRY per pushed move
+    private int pushed;
+
+    //boardSize 0 for a board with no fixed size
+    public LineStats(int boardSize) {
+        this.boardSize = boardSize;
+        if (boardSize > 0) {
+            this.runLength = new int[4][boardSize * boardSize];
+            this.sparseRuns = null;
+        } else {
+            this.runLength = null;
+            this.sparseRuns = new LongIntMap[4];
+            for (int d = 0; d < 4; d++) {
+                sparseRuns[d] = new LongIntMap();
+            }
+        }
+        this.histogram = new int[2][Math.max(boardSize, 8) + 1];
+        this.log = new int[LOG_ENTRY * 64];
+    }
+
+    //record a stone just placed on board at (row,col)
+    public void push(GameBoard board, int row, int col, int player) {
+        if (pushed * LOG_ENTRY + LOG_ENTRY > log.length) {
+            log = Arrays.copyOf(log, log.length * 2);
+        }
+        int entry = pushed * LOG_ENTRY;
+        log[entry] = row;
+        log[entry + 1] = col;
+        log[entry + 2] = player;
+
+        for (int d = 0; d < 4; d++) {
+            int dRow = DIRECTIONS[d][0];
+            int dCol = DIRECTIONS[d][1];
+            //runs ending right next to the new stone on each side
+            int left = runAt(board, row - dRow, col - dCol, player, d);
+            int right = runAt(board, row + dRow, col + dCol, player, d);
+            int merged = left + right + 1;
+            if (merged >= histogram[player - 1].length) {
+                histogram[player - 1] = Arrays.copyOf(histogram[player - 1], merged * 2); //only without a fixed size
+            }
+            int[] counts = histogram[player - 1];
+
+            if (left > 0) {
+                counts[left]--;
+            }
+            if (right > 0) {
+                counts[right]--;
+            }
+            counts[merged]++;
+
+            //only the ends of the merged run need the new length
+            setRun(d, row, col, merged);
+            setRun(d, row - left * dRow, col - left * dCol, merged);
+            setRun(d, row + right * dRow, col + right * dCol, merged);
+
+            log[entry + 3 + d] = left;
+            log[entry + 7 + d] = right;
+        }
+        pushed++;
+    }
+
+    //undo the last push (the stone itself is removed from the board by the caller)
+    public void pop() {
+        if (pushed == 0) {
+            return;
+        }
+        pushed--;
+        int entry = pushed * LOG_ENTRY;
+        int row = log[entry];
+        int col = log[entry + 1];
+        int[] counts = histogram[log[entry + 2] - 1];
+
+        for (int d = 0; d < 4; d++) {
+            int dRow = DIRECTIONS[d][0];
+            int dCol = DIRECTIONS[d][1];
+            int left = log[entry + 3 + d];
+            int right = log[entry + 7 + d];
+
+            counts[left + right + 1]--;
+            setRun(d, row, col, 0);
+
+            //split back into the two runs that were merged
+            if (left > 0) {
+                counts[left]++;
+                setRun(d, row - dRow, col - dCol, left);
+                setRun(d, row - left * dRow, col - left * dCol, left);
+            }
+            if (right > 0) {
+                counts[right]++;
+                setRun(d, row + dRow, col + dCol, right);
+                setRun(d, row + right * dRow, col + right * dCol, right);
+            }
+        }
+    }
+
+    //longest line of stones for player (0 if player has no stones)
+    public int getMaxRow(int player) {
+        int[] counts = histogram[player - 1];
+        for (int length = counts.length - 1; length > 0; length--) {
+            if (counts[length] > 0) {
+                return length;
+            }
+        }
+        return 0;
+    }
+
+    //number of moves pushed and not popped
+    public int size() {
+        return pushed;
+    }
+
+    public void clear() {
+        for (int d = 0; d < 4; d++) {
+            if (runLength != null) {
+                Arrays.fill(runLength[d], 0);
+            } else {
+                sparseRuns[d].clear();
+            }
+        }
+        Arrays.fill(histogram[0], 0);
+        Arrays.fill(histogram[1], 0);
+        pushed = 0;
+    }
+
+    //set the run lengths and histogram from board, which holds the first moves pushes;
+    //log entries below that count are kept, so they must be for the same moves (replay jumps
+    //along one line of play, where they are)
+    public void restore(GameBoard board, int moves) {
+        clear();
+        board.forEachStone((row, col, player) -> {
+            for (int d = 0; d < 4; d++) {
+                int dRow = DIRECTIONS[d][0];
+                int dCol = DIRECTIONS[d][1];
+                //start of a run: the cell before it is off the board or not the same player
+                if (board.isValidPos(row - dRow, col - dCol) && board.getCell(row - dRow, col - dCol) == player) {
+                    continue;
+                }
+                int length = 1;
+                while (board.isValidPos(row + length * dRow, col + length * dCol)
+                        && board.getCell(row + length * dRow, col + length * dCol) == player) {
+                    length++;
+                }
+                if (length >= histogram[player - 1].length) {
+                    histogram[player - 1] = Arrays.copyOf(histogram[player - 1], length * 2);
+                }
+                histogram[player - 1][length]++;
+                setRun(d, row, col, length);
+                setRun(d, row + (length - 1) * dRow, col + (length - 1) * dCol, length);
+            }
+        });
+        if (moves * LOG_ENTRY > log.length) {
+            log = Arrays.copyOf(log, Math.max(log.length * 2, moves * LOG_ENTRY));
+        }
+        pushed = moves;
+    }
+
+    //length of player's run ending at (row,col) in direction d, 0 if that cell isn't player's
+    private int runAt(GameBoard board, int row, int col, int player, int d) {
+        if (!board.isValidPos(row, col) || board.getCell(row, col) != player) {
+            return 0;
+        }
+        return runLength != null ? runLength[d][row * boardSize + col] : sparseRuns[d].get((long) row << 32 | col);
+    }
+
+    //length 0 clears the cell
+    private void setRun(int d, int row, int col, int length) {
+        if (runLength != null) {
+            runLength[d][row * boardSize + col] = length;
+        } else if (length == 0) {
+            sparseRuns[d].remove((long) row << 32 | col);
+        } else {
+            sparseRuns[d].put((long) row << 32 | col, length);
+        }
+    }
+}
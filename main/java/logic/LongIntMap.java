@@ -0,0 +1,148 @@
+//LongIntMap class is an open-addressing hash map from long keys to int values with
+//no boxing and no entry objects: keys and values sit in two parallel arrays, probed
+//linearly. removal shifts the following entries back instead of leaving tombstones,
+//so lookups stay short however many stones come and go. 0 is returned for missing
+//keys, so 0 can't be stored as a value
+package logic;
+
+import java.util.Arrays;
+
+public class LongIntMap {
+    private static final long FREE = Long.MIN_VALUE; //marks an empty slot, can't be used as a key
+    private static final int MIN_CAPACITY = 16;
+
+    private long[] keys;
+    private int[] values;
+    private int mask;
+    private int size;
+
+    public LongIntMap() {
+        this(MIN_CAPACITY);
+    }
+
+    public LongIntMap(int expected) {
+        int capacity = MIN_CAPACITY;
+        while (capacity * 3 / 4 < expected) {
+            capacity <<= 1;
+        }
+        allocate(capacity);
+    }
+
+    //value for key, 0 if the key is not in the map
+    public int get(long key) {
+        for (int slot = slot(key); ; slot = (slot + 1) & mask) {
+            long k = keys[slot];
+            if (k == key) {
+                return values[slot];
+            }
+            if (k == FREE) {
+                return 0;
+            }
+        }
+    }
+
+    //set key to value (not 0), returns the old value or 0
+    public int put(long key, int value) {
+        if (key == FREE || value == 0) {
+            throw new IllegalArgumentException();
+        }
+        int slot = slot(key);
+        while (keys[slot] != FREE) {
+            if (keys[slot] == key) {
+                int old = values[slot];
+                values[slot] = value;
+                return old;
+            }
+            slot = (slot + 1) & mask;
+        }
+        keys[slot] = key;
+        values[slot] = value;
+        if (++size > (mask + 1) * 3 / 4) {
+            rehash(keys.length << 1);
+        }
+        return 0;
+    }
+
+    //remove key, returns its value or 0 if it was not there
+    public int remove(long key) {
+        int slot = slot(key);
+        while (keys[slot] != key) {
+            if (keys[slot] == FREE) {
+                return 0;
+            }
+            slot = (slot + 1) & mask;
+        }
+        int old = values[slot];
+
+        //pull later entries of the probe chain back into the gap
+        int gap = slot;
+        for (int next = (gap + 1) & mask; keys[next] != FREE; next = (next + 1) & mask) {
+            int home = slot(keys[next]);
+            //move it unless its home lies cyclically in (gap, next]
+            if (((next - home) & mask) >= ((next - gap) & mask)) {
+                keys[gap] = keys[next];
+                values[gap] = values[next];
+                gap = next;
+            }
+        }
+        keys[gap] = FREE;
+        values[gap] = 0;
+        size--;
+        return old;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    public void clear() {
+        Arrays.fill(keys, FREE);
+        Arrays.fill(values, 0);
+        size = 0;
+    }
+
+    //call visitor for every entry, in no particular order; the map must not change meanwhile
+    public void forEach(EntryVisitor visitor) {
+        for (int slot = 0; slot < keys.length; slot++) {
+            if (keys[slot] != FREE) {
+                visitor.visit(keys[slot], values[slot]);
+            }
+        }
+    }
+
+    public interface EntryVisitor {
+        void visit(long key, int value);
+    }
+
+    private int slot(long key) {
+        long h = key * 0x9E3779B97F4A7C15L; //Fibonacci hashing, the high bits are mixed best
+        return (int) (h ^ (h >>> 32)) & mask;
+    }
+
+    private void allocate(int capacity) {
+        keys = new long[capacity];
+        values = new int[capacity];
+        Arrays.fill(keys, FREE);
+        mask = capacity - 1;
+    }
+
+    private void rehash(int capacity) {
+        long[] oldKeys = keys;
+        int[] oldValues = values;
+        allocate(capacity);
+        for (int i = 0; i < oldKeys.length; i++) {
+            if (oldKeys[i] != FREE) {
+                int slot = slot(oldKeys[i]);
+                while (keys[slot] != FREE) {
+                    slot = (slot + 1) & mask;
+                }
+                keys[slot] = oldKeys[i];
+                values[slot] = oldValues[i];
+            }
+        }
+    }
+}
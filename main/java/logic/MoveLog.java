@@ -0,0 +1,142 @@
+//MoveLog class is a growable stack of moves packed one int each
+//(row << 16 | col << 2 | player), so push, pop and move N are O(1) and a move costs
+//no object; Move objects are only made when a caller asks for one
+package logic;
+
+import java.util.AbstractList;
+import java.util.Arrays;
+import java.util.List;
+
+public class MoveLog implements MoveSequence {
+    private int[] moves;
+    private int size;
+    private final MoveSequence view = new MoveSequence() {
+        @Override
+        public int size() {
+            return size;
+        }
+
+        @Override
+        public int getRow(int index) {
+            return MoveLog.this.getRow(index);
+        }
+
+        @Override
+        public int getCol(int index) {
+            return MoveLog.this.getCol(index);
+        }
+
+        @Override
+        public int getPlayer(int index) {
+            return MoveLog.this.getPlayer(index);
+        }
+    };
+
+    public MoveLog() {
+        this(64);
+    }
+
+    public MoveLog(int capacity) {
+        moves = new int[Math.max(capacity, 1)];
+    }
+
+    //row below 32768, col below 16384, player 1 or 2
+    public static int pack(int row, int col, int player) {
+        return row << 16 | col << 2 | player;
+    }
+
+    public static int rowOf(int packed) {
+        return packed >>> 16;
+    }
+
+    public static int colOf(int packed) {
+        return packed >>> 2 & 0x3FFF;
+    }
+
+    public static int playerOf(int packed) {
+        return packed & 3;
+    }
+
+    public void push(int row, int col, int player) {
+        pushPacked(pack(row, col, player));
+    }
+
+    public void pushPacked(int packed) {
+        if (size == moves.length) {
+            moves = Arrays.copyOf(moves, size * 2);
+        }
+        moves[size++] = packed;
+    }
+
+    //remove and return the last move, packed
+    public int pop() {
+        if (size == 0) {
+            throw new IllegalStateException("move log is empty");
+        }
+        return moves[--size];
+    }
+
+    //last move, packed
+    public int peek() {
+        if (size == 0) {
+            throw new IllegalStateException("move log is empty");
+        }
+        return moves[size - 1];
+    }
+
+    //move N (0 = first), packed
+    public int get(int index) {
+        if (index < 0 || index >= size) {
+            throw new IndexOutOfBoundsException("move " + index + " of " + size);
+        }
+        return moves[index];
+    }
+
+    @Override
+    public int size() {
+        return size;
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    public void clear() {
+        size = 0;
+    }
+
+    @Override
+    public int getRow(int index) {
+        return rowOf(get(index));
+    }
+
+    @Override
+    public int getCol(int index) {
+        return colOf(get(index));
+    }
+
+    @Override
+    public int getPlayer(int index) {
+        return playerOf(get(index));
+    }
+
+    //read-only view that follows this log, it cannot be cast back to change it
+    public MoveSequence view() {
+        return view;
+    }
+
+    //read-only List of Move made on demand, for code that wants java.util collections
+    public List<Move> asList() {
+        return new AbstractList<Move>() {
+            @Override
+            public Move get(int index) {
+                return getMove(index);
+            }
+
+            @Override
+            public int size() {
+                return size;
+            }
+        };
+    }
+}
@@ -0,0 +1,18 @@
+//MoveSequence interface is a read-only list of moves, oldest first;
+//renderers and exporters read moves through it without copying or allocating
+package logic;
+
+public interface MoveSequence {
+    int size();
+
+    int getRow(int index);
+
+    int getCol(int index);
+
+    int getPlayer(int index);
+
+    //move as an object, made on demand
+    default Move getMove(int index) {
+        return new Move(getRow(index), getCol(index), getPlayer(index));
+    }
+}
@@ -0,0 +1,130 @@
+//SparseBoard class is the board for the unbounded variant: only occupied cells are
+//stored, in a LongIntMap keyed by the packed coordinates, so memory grows with the
+//number of stones and not with the area. coordinates run from 0 to LIMIT - 1 (as far
+//as MoveLog packs them) and games start at CENTER, so play can spread thousands of
+//cells in every direction. a win check looks at most 4 cells each way in the 4
+//directions, 32 probes, however many stones the board holds
+package logic;
+
+public class SparseBoard implements GameBoard {
+    public static final int UNBOUNDED = 0; //what getBoardSize() returns
+    public static final int LIMIT = 16384;
+    public static final int CENTER = LIMIT / 2;
+
+    private final LongIntMap cells = new LongIntMap(); //packed (row, col) -> player
+    private long hash; //Zobrist hash of the stones on board
+
+    //directions: horizontal, vertical, diagonal, anti-diagonal
+    private static final int[][] DIRECTIONS = {{0, 1}, {1, 0}, {1, 1}, {1, -1}};
+
+    @Override
+    public boolean placeStone(int row, int col, int player) {
+        if (!isValidPos(row, col) || player < 1 || player > 2 || cells.get(key(row, col)) != 0) {
+            return false;
+        }
+        cells.put(key(row, col), player);
+        hash ^= Zobrist.sparseKey(row, col, player);
+        return true;
+    }
+
+    @Override
+    public boolean removeStone(int row, int col) {
+        if (!isValidPos(row, col)) {
+            return false;
+        }
+        int player = cells.remove(key(row, col));
+        if (player == 0) {
+            return false;
+        }
+        hash ^= Zobrist.sparseKey(row, col, player);
+        return true;
+    }
+
+    @Override
+    public boolean checkWin(int row, int col, int player) {
+        for (int[] direction : DIRECTIONS) {
+            int count = 1 + countConsecutive(row, col, player, direction[0], direction[1])
+                    + countConsecutive(row, col, player, -direction[0], -direction[1]);
+            if (count >= 5) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    @Override
+    public int getMaxLength(int row, int col, int player) {
+        int maxLength = 0;
+        for (int[] direction : DIRECTIONS) {
+            int count = 1 + countConsecutive(row, col, player, direction[0], direction[1])
+                    + countConsecutive(row, col, player, -direction[0], -direction[1]);
+            maxLength = Math.max(maxLength, count);
+        }
+        return maxLength;
+    }
+
+    //stones of player next to (row,col) in one direction, looking at most 4 cells like Board does
+    private int countConsecutive(int row, int col, int player, int dx, int dy) {
+        int count = 0;
+        for (int i = 1; i < 5; i++) {
+            if (getCell(row + i * dx, col + i * dy) != player) {
+                break;
+            }
+            count++;
+        }
+        return count;
+    }
+
+    @Override
+    public boolean isValidPos(int row, int col) {
+        return row >= 0 && row < LIMIT && col >= 0 && col < LIMIT;
+    }
+
+    @Override
+    public int getBoardSize() {
+        return UNBOUNDED;
+    }
+
+    //0 for empty cells and cells off the board
+    @Override
+    public int getCell(int row, int col) {
+        return isValidPos(row, col) ? cells.get(key(row, col)) : 0;
+    }
+
+    @Override
+    public long getHash() {
+        return hash;
+    }
+
+    //LIMIT * LIMIT stones are never reached in a game
+    @Override
+    public boolean isFull() {
+        return false;
+    }
+
+    @Override
+    public void clearBoard() {
+        cells.clear();
+        hash = 0;
+    }
+
+    //only the stored stones are visited, empty space costs nothing
+    @Override
+    public void forEachStone(StoneVisitor visitor) {
+        cells.forEach((key, player) -> visitor.visit((int) (key >>> 32), (int) key, player));
+    }
+
+    //copy every stone from another board (used to give the AI its own board)
+    public void copyFrom(GameBoard other) {
+        clearBoard();
+        other.forEachStone(this::placeStone);
+    }
+
+    public int getStoneCount() {
+        return cells.size();
+    }
+
+    private static long key(int row, int col) {
+        return (long) row << 32 | col;
+    }
+}
@@ -0,0 +1,6 @@
+//StoneVisitor interface is called once per stone by GameBoard.forEachStone
+package logic;
+
+public interface StoneVisitor {
+    void visit(int row, int col, int player);
+}
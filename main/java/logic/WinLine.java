@@ -0,0 +1,68 @@
+//WinLine class packs a winning run of stones into one long: the cell at one end,
+//the direction to step from it and the number of stones (5, or more for an overline).
+//boards and rule sets return it from the scan that finds the win, so the view and
+//game records know the exact cells without scanning the board again. 0 is NONE.
+//the start is the end with the smaller row (the smaller col on a horizontal line)
+package logic;
+
+public class WinLine {
+    public static final long NONE = 0;
+
+    //directions, the same order every line scan in the game uses
+    public static final int HORIZONTAL = 0; //step (0, 1)
+    public static final int VERTICAL = 1; //step (1, 0)
+    public static final int DIAGONAL = 2; //step (1, 1)
+    public static final int ANTI_DIAGONAL = 3; //step (1, -1)
+
+    private static final int[][] STEPS = {{0, 1}, {1, 0}, {1, 1}, {1, -1}};
+
+    private WinLine() {
+    }
+
+    //row and col up to 0xFFFF (sparse boards use 0..16383), length 1..255
+    public static long of(int startRow, int startCol, int direction, int length) {
+        return (long) startRow << 32 | (long) startCol << 16 | direction << 8 | length;
+    }
+
+    //the run of player through (row,col) along direction, counting every stone (not just 4 each way)
+    public static long through(GameBoard board, int row, int col, int player, int direction) {
+        int dRow = STEPS[direction][0];
+        int dCol = STEPS[direction][1];
+        int back = 0;
+        while (board.isValidPos(row - (back + 1) * dRow, col - (back + 1) * dCol)
+                && board.getCell(row - (back + 1) * dRow, col - (back + 1) * dCol) == player) {
+            back++;
+        }
+        int forward = 0;
+        while (board.isValidPos(row + (forward + 1) * dRow, col + (forward + 1) * dCol)
+                && board.getCell(row + (forward + 1) * dRow, col + (forward + 1) * dCol) == player) {
+            forward++;
+        }
+        return of(row - back * dRow, col - back * dCol, direction, Math.min(back + 1 + forward, 255));
+    }
+
+    public static int startRow(long line) {
+        return (int) (line >>> 32) & 0xFFFF;
+    }
+
+    public static int startCol(long line) {
+        return (int) (line >>> 16) & 0xFFFF;
+    }
+
+    public static int direction(long line) {
+        return (int) (line >>> 8) & 0x3;
+    }
+
+    public static int length(long line) {
+        return (int) line & 0xFF;
+    }
+
+    //row and col of the i-th stone, 0 <= i < length
+    public static int rowAt(long line, int i) {
+        return startRow(line) + i * STEPS[direction(line)][0];
+    }
+
+    public static int colAt(long line, int i) {
+        return startCol(line) + i * STEPS[direction(line)][1];
+    }
+}
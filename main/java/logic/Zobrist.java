@@ -0,0 +1,40 @@
+//Zobrist class holds the random 64-bit keys used to hash board positions
+//one key per (player, cell) for every cell of the largest 20x20 board,
+//so a position hash is the XOR of the keys of all stones on it
+package logic;
+
+import java.util.SplittableRandom;
+
+public class Zobrist {
+    public static final int MAX_SIZE = 20; //largest board the Board classes accept
+    private static final long[][] KEYS = new long[2][MAX_SIZE * MAX_SIZE];
+    public static final long SIDE_TO_MOVE; //XOR in when white is to move
+
+    static {
+        //fixed seed so hashes are the same in every run (needed for stored books/archives)
+        SplittableRandom random = new SplittableRandom(0x60_6D_6F_6B_75L);
+        for (int p = 0; p < 2; p++) {
+            for (int cell = 0; cell < KEYS[p].length; cell++) {
+                KEYS[p][cell] = random.nextLong();
+            }
+        }
+        SIDE_TO_MOVE = random.nextLong();
+    }
+
+    private Zobrist() {
+    }
+
+    //key for a stone of player (1 or 2) at (row,col)
+    public static long key(int row, int col, int player) {
+        return KEYS[player - 1][row * MAX_SIZE + col];
+    }
+
+    //key for any cell of a board without a fixed size, mixed from the coordinates
+    //instead of looked up (MurmurHash3's finalizer, so keys are the same every run)
+    public static long sparseKey(int row, int col, int player) {
+        long z = ((long) row << 32 | (col & 0xFFFFFFFFL)) + player * 0x9E3779B97F4A7C15L;
+        z = (z ^ (z >>> 33)) * 0xFF51AFD7ED558CCDL;
+        z = (z ^ (z >>> 33)) * 0xC4CEB9FE1A85EC53L;
+        return z ^ (z >>> 33);
+    }
+}
@@ -0,0 +1,12 @@
+//GameReader interface reads games one at a time from a stream,
+//only the game being parsed is held in memory
+package notation;
+
+import storage.GameRecord;
+import java.io.Closeable;
+import java.io.IOException;
+
+public interface GameReader extends Closeable {
+    //next game, or null when the stream is done; a NotationException skips only the bad game
+    GameRecord next() throws IOException;
+}
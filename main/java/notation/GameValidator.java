@@ -0,0 +1,100 @@
+//GameValidator class replays an imported game through Board.placeStone to check
+//every move is on the board, on an empty cell, allowed by the game's rules and not
+//played after a winning five.
+//the result (and the winning line) is taken from the board when someone has five, otherwise
+//from the source (resignations and time losses leave no trace on the board).
+//one Board is reused for every game of the same size, so a long import allocates nothing per move;
+//games with no fixed board size are replayed on a SparseBoard
+package notation;
+
+import logic.Board;
+import logic.GameBoard;
+import logic.Move;
+import logic.SparseBoard;
+import logic.WinLine;
+import logic.Zobrist;
+import rules.RenjuTracker;
+import rules.RuleSet;
+import rules.Rules;
+import storage.GameRecord;
+import java.util.List;
+
+public class GameValidator {
+    private Board board;
+    private SparseBoard sparseBoard; //for games on a board with no fixed size
+    private RenjuTracker renju; //forbidden moves on board, made when a Renju game comes
+
+    //the record with its result fixed up, or a NotationException naming the first bad move
+    public GameRecord validate(GameRecord record) throws NotationException {
+        int size = record.getBoardSize();
+        RuleSet rules;
+        try {
+            rules = Rules.of(record.getRuleSet());
+        } catch (IllegalArgumentException e) {
+            throw new NotationException("unsupported rules " + record.getRules());
+        }
+        boolean renjuRules = rules.getId() == RuleSet.RENJU;
+
+        GameBoard target;
+        if (size == SparseBoard.UNBOUNDED) {
+            if (renjuRules) {
+                throw new NotationException("renju needs a board of fixed size");
+            }
+            if (sparseBoard == null) {
+                sparseBoard = new SparseBoard();
+            } else {
+                sparseBoard.clearBoard();
+            }
+            target = sparseBoard;
+        } else {
+            if (size < 5 || size > Zobrist.MAX_SIZE) {
+                throw new NotationException("unsupported board size " + size);
+            }
+            if (board == null || board.getBoardSize() != size) {
+                board = new Board(size);
+                renju = null;
+            } else {
+                board.clearBoard();
+            }
+            target = board;
+        }
+        if (renjuRules) {
+            if (renju == null) {
+                renju = new RenjuTracker(board);
+            } else {
+                renju.rebuild();
+            }
+        }
+
+        List<Move> moves = record.getMoves();
+        int result = record.getResult();
+        long winLine = WinLine.NONE;
+        for (int i = 0; i < moves.size(); i++) {
+            Move move = moves.get(i);
+            if (renjuRules && move.getPlayer() == 1 && target.isValidPos(move.getRow(), move.getCol())
+                    && renju.isForbidden(move.getRow(), move.getCol())) {
+                throw new NotationException("forbidden move " + (i + 1) + " at " + move.getRow() + "," + move.getCol());
+            }
+            if (!target.placeStone(move.getRow(), move.getCol(), move.getPlayer())) {
+                throw new NotationException("illegal move " + (i + 1) + " at " + move.getRow() + "," + move.getCol());
+            }
+            if (renjuRules) {
+                renju.place(move.getRow(), move.getCol(), move.getPlayer());
+            }
+            winLine = rules.winLine(target, move.getRow(), move.getCol(), move.getPlayer());
+            if (winLine != WinLine.NONE) {
+                if (i != moves.size() - 1) {
+                    throw new NotationException("move " + (i + 2) + " is played after a five");
+                }
+                result = move.getPlayer(); //BLACK_WINS or WHITE_WINS
+            }
+        }
+        if (result == GameRecord.UNFINISHED && target.isFull()) {
+            result = GameRecord.DRAW;
+        }
+        if (result == record.getResult() && winLine == record.getWinLine()) {
+            return record;
+        }
+        return new GameRecord(size, record.getRules(), result, moves, winLine);
+    }
+}
@@ -0,0 +1,11 @@
+//GameWriter interface writes games one at a time to a stream
+package notation;
+
+import storage.GameRecord;
+import java.io.Closeable;
+import java.io.IOException;
+
+public interface GameWriter extends Closeable {
+    //append one game; a NotationException means this game cannot be expressed in the format
+    void write(GameRecord record) throws IOException;
+}
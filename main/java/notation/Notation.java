@@ -0,0 +1,109 @@
+//Notation class picks a reader or writer from a file extension:
+//.psq (Piskvork), .sgf, .rif/.xml (renju.net) or .gmk (our archive, see storage.GameArchive)
+package notation;
+
+import logic.Move;
+import storage.GameArchive;
+import storage.GameRecord;
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+public class Notation {
+    private Notation() {
+    }
+
+    public static GameReader reader(Path file) throws IOException {
+        switch (extension(file)) {
+            case "psq":
+                return new PsqReader(Files.newBufferedReader(file, StandardCharsets.UTF_8));
+            case "sgf":
+                return new SgfReader(Files.newBufferedReader(file, StandardCharsets.UTF_8));
+            case "rif":
+            case "xml":
+                return new RifReader(new BufferedInputStream(Files.newInputStream(file)));
+            case "gmk":
+                return new ArchiveReader(new GameArchive(file));
+            default:
+                throw new NotationException("unknown game format: " + file);
+        }
+    }
+
+    public static GameWriter writer(Path file) throws IOException {
+        switch (extension(file)) {
+            case "psq":
+                return new PsqWriter(Files.newBufferedWriter(file, StandardCharsets.UTF_8));
+            case "sgf":
+                return new SgfWriter(Files.newBufferedWriter(file, StandardCharsets.UTF_8));
+            case "rif":
+            case "xml":
+                return new RifWriter(new BufferedOutputStream(Files.newOutputStream(file)));
+            case "gmk":
+                return new ArchiveWriter(new GameArchive(file));
+            default:
+                throw new NotationException("unknown game format: " + file);
+        }
+    }
+
+    //psq and rif have no player field, so a game with a skipped turn cannot be written
+    static void requireAlternating(List<Move> moves, String format) throws NotationException {
+        for (int i = 0; i < moves.size(); i++) {
+            if (moves.get(i).getPlayer() != (i % 2 == 0 ? 1 : 2)) {
+                throw new NotationException(format + " needs alternating moves, move " + (i + 1) + " repeats a player");
+            }
+        }
+    }
+
+    private static String extension(Path file) {
+        String name = file.getFileName().toString();
+        int dot = name.lastIndexOf('.');
+        return dot < 0 ? "" : name.substring(dot + 1).toLowerCase();
+    }
+
+    //games of an archive in index order
+    private static class ArchiveReader implements GameReader {
+        private final GameArchive archive;
+        private int next;
+
+        ArchiveReader(GameArchive archive) {
+            this.archive = archive;
+        }
+
+        @Override
+        public GameRecord next() throws IOException {
+            return next < archive.size() ? archive.read(next++) : null;
+        }
+
+        @Override
+        public void close() throws IOException {
+            archive.close();
+        }
+    }
+
+    //appends to an archive, synced to disk on close
+    private static class ArchiveWriter implements GameWriter {
+        private final GameArchive archive;
+
+        ArchiveWriter(GameArchive archive) {
+            this.archive = archive;
+        }
+
+        @Override
+        public void write(GameRecord record) throws IOException {
+            archive.append(record);
+        }
+
+        @Override
+        public void close() throws IOException {
+            try {
+                archive.sync();
+            } finally {
+                archive.close();
+            }
+        }
+    }
+}
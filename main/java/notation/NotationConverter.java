@@ -0,0 +1,59 @@
+//NotationConverter class streams games from one format to another, one game at a time,
+//checking each with GameValidator on the way; bad games are reported and skipped.
+//usage: java notation.NotationConverter <input> <output>
+//e.g. gomocup.psq games.gmk to import a dump into the archive, games.gmk games.sgf to export
+package notation;
+
+import storage.GameRecord;
+import java.io.IOException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+
+public class NotationConverter {
+    private final GameValidator validator = new GameValidator();
+    private int converted;
+    private int skipped;
+
+    //copy every game from reader to writer; the caller closes both
+    public void convert(GameReader reader, GameWriter writer) throws IOException {
+        while (true) {
+            GameRecord record;
+            try {
+                record = reader.next();
+                if (record == null) {
+                    return;
+                }
+                writer.write(validator.validate(record));
+                converted++;
+            } catch (NotationException e) {
+                skipped++;
+                System.err.println("skipped game " + (converted + skipped) + ": " + e.getMessage());
+            }
+        }
+    }
+
+    public int getConverted() {
+        return converted;
+    }
+
+    public int getSkipped() {
+        return skipped;
+    }
+
+    public static void main(String[] args) throws IOException {
+        if (args.length != 2) {
+            System.err.println("usage: NotationConverter <input.psq|sgf|rif|gmk> <output.psq|sgf|rif|gmk>");
+            System.exit(2);
+        }
+        Path input = Paths.get(args[0]);
+        Path output = Paths.get(args[1]);
+
+        NotationConverter converter = new NotationConverter();
+        long start = System.currentTimeMillis();
+        try (GameReader reader = Notation.reader(input); GameWriter writer = Notation.writer(output)) {
+            converter.convert(reader, writer);
+        }
+        double seconds = (System.currentTimeMillis() - start) / 1000.0;
+        System.err.printf("%d games converted, %d skipped in %.1fs%n", converter.getConverted(), converter.getSkipped(), seconds);
+    }
+}
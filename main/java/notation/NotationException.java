@@ -0,0 +1,13 @@
+//NotationException class reports a game that could not be read or written in a
+//notation format; the stream is left at the next game so the caller can go on
+package notation;
+
+import java.io.IOException;
+
+public class NotationException extends IOException {
+    private static final long serialVersionUID = 1L;
+
+    public NotationException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,107 @@
+//PsqReader class reads Piskvork .psq files and dumps of many concatenated ones.
+//a game is a header line "Piskvorky 20x20, 11:11, 0", then one "x,y,time" line per
+//move (1-based, x is the column), ended by "-1", a non-move line or the next header.
+//psq has no player field, black and white alternate starting with black
+package notation;
+
+import logic.Move;
+import storage.GameRecord;
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.Reader;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+public class PsqReader implements GameReader {
+    private static final Pattern HEADER = Pattern.compile("Piskvorky\\s+(\\d+)\\s*x\\s*(\\d+).*");
+
+    private final BufferedReader in;
+    private String pending; //header line already read while finishing the previous game
+    private int lineNumber;
+
+    public PsqReader(Reader in) {
+        this.in = in instanceof BufferedReader ? (BufferedReader) in : new BufferedReader(in);
+    }
+
+    @Override
+    public GameRecord next() throws IOException {
+        String header = pending;
+        pending = null;
+        while (header == null || !header.startsWith("Piskvorky")) {
+            header = readLine();
+            if (header == null) {
+                return null;
+            }
+        }
+        int headerLine = lineNumber;
+
+        //moves until the game ends, the rest of the game's lines are skipped
+        List<Move> moves = new ArrayList<>();
+        String line;
+        while ((line = readLine()) != null) {
+            if (line.startsWith("Piskvorky")) {
+                pending = line;
+                break;
+            }
+            int[] move = parseMove(line);
+            if (move == null) {
+                skipToNextGame();
+                break;
+            }
+            moves.add(new Move(move[1] - 1, move[0] - 1, moves.size() % 2 == 0 ? 1 : 2));
+        }
+
+        Matcher matcher = HEADER.matcher(header);
+        if (!matcher.matches() || !matcher.group(1).equals(matcher.group(2))) {
+            throw new NotationException("line " + headerLine + ": unsupported psq header \"" + header + "\"");
+        }
+        int size;
+        try {
+            size = Integer.parseInt(matcher.group(1));
+        } catch (NumberFormatException e) {
+            throw new NotationException("line " + headerLine + ": bad board size \"" + matcher.group(1) + "\"");
+        }
+        return new GameRecord(size, GameRecord.FREESTYLE, GameRecord.UNFINISHED, moves);
+    }
+
+    //"x,y,time" as {x, y}, or null for "-1" and anything that is not a move
+    private static int[] parseMove(String line) {
+        String[] fields = line.split(",");
+        if (fields.length < 2) {
+            return null;
+        }
+        try {
+            int x = Integer.parseInt(fields[0].trim());
+            int y = Integer.parseInt(fields[1].trim());
+            return new int[]{x, y};
+        } catch (NumberFormatException e) {
+            return null;
+        }
+    }
+
+    private void skipToNextGame() throws IOException {
+        String line;
+        while ((line = readLine()) != null) {
+            if (line.startsWith("Piskvorky")) {
+                pending = line;
+                return;
+            }
+        }
+    }
+
+    private String readLine() throws IOException {
+        String line = in.readLine();
+        if (line != null) {
+            lineNumber++;
+            line = line.trim();
+        }
+        return line;
+    }
+
+    @Override
+    public void close() throws IOException {
+        in.close();
+    }
+}
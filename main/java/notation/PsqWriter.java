@@ -0,0 +1,40 @@
+//PsqWriter class writes games as Piskvork .psq, one after another in the same stream
+package notation;
+
+import logic.Move;
+import storage.GameRecord;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.Writer;
+import java.util.List;
+
+public class PsqWriter implements GameWriter {
+    private final BufferedWriter out;
+
+    public PsqWriter(Writer out) {
+        this.out = out instanceof BufferedWriter ? (BufferedWriter) out : new BufferedWriter(out);
+    }
+
+    @Override
+    public void write(GameRecord record) throws IOException {
+        List<Move> moves = record.getMoves();
+        Notation.requireAlternating(moves, "psq");
+        int size = record.getBoardSize();
+        if (size == 0) {
+            throw new NotationException("psq games need a board of fixed size");
+        }
+        out.write("Piskvorky " + size + "x" + size + ", 11:11, 0");
+        out.newLine();
+        for (Move move : moves) {
+            out.write((move.getCol() + 1) + "," + (move.getRow() + 1) + ",0");
+            out.newLine();
+        }
+        out.write("-1");
+        out.newLine();
+    }
+
+    @Override
+    public void close() throws IOException {
+        out.close();
+    }
+}
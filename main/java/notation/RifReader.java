@@ -0,0 +1,117 @@
+//RifReader class reads the renju.net RIF xml database with a StAX cursor, so only
+//the current <game> element is in memory however large the file is.
+//moves are "h8 i9 ..." on a 15x15 board: column letter a-o, row number 1-15 counted
+//from the bottom; bresult is 1 (black won), 0 (white won) or 0.5 (draw).
+//the database is the Renju federation's, so every game is read as a Renju game
+package notation;
+
+import logic.Move;
+import storage.GameRecord;
+import javax.xml.stream.XMLInputFactory;
+import javax.xml.stream.XMLStreamConstants;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.List;
+
+public class RifReader implements GameReader {
+    public static final int BOARD_SIZE = 15;
+
+    private final InputStream stream;
+    private final XMLStreamReader xml;
+
+    public RifReader(InputStream in) throws IOException {
+        this.stream = in;
+        XMLInputFactory factory = XMLInputFactory.newInstance();
+        factory.setProperty(XMLInputFactory.SUPPORT_DTD, false); //no external entities from downloaded files
+        factory.setProperty(XMLInputFactory.IS_SUPPORTING_EXTERNAL_ENTITIES, false);
+        try {
+            this.xml = factory.createXMLStreamReader(in);
+        } catch (XMLStreamException e) {
+            throw new NotationException("rif: " + e.getMessage());
+        }
+    }
+
+    @Override
+    public GameRecord next() throws IOException {
+        try {
+            //find the next <game>
+            while (true) {
+                if (!xml.hasNext()) {
+                    return null;
+                }
+                if (xml.next() == XMLStreamConstants.START_ELEMENT && xml.getLocalName().equals("game")) {
+                    break;
+                }
+            }
+            String id = xml.getAttributeValue(null, "id");
+            int result = parseResult(xml.getAttributeValue(null, "bresult"));
+
+            //read up to </game>, the move text is the only child we need
+            String moveText = "";
+            int depth = 1;
+            while (depth > 0) {
+                int event = xml.next();
+                if (event == XMLStreamConstants.START_ELEMENT) {
+                    if (depth == 1 && xml.getLocalName().equals("move")) {
+                        moveText = xml.getElementText(); //leaves the cursor on </move>
+                    } else {
+                        depth++;
+                    }
+                } else if (event == XMLStreamConstants.END_ELEMENT) {
+                    depth--;
+                }
+            }
+            return new GameRecord(BOARD_SIZE, GameRecord.RENJU, result, parseMoves(moveText, id));
+        } catch (XMLStreamException e) {
+            throw new IOException("rif: " + e.getMessage(), e); //broken xml ends the stream, not just the game
+        }
+    }
+
+    private static List<Move> parseMoves(String text, String id) throws NotationException {
+        List<Move> moves = new ArrayList<>();
+        for (String token : text.trim().split("\\s+")) {
+            if (token.isEmpty()) {
+                continue;
+            }
+            int col = Character.toLowerCase(token.charAt(0)) - 'a';
+            int number;
+            try {
+                number = Integer.parseInt(token.substring(1));
+            } catch (NumberFormatException e) {
+                throw new NotationException("game " + id + ": bad move \"" + token + "\"");
+            }
+            moves.add(new Move(BOARD_SIZE - number, col, moves.size() % 2 == 0 ? 1 : 2));
+        }
+        return moves;
+    }
+
+    private static int parseResult(String bresult) {
+        if (bresult == null) {
+            return GameRecord.UNFINISHED;
+        }
+        switch (bresult.trim()) {
+            case "1":
+                return GameRecord.BLACK_WINS;
+            case "0":
+                return GameRecord.WHITE_WINS;
+            case "0.5":
+                return GameRecord.DRAW;
+            default:
+                return GameRecord.UNFINISHED;
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        try {
+            xml.close();
+        } catch (XMLStreamException e) {
+            throw new NotationException("rif: " + e.getMessage());
+        } finally {
+            stream.close();
+        }
+    }
+}
@@ -0,0 +1,98 @@
+//RifWriter class writes games as a renju.net style RIF database, streamed with StAX;
+//the closing tags are written by close(). RIF has no field for the rules and RifReader
+//reads every game as Renju, so games under other rules are refused
+package notation;
+
+import logic.Move;
+import storage.GameRecord;
+import javax.xml.stream.XMLOutputFactory;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.List;
+
+public class RifWriter implements GameWriter {
+    private final OutputStream stream;
+    private final XMLStreamWriter xml;
+    private final StringBuilder moveText = new StringBuilder();
+    private int nextId = 1;
+
+    public RifWriter(OutputStream out) throws IOException {
+        this.stream = out;
+        try {
+            this.xml = XMLOutputFactory.newInstance().createXMLStreamWriter(out, "UTF-8");
+            xml.writeStartDocument("UTF-8", "1.0");
+            xml.writeCharacters("\n");
+            xml.writeStartElement("database");
+            xml.writeCharacters("\n");
+            xml.writeStartElement("games");
+            xml.writeCharacters("\n");
+        } catch (XMLStreamException e) {
+            throw new NotationException("rif: " + e.getMessage());
+        }
+    }
+
+    @Override
+    public void write(GameRecord record) throws IOException {
+        if (record.getBoardSize() != RifReader.BOARD_SIZE) {
+            throw new NotationException("rif games are 15x15, not " + record.getBoardSize());
+        }
+        if (record.getRuleSet() != GameRecord.RENJU) {
+            throw new NotationException("rif games are renju games, not rule set " + record.getRuleSet());
+        }
+        List<Move> moves = record.getMoves();
+        Notation.requireAlternating(moves, "rif");
+
+        moveText.setLength(0);
+        for (Move move : moves) {
+            if (moveText.length() > 0) {
+                moveText.append(' ');
+            }
+            moveText.append((char) ('a' + move.getCol())).append(RifReader.BOARD_SIZE - move.getRow());
+        }
+        try {
+            xml.writeStartElement("game");
+            xml.writeAttribute("id", Integer.toString(nextId++));
+            String bresult = resultText(record.getResult());
+            if (bresult != null) {
+                xml.writeAttribute("bresult", bresult);
+            }
+            xml.writeStartElement("move");
+            xml.writeCharacters(moveText.toString());
+            xml.writeEndElement();
+            xml.writeEndElement();
+            xml.writeCharacters("\n");
+        } catch (XMLStreamException e) {
+            throw new NotationException("rif: " + e.getMessage());
+        }
+    }
+
+    private static String resultText(int result) {
+        switch (result) {
+            case GameRecord.BLACK_WINS:
+                return "1";
+            case GameRecord.WHITE_WINS:
+                return "0";
+            case GameRecord.DRAW:
+                return "0.5";
+            default:
+                return null;
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        try {
+            xml.writeEndElement(); //games
+            xml.writeCharacters("\n");
+            xml.writeEndElement(); //database
+            xml.writeEndDocument();
+            xml.close();
+        } catch (XMLStreamException e) {
+            throw new NotationException("rif: " + e.getMessage());
+        } finally {
+            stream.close();
+        }
+    }
+}
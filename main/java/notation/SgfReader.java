@@ -0,0 +1,172 @@
+//SgfReader class reads Gomoku SGF (GM[4]) collections one game tree at a time.
+//only the main line is kept: the first variation is followed and the others are
+//skipped while scanning, so nothing but the current game's moves is held in memory.
+//coordinates are two letters, column then row, "aa" being the top-left corner
+package notation;
+
+import logic.Move;
+import storage.GameRecord;
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.Reader;
+import java.util.ArrayList;
+import java.util.List;
+
+public class SgfReader implements GameReader {
+    private static final int DEFAULT_SIZE = 15;
+
+    private final Reader in;
+    private final StringBuilder ident = new StringBuilder();
+    private final StringBuilder value = new StringBuilder();
+    private long offset; //characters read, for error messages
+
+    public SgfReader(Reader in) {
+        this.in = in instanceof BufferedReader ? in : new BufferedReader(in);
+    }
+
+    @Override
+    public GameRecord next() throws IOException {
+        int c;
+        do {
+            c = read();
+            if (c < 0) {
+                return null;
+            }
+        } while (c != '(');
+        long start = offset;
+
+        int size = DEFAULT_SIZE;
+        int result = GameRecord.UNFINISHED;
+        String error = null;
+        List<Move> moves = new ArrayList<>();
+        int depth = 1;
+        boolean mainLineDone = false; //set once the first variation closes, the rest is skipped
+
+        c = read();
+        while (depth > 0) {
+            if (c < 0) {
+                throw new NotationException("game at character " + start + " is cut short");
+            } else if (c == '(') {
+                depth++;
+                c = read();
+            } else if (c == ')') {
+                depth--;
+                mainLineDone = true;
+                if (depth > 0) {
+                    c = read(); //the character after the game's last ')' belongs to the next game
+                }
+            } else if (c == '[') {
+                c = readValue(); //value without an identifier, ignored
+            } else if (c >= 'A' && c <= 'Z') {
+                ident.setLength(0);
+                while (c >= 'A' && c <= 'Z') {
+                    ident.append((char) c);
+                    c = read();
+                }
+                c = skipSpace(c);
+                while (c == '[') {
+                    c = readValue();
+                    if (mainLineDone || error != null) {
+                        c = skipSpace(c);
+                        continue;
+                    }
+                    String name = ident.toString();
+                    if (name.equals("SZ")) {
+                        try {
+                            size = parseSize(value.toString().trim());
+                        } catch (NotationException e) {
+                            error = e.getMessage(); //thrown once the tree is read to its end
+                        }
+                    } else if (name.equals("GM") && !value.toString().trim().equals("4")) {
+                        error = "not a gomoku game (GM[" + value + "])";
+                    } else if (name.equals("RE")) {
+                        result = parseResult(value.toString().trim());
+                    } else if (name.equals("B") || name.equals("W")) {
+                        String point = value.toString().trim();
+                        if (point.length() == 2 && !point.equals("tt")) { //empty or "tt" is a pass
+                            moves.add(new Move(point.charAt(1) - 'a', point.charAt(0) - 'a', name.equals("B") ? 1 : 2));
+                        } else if (!point.isEmpty() && !point.equals("tt")) {
+                            error = "bad point \"" + point + "\"";
+                        }
+                    } else if (name.equals("AB") || name.equals("AW") || name.equals("AE")) {
+                        error = "setup stones are not supported";
+                    }
+                    c = skipSpace(c);
+                }
+            } else {
+                c = read(); //';', whitespace or lower-case letters of old-style identifiers
+            }
+        }
+
+        if (error != null) {
+            throw new NotationException("game at character " + start + ": " + error);
+        }
+        return new GameRecord(size, GameRecord.FREESTYLE, result, moves);
+    }
+
+    private static int parseSize(String text) throws NotationException {
+        int split = text.indexOf(':'); //SZ[w:h] for rectangular boards
+        if (split >= 0) {
+            if (!text.substring(0, split).equals(text.substring(split + 1))) {
+                throw new NotationException("board " + text + " is not square");
+            }
+            text = text.substring(0, split);
+        }
+        try {
+            return Integer.parseInt(text);
+        } catch (NumberFormatException e) {
+            throw new NotationException("bad board size \"" + text + "\"");
+        }
+    }
+
+    //"B+...", "W+...", "0" or "Draw"
+    private static int parseResult(String text) {
+        if (text.startsWith("B+")) {
+            return GameRecord.BLACK_WINS;
+        } else if (text.startsWith("W+")) {
+            return GameRecord.WHITE_WINS;
+        } else if (text.equals("0") || text.equalsIgnoreCase("Draw")) {
+            return GameRecord.DRAW;
+        }
+        return GameRecord.UNFINISHED;
+    }
+
+    //value after '[' into the value buffer, returns the character after ']'
+    private int readValue() throws IOException {
+        value.setLength(0);
+        int c = read();
+        while (c != ']') {
+            if (c < 0) {
+                throw new NotationException("unterminated value at character " + offset);
+            }
+            if (c == '\\') {
+                c = read(); //escaped character
+                if (c < 0) {
+                    continue;
+                }
+            }
+            if (value.length() < 256) { //long comments are dropped, only short values are used
+                value.append((char) c);
+            }
+            c = read();
+        }
+        return read();
+    }
+
+    private int skipSpace(int c) throws IOException {
+        while (c == ' ' || c == '\n' || c == '\r' || c == '\t') {
+            c = read();
+        }
+        return c;
+    }
+
+    private int read() throws IOException {
+        offset++;
+        return in.read();
+    }
+
+    @Override
+    public void close() throws IOException {
+        in.close();
+    }
+}
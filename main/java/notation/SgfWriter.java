@@ -0,0 +1,57 @@
+//SgfWriter class writes games as a Gomoku SGF (GM[4]) collection, one game tree per line
+package notation;
+
+import logic.Move;
+import storage.GameRecord;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.Writer;
+
+public class SgfWriter implements GameWriter {
+    private final BufferedWriter out;
+
+    public SgfWriter(Writer out) {
+        this.out = out instanceof BufferedWriter ? (BufferedWriter) out : new BufferedWriter(out);
+    }
+
+    @Override
+    public void write(GameRecord record) throws IOException {
+        if (record.getBoardSize() == 0) {
+            throw new NotationException("sgf games need a board of fixed size");
+        }
+        if (record.getBoardSize() > 26) {
+            throw new NotationException("sgf points cannot address a " + record.getBoardSize() + " board");
+        }
+        out.write("(;GM[4]FF[4]SZ[" + record.getBoardSize() + "]");
+        String result = resultText(record.getResult());
+        if (result != null) {
+            out.write("RE[" + result + "]");
+        }
+        for (Move move : record.getMoves()) {
+            out.write(move.getPlayer() == 1 ? ";B[" : ";W[");
+            out.write('a' + move.getCol());
+            out.write('a' + move.getRow());
+            out.write(']');
+        }
+        out.write(')');
+        out.newLine();
+    }
+
+    private static String resultText(int result) {
+        switch (result) {
+            case GameRecord.BLACK_WINS:
+                return "B+";
+            case GameRecord.WHITE_WINS:
+                return "W+";
+            case GameRecord.DRAW:
+                return "0";
+            default:
+                return null;
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        out.close();
+    }
+}
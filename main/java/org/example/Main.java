@@ -1,17 +1,85 @@
+//Main class is the headless entry point: it runs an engine-vs-engine tournament
+//without JavaFX and streams one CSV line per finished game to stdout
+//usage: java org.example.Main --games=1000 --threads=8 --size=15 --time=10000 --inc=100
+//       [--black-depth=N] [--white-depth=N] [--opening=2] [--archive=games.gmk] [--book=gomoku.book]
+//       [--rules=freestyle|standard|renju] [--byoyomi=0] [--periods=0] (clock in milliseconds)
 package org.example;
 
-//TIP To <b>Run</b> code, press <shortcut actionId="Run"/> or
-// click the <icon src="AllIcons.Actions.Execute"/> icon in the gutter.
+import ai.OpeningBook;
+import rules.Rules;
+import runner.MatchResult;
+import runner.TimeControl;
+import runner.Tournament;
+import storage.GameArchive;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Paths;
+import java.util.HashMap;
+import java.util.Map;
+
 public class Main {
-    public static void main(String[] args) {
-        //TIP Press <shortcut actionId="ShowIntentionActions"/> with your caret at the highlighted text
-        // to see how IntelliJ IDEA suggests fixing it.
-        System.out.printf("Hello and welcome!");
-
-        for (int i = 1; i <= 5; i++) {
-            //TIP Press <shortcut actionId="Debug"/> to start debugging your code. We have set one <icon src="AllIcons.Debugger.Db_set_breakpoint"/> breakpoint
-            // for you, but you can always add more by pressing <shortcut actionId="ToggleLineBreakpoint"/>.
-            System.out.println("i = " + i);
+    public static void main(String[] args) throws InterruptedException, IOException {
+        Map<String, String> options = new HashMap<>();
+        for (String arg : args) {
+            int split = arg.indexOf('=');
+            if (!arg.startsWith("--") || split < 0) {
+                System.err.println("bad option: " + arg);
+                System.exit(2);
+            }
+            options.put(arg.substring(2, split), arg.substring(split + 1));
+        }
+
+        int games = intOption(options, "games", 100);
+        int threads = intOption(options, "threads", Runtime.getRuntime().availableProcessors());
+        int size = intOption(options, "size", 15);
+        TimeControl timeControl = new TimeControl(intOption(options, "time", 10000), intOption(options, "inc", 100),
+                intOption(options, "byoyomi", 0), intOption(options, "periods", 0));
+
+        Tournament tournament = new Tournament(games, threads, size, timeControl);
+        if (options.containsKey("black-depth")) {
+            tournament.setBlackDepth(intOption(options, "black-depth", 0));
+        }
+        if (options.containsKey("white-depth")) {
+            tournament.setWhiteDepth(intOption(options, "white-depth", 0));
+        }
+        tournament.setOpeningMoves(intOption(options, "opening", 2));
+        if (options.containsKey("rules")) {
+            tournament.setRules(Rules.forName(options.get("rules")));
+        }
+        if (options.containsKey("book")) {
+            tournament.setOpeningBook(new OpeningBook(Paths.get(options.get("book"))));
         }
+
+        //every finished game is also appended to the archive if one is given
+        GameArchive archive = options.containsKey("archive") ? new GameArchive(Paths.get(options.get("archive"))) : null;
+
+        //results are printed as games finish, in completion order
+        int[] wins = new int[3]; //[0] = draws, [1] = black, [2] = white
+        long start = System.currentTimeMillis();
+        System.out.println("game,winner,reason,moves,millis");
+        tournament.run(result -> {
+            wins[result.getWinner()]++;
+            System.out.println(result.toCsv());
+            if (archive != null) {
+                try {
+                    archive.append(result.getRecord());
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            }
+        });
+        if (archive != null) {
+            archive.sync();
+            archive.close();
+        }
+
+        double seconds = (System.currentTimeMillis() - start) / 1000.0;
+        System.err.printf("black %d, white %d, draws %d in %.1fs (%.2f games/s)%n",
+                wins[1], wins[2], wins[0], seconds, games / seconds);
+    }
+
+    private static int intOption(Map<String, String> options, String name, int defaultValue) {
+        String value = options.get(name);
+        return value == null ? defaultValue : Integer.parseInt(value);
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,26 @@
+//FreestyleRules class: five or more in a row wins, every empty cell can be played
+package rules;
+
+import logic.GameBoard;
+
+public class FreestyleRules implements RuleSet {
+    @Override
+    public int getId() {
+        return FREESTYLE;
+    }
+
+    @Override
+    public String getName() {
+        return "freestyle";
+    }
+
+    @Override
+    public boolean isWin(GameBoard board, int row, int col, int player) {
+        return board.checkWin(row, col, player);
+    }
+
+    @Override
+    public long winLine(GameBoard board, int row, int col, int player) {
+        return board.findWin(row, col, player);
+    }
+}
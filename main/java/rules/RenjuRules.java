@@ -0,0 +1,37 @@
+//RenjuRules class: black wins with exactly five and may not play a double-three,
+//a double-four or an overline unless the move also makes five; white wins with
+//five or more and has no forbidden moves.
+//this is the one-off check used per game move; the search keeps a RenjuTracker instead
+package rules;
+
+import logic.GameBoard;
+
+public class RenjuRules implements RuleSet {
+    @Override
+    public int getId() {
+        return RENJU;
+    }
+
+    @Override
+    public String getName() {
+        return "renju";
+    }
+
+    @Override
+    public boolean isWin(GameBoard board, int row, int col, int player) {
+        return player == 1 ? Rules.hasExactFive(board, row, col, player) : board.checkWin(row, col, player);
+    }
+
+    @Override
+    public long winLine(GameBoard board, int row, int col, int player) {
+        return player == 1 ? Rules.exactFive(board, row, col, player) : board.findWin(row, col, player);
+    }
+
+    @Override
+    public boolean isForbidden(GameBoard board, int row, int col, int player) {
+        if (player != 1 || !board.isValidPos(row, col) || board.getCell(row, col) != 0) {
+            return false;
+        }
+        return new RenjuTracker(board).isForbidden(row, col);
+    }
+}
@@ -0,0 +1,252 @@
+//RenjuTracker class finds black's forbidden moves under Renju rules with a few table
+//lookups per probe, so the search can filter every node's moves. for each cell and
+//direction it keeps the ten cells around it (five on each side) as a base-3 code
+//(0 empty, 1 black, 2 white or off the board). placing or removing a stone adds or
+//subtracts its digit in the codes of the 40 cells that can see it, and tables built
+//once turn a code into what a black stone there makes in that line: five, overline,
+//how many fours, and which cells would turn a three into a straight four.
+//only a possible double-three needs more work: a three is real only if one of those
+//cells is not forbidden itself, which is checked recursively with the stone in place
+package rules;
+
+import logic.GameBoard;
+
+public class RenjuTracker {
+    private static final int SIDE = 5; //cells looked at on each side of the centre
+    private static final int DIGITS = 2 * SIDE;
+    private static final int CODES = 59049; //3^DIGITS
+    private static final int MAX_DEPTH = 4; //threes nested deeper than this count as real
+    private static final int FIVE = 1;
+    private static final int OVERLINE = 2;
+    private static final int FOUR_SHIFT = 2; //bits 2-3 of a shape: number of fours
+
+    private static final int[] POWER = new int[DIGITS]; //3^digit
+    private static final int[] OFFSET = new int[DIGITS]; //digit -> cells from the centre: -5..-1, 1..5
+    private static final byte[] SHAPES = new byte[CODES];
+    private static final short[] THREE_POINTS = new short[CODES]; //bit = digit of a cell making a straight four
+
+    //horizontal, vertical, diagonal, anti-diagonal
+    private static final int[][] DIRECTIONS = {{0, 1}, {1, 0}, {1, 1}, {1, -1}};
+
+    static {
+        for (int digit = 0, power = 1; digit < DIGITS; digit++, power *= 3) {
+            POWER[digit] = power;
+            OFFSET[digit] = digit < SIDE ? digit - SIDE : digit - SIDE + 1;
+        }
+        int[] line = new int[DIGITS + 1]; //index = offset + SIDE, the centre holds the new black stone
+        for (int code = 0; code < CODES; code++) {
+            for (int digit = 0; digit < DIGITS; digit++) {
+                line[OFFSET[digit] + SIDE] = code / POWER[digit] % 3;
+            }
+            line[SIDE] = 1;
+            SHAPES[code] = (byte) shape(line);
+            if (SHAPES[code] == 0) {
+                THREE_POINTS[code] = (short) threePoints(line);
+            }
+        }
+    }
+
+    private final GameBoard board;
+    private final int size;
+    private final byte[] cells; //0 empty, 1 black, 2 white
+    private final int[][] codes; //[direction][cell]
+
+    public RenjuTracker(GameBoard board) {
+        this.board = board;
+        this.size = board.getBoardSize();
+        if (size == 0) {
+            throw new IllegalArgumentException("renju needs a board of fixed size");
+        }
+        this.cells = new byte[size * size];
+        this.codes = new int[4][size * size];
+        rebuild();
+    }
+
+    //read every stone from the board again
+    public void rebuild() {
+        for (int d = 0; d < 4; d++) {
+            for (int row = 0; row < size; row++) {
+                for (int col = 0; col < size; col++) {
+                    //off-board neighbours block like white stones
+                    int code = 0;
+                    for (int digit = 0; digit < DIGITS; digit++) {
+                        int r = row + OFFSET[digit] * DIRECTIONS[d][0];
+                        int c = col + OFFSET[digit] * DIRECTIONS[d][1];
+                        if (r < 0 || r >= size || c < 0 || c >= size) {
+                            code += 2 * POWER[digit];
+                        }
+                    }
+                    codes[d][row * size + col] = code;
+                }
+            }
+        }
+        for (int row = 0; row < size; row++) {
+            for (int col = 0; col < size; col++) {
+                cells[row * size + col] = 0;
+                int player = board.getCell(row, col);
+                if (player != 0) {
+                    place(row, col, player);
+                }
+            }
+        }
+    }
+
+    //follow a stone placed on the board
+    public void place(int row, int col, int player) {
+        cells[row * size + col] = (byte) player;
+        update(row, col, player);
+    }
+
+    //follow a stone removed from the board
+    public void remove(int row, int col) {
+        int player = cells[row * size + col];
+        cells[row * size + col] = 0;
+        update(row, col, -player);
+    }
+
+    //true if black may not play at the empty cell (row,col)
+    public boolean isForbidden(int row, int col) {
+        return cells[row * size + col] == 0 && forbidden(row, col, MAX_DEPTH);
+    }
+
+    private boolean forbidden(int row, int col, int depth) {
+        int cell = row * size + col;
+        int fours = 0;
+        int threes = 0;
+        boolean overline = false;
+        for (int d = 0; d < 4; d++) {
+            int code = codes[d][cell];
+            int shape = SHAPES[code];
+            if ((shape & FIVE) != 0) {
+                return false; //five wins even if the move is also a double-four or overline
+            }
+            overline |= (shape & OVERLINE) != 0;
+            fours += shape >>> FOUR_SHIFT;
+            if (THREE_POINTS[code] != 0) {
+                threes++;
+            }
+        }
+        if (overline || fours >= 2) {
+            return true;
+        }
+        if (threes < 2) {
+            return false;
+        }
+        if (depth == 0) {
+            return true;
+        }
+
+        //count the threes that can really become a straight four
+        place(row, col, 1);
+        int real = 0;
+        for (int d = 0; d < 4 && real < 2; d++) {
+            int points = THREE_POINTS[codes[d][cell]]; //a cell's own stone is not part of its code
+            while (points != 0) {
+                int digit = Integer.numberOfTrailingZeros(points);
+                points &= points - 1;
+                int r = row + OFFSET[digit] * DIRECTIONS[d][0];
+                int c = col + OFFSET[digit] * DIRECTIONS[d][1];
+                if (!forbidden(r, c, depth - 1)) {
+                    real++;
+                    break;
+                }
+            }
+        }
+        remove(row, col);
+        return real >= 2;
+    }
+
+    //add delta times the stone's digit to the code of every cell that sees (row,col)
+    private void update(int row, int col, int delta) {
+        for (int d = 0; d < 4; d++) {
+            int[] lineCodes = codes[d];
+            for (int digit = 0; digit < DIGITS; digit++) {
+                //the cell OFFSET[digit] steps back sees this stone as that digit
+                int r = row - OFFSET[digit] * DIRECTIONS[d][0];
+                int c = col - OFFSET[digit] * DIRECTIONS[d][1];
+                if (r >= 0 && r < size && c >= 0 && c < size) {
+                    lineCodes[r * size + c] += delta * POWER[digit];
+                }
+            }
+        }
+    }
+
+    //five, overline and four count for black at the centre of line
+    private static int shape(int[] line) {
+        int run = run(line, SIDE);
+        if (run == 5) {
+            return FIVE;
+        }
+        if (run > 5) {
+            return OVERLINE;
+        }
+
+        //a four is an empty cell that makes exactly five with the centre
+        int fours = 0;
+        int first = -1;
+        int last = -1;
+        for (int i = 1; i < DIGITS; i++) {
+            if (line[i] == 0) {
+                line[i] = 1;
+                if (run(line, SIDE) == 5) {
+                    fours++;
+                    if (first < 0) {
+                        first = i;
+                    }
+                    last = i;
+                }
+                line[i] = 0;
+            }
+        }
+        //both ends of one straight four (_XXXX_) are a single four
+        if (fours == 2 && last - first == 5) {
+            fours = 1;
+        }
+        return Math.min(fours, 3) << FOUR_SHIFT;
+    }
+
+    //digits of the empty cells that make a straight four through the centre
+    private static int threePoints(int[] line) {
+        int points = 0;
+        for (int digit = 0; digit < DIGITS; digit++) {
+            int i = OFFSET[digit] + SIDE;
+            if (line[i] == 0 && Math.abs(OFFSET[digit]) <= 3) {
+                line[i] = 1;
+                if (isStraightFour(line)) {
+                    points |= 1 << digit;
+                }
+                line[i] = 0;
+            }
+        }
+        return points;
+    }
+
+    //run of exactly four through the centre, open at both ends, and each end makes exactly five
+    private static boolean isStraightFour(int[] line) {
+        int low = SIDE;
+        while (low > 0 && line[low - 1] == 1) {
+            low--;
+        }
+        int high = SIDE;
+        while (high < DIGITS && line[high + 1] == 1) {
+            high++;
+        }
+        if (high - low != 3 || low < 2 || high > DIGITS - 2) {
+            return false;
+        }
+        return line[low - 1] == 0 && line[high + 1] == 0 && line[low - 2] != 1 && line[high + 2] != 1;
+    }
+
+    //length of the run of black stones through i
+    private static int run(int[] line, int i) {
+        int low = i;
+        while (low > 0 && line[low - 1] == 1) {
+            low--;
+        }
+        int high = i;
+        while (high < DIGITS && line[high + 1] == 1) {
+            high++;
+        }
+        return high - low + 1;
+    }
+}
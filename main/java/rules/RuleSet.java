@@ -0,0 +1,26 @@
+//RuleSet interface is one variant of the game: which fives win and which moves are
+//not allowed. the ids are the rule codes stored in GameRecord; Rules hands out the instances
+package rules;
+
+import logic.GameBoard;
+
+public interface RuleSet {
+    int FREESTYLE = 0; //five or more in a row wins
+    int STANDARD = 1; //exactly five wins, six or more does not
+    int RENJU = 2; //black: exactly five, no double-three, double-four or overline; white: five or more
+
+    int getId();
+
+    String getName();
+
+    //true if the stone player just placed at (row,col) wins the game
+    boolean isWin(GameBoard board, int row, int col, int player);
+
+    //the winning line of that stone (see logic.WinLine), WinLine.NONE if it does not win
+    long winLine(GameBoard board, int row, int col, int player);
+
+    //true if player may not play at the empty cell (row,col)
+    default boolean isForbidden(GameBoard board, int row, int col, int player) {
+        return false;
+    }
+}
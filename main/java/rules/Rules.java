@@ -0,0 +1,54 @@
+//Rules class hands out the shared RuleSet instances by id or name, and has the
+//line checks more than one rule set needs
+package rules;
+
+import logic.GameBoard;
+import logic.WinLine;
+
+public class Rules {
+    public static final RuleSet FREESTYLE = new FreestyleRules();
+    public static final RuleSet STANDARD = new StandardRules();
+    public static final RuleSet RENJU = new RenjuRules();
+
+    private static final RuleSet[] BY_ID = {FREESTYLE, STANDARD, RENJU};
+
+    private Rules() {
+    }
+
+    //rule set for a GameRecord rule code
+    public static RuleSet of(int id) {
+        if (id < 0 || id >= BY_ID.length) {
+            throw new IllegalArgumentException("unknown rules " + id);
+        }
+        return BY_ID[id];
+    }
+
+    //rule set by name ("freestyle", "standard" or "renju"), for command lines
+    public static RuleSet forName(String name) {
+        for (RuleSet rules : BY_ID) {
+            if (rules.getName().equalsIgnoreCase(name)) {
+                return rules;
+            }
+        }
+        throw new IllegalArgumentException("unknown rules " + name);
+    }
+
+    //true if some line through the stone at (row,col) is exactly five long
+    public static boolean hasExactFive(GameBoard board, int row, int col, int player) {
+        return exactFive(board, row, col, player) != WinLine.NONE;
+    }
+
+    //the line through the stone at (row,col) that is exactly five long, WinLine.NONE if none is
+    public static long exactFive(GameBoard board, int row, int col, int player) {
+        if (!board.checkWin(row, col, player)) {
+            return WinLine.NONE; //no five or more anywhere, the common case
+        }
+        for (int direction = 0; direction < 4; direction++) {
+            long line = WinLine.through(board, row, col, player, direction);
+            if (WinLine.length(line) == 5) {
+                return line;
+            }
+        }
+        return WinLine.NONE;
+    }
+}
@@ -0,0 +1,27 @@
+//StandardRules class: exactly five in a row wins for both players, an overline
+//(six or more) is a legal move that wins nothing
+package rules;
+
+import logic.GameBoard;
+
+public class StandardRules implements RuleSet {
+    @Override
+    public int getId() {
+        return STANDARD;
+    }
+
+    @Override
+    public String getName() {
+        return "standard";
+    }
+
+    @Override
+    public boolean isWin(GameBoard board, int row, int col, int player) {
+        return Rules.hasExactFive(board, row, col, player);
+    }
+
+    @Override
+    public long winLine(GameBoard board, int row, int col, int player) {
+        return Rules.exactFive(board, row, col, player);
+    }
+}
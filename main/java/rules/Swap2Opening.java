@@ -0,0 +1,103 @@
+//Swap2Opening class is the Swap2 opening protocol: the first player places three stones
+//(black, white, black), then the second player either takes white, takes black, or
+//places two more stones and leaves the choice of colour to the first player.
+//stones still alternate black/white, so only who plays which colour changes. the phase
+//is worked out from the number of stones on the board plus the choices made, so undo,
+//redo and jumps need nothing more than forget() when a different line is played
+package rules;
+
+public class Swap2Opening {
+    //choices, the colour values match player ids
+    public static final int NONE = 0;
+    public static final int TAKE_BLACK = 1;
+    public static final int TAKE_WHITE = 2;
+    public static final int PLACE_TWO = 3; //second player only
+
+    //phases
+    public static final int PLACE_THREE = 0; //first player places stones 1-3
+    public static final int SECOND_CHOICE = 1; //second player picks after 3 stones
+    public static final int PLACE_TWO_MORE = 2; //second player places stones 4-5
+    public static final int FIRST_CHOICE = 3; //first player picks a colour after 5 stones
+    public static final int PLAY = 4; //normal game
+
+    private int secondChoice = NONE; //made at 3 stones
+    private int firstChoice = NONE; //made at 5 stones, only after PLACE_TWO
+
+    public int getPhase(int stones) {
+        if (stones < 3) {
+            return PLACE_THREE;
+        }
+        if (secondChoice == NONE) {
+            return stones == 3 ? SECOND_CHOICE : PLAY; //a game loaded past the opening
+        }
+        if (secondChoice != PLACE_TWO) {
+            return PLAY;
+        }
+        if (stones < 5) {
+            return PLACE_TWO_MORE;
+        }
+        return firstChoice == NONE && stones == 5 ? FIRST_CHOICE : PLAY;
+    }
+
+    //true while a player has to choose before the next stone
+    public boolean isWaiting(int stones) {
+        int phase = getPhase(stones);
+        return phase == SECOND_CHOICE || phase == FIRST_CHOICE;
+    }
+
+    //record the choice due at this number of stones, false if none is due or it is not allowed
+    public boolean choose(int choice, int stones) {
+        if (stones == 3 && choice >= TAKE_BLACK && choice <= PLACE_TWO) {
+            secondChoice = choice;
+            firstChoice = NONE;
+            return true;
+        }
+        if (stones == 5 && secondChoice == PLACE_TWO && (choice == TAKE_BLACK || choice == TAKE_WHITE)) {
+            firstChoice = choice;
+            return true;
+        }
+        return false;
+    }
+
+    //a stone is being played with only this many on the board: choices made later no longer apply
+    public void forget(int stones) {
+        if (stones < 3) {
+            secondChoice = NONE;
+        }
+        if (stones < 5) {
+            firstChoice = NONE;
+        }
+    }
+
+    public void reset() {
+        secondChoice = NONE;
+        firstChoice = NONE;
+    }
+
+    //seat (1 = first player, 2 = second player) who places the next stone or makes the choice
+    public int seatToMove(int stones, int colourToMove) {
+        switch (getPhase(stones)) {
+            case PLACE_THREE:
+            case FIRST_CHOICE:
+                return 1;
+            case SECOND_CHOICE:
+            case PLACE_TWO_MORE:
+                return 2;
+            default:
+                return colourOf(1) == colourToMove ? 1 : 2;
+        }
+    }
+
+    //colour seat plays once the opening is settled (black for the first player until then)
+    public int colourOf(int seat) {
+        int firstColour;
+        if (secondChoice == TAKE_BLACK || secondChoice == TAKE_WHITE) {
+            firstColour = 3 - secondChoice;
+        } else if (firstChoice != NONE) {
+            firstColour = firstChoice;
+        } else {
+            firstColour = 1;
+        }
+        return seat == 1 ? firstColour : 3 - firstColour;
+    }
+}
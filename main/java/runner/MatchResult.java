@@ -0,0 +1,56 @@
+package runner;
+
+import storage.GameRecord;
+
+//MatchResult class holds the outcome of one headless engine-vs-engine game
+public class MatchResult {
+    public static final String FIVE = "five";
+    public static final String DRAW = "draw";
+    public static final String TIME = "time"; //loser ran out of clock
+    public static final String ILLEGAL = "illegal"; //loser's engine returned an illegal move
+
+    private final int gameId;
+    private final int winner; //1 = black, 2 = white, 0 = draw
+    private final String reason;
+    private final int moves;
+    private final long durationMillis;
+    private final GameRecord record; //moves of the game, for the archive
+
+    public MatchResult(int gameId, int winner, String reason, int moves, long durationMillis, GameRecord record) {
+        this.gameId = gameId;
+        this.winner = winner;
+        this.reason = reason;
+        this.moves = moves;
+        this.durationMillis = durationMillis;
+        this.record = record;
+    }
+
+    public int getGameId() {
+        return gameId;
+    }
+
+    public int getWinner() {
+        return winner;
+    }
+
+    public String getReason() {
+        return reason;
+    }
+
+    public int getMoves() {
+        return moves;
+    }
+
+    public long getDurationMillis() {
+        return durationMillis;
+    }
+
+    public GameRecord getRecord() {
+        return record;
+    }
+
+    //one CSV line: game,winner,reason,moves,millis
+    public String toCsv() {
+        return gameId + "," + winner + "," + reason + "," + moves + "," + durationMillis;
+    }
+}
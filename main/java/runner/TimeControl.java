@@ -0,0 +1,50 @@
+package runner;
+
+//TimeControl class is a per-game clock setting: a time bank per side plus an increment per move
+//(Fischer), optionally followed by byo-yomi: a number of periods of fixed length, where a
+//move made within a period keeps it and running past one uses it up
+public class TimeControl {
+    private static final int MOVES_TO_GO = 20; //spend about 1/20 of the bank on each move
+
+    private final long initialMillis;
+    private final long incrementMillis;
+    private final long periodMillis;
+    private final int periods;
+
+    public TimeControl(long initialMillis, long incrementMillis) {
+        this(initialMillis, incrementMillis, 0, 0);
+    }
+
+    public TimeControl(long initialMillis, long incrementMillis, long periodMillis, int periods) {
+        this.initialMillis = initialMillis;
+        this.incrementMillis = incrementMillis;
+        this.periodMillis = periods > 0 ? periodMillis : 0;
+        this.periods = periodMillis > 0 ? periods : 0;
+    }
+
+    public long getInitialMillis() {
+        return initialMillis;
+    }
+
+    public long getIncrementMillis() {
+        return incrementMillis;
+    }
+
+    //length of one byo-yomi period, 0 for none
+    public long getPeriodMillis() {
+        return periodMillis;
+    }
+
+    public int getPeriods() {
+        return periods;
+    }
+
+    //thinking time to give an engine with mainMillis of main time and periodsLeft byo-yomi periods
+    //left: a share of the main time, or a whole period once the main time is gone
+    public long moveBudget(long mainMillis, int periodsLeft) {
+        if (mainMillis == 0 && periodsLeft > 0) {
+            return periodMillis;
+        }
+        return Math.min(mainMillis, mainMillis / MOVES_TO_GO + incrementMillis);
+    }
+}
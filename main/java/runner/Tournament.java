@@ -0,0 +1,179 @@
+//Tournament class plays engine-vs-engine games headless through GomokuController.
+//Games are scheduled on a fixed thread pool, each with its own clocks, and every
+//result is handed to the sink as soon as that game finishes
+package runner;
+
+import ai.AIPlayer;
+import ai.OpeningBook;
+import ai.SearchEngine;
+import ai.SearchResult;
+import controller.GomokuController;
+import logic.Board;
+import rules.RuleSet;
+import rules.Rules;
+import storage.GameRecord;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+
+public class Tournament {
+    private static final int TABLE_BITS = 16; //1 MB per engine, there are two engines per running game
+    private static final int OPENING_AREA = 5; //opening stones go in the 5x5 square around the centre
+    private static final int OPENING_ATTEMPTS = 1000; //Renju can forbid cells, so give up on a crowded square
+
+    private final int games;
+    private final int threads;
+    private final int boardSize;
+    private final TimeControl timeControl;
+    private int blackDepth = SearchEngine.MAX_DEPTH;
+    private int whiteDepth = SearchEngine.MAX_DEPTH;
+    private int openingMoves = 2; //random moves near the centre so games differ
+    private OpeningBook book; //shared by every engine, null for none
+    private RuleSet rules = Rules.FREESTYLE;
+
+    public Tournament(int games, int threads, int boardSize, TimeControl timeControl) {
+        this.games = games;
+        this.threads = threads;
+        this.boardSize = boardSize;
+        this.timeControl = timeControl;
+    }
+
+    public void setBlackDepth(int blackDepth) {
+        this.blackDepth = blackDepth;
+    }
+
+    public void setWhiteDepth(int whiteDepth) {
+        this.whiteDepth = whiteDepth;
+    }
+
+    public void setOpeningMoves(int openingMoves) {
+        if (openingMoves < 0 || openingMoves > OPENING_AREA * OPENING_AREA) {
+            throw new IllegalArgumentException("opening moves must be 0.." + OPENING_AREA * OPENING_AREA + ": " + openingMoves);
+        }
+        this.openingMoves = openingMoves;
+    }
+
+    public void setOpeningBook(OpeningBook book) {
+        this.book = book;
+    }
+
+    public void setRules(RuleSet rules) {
+        this.rules = rules;
+    }
+
+    //play every game and block until all are done; sink is called once per game, one call at a time.
+    //a game that throws (or whose sink call throws) does not stop the others, but run() then throws
+    public void run(Consumer<MatchResult> sink) throws InterruptedException {
+        ExecutorService pool = Executors.newFixedThreadPool(threads, runnable -> {
+            Thread thread = new Thread(runnable, "gomoku-match");
+            thread.setDaemon(true);
+            return thread;
+        });
+        Object sinkLock = new Object();
+        List<Future<?>> results = new ArrayList<>(games);
+        for (int id = 0; id < games; id++) {
+            int gameId = id;
+            results.add(pool.submit(() -> {
+                MatchResult result = playGame(gameId);
+                synchronized (sinkLock) {
+                    sink.accept(result);
+                }
+            }));
+        }
+        pool.shutdown();
+
+        IllegalStateException failure = null;
+        for (int id = 0; id < games; id++) {
+            try {
+                results.get(id).get();
+            } catch (ExecutionException e) {
+                IllegalStateException error = new IllegalStateException("game " + id + " failed", e.getCause());
+                if (failure == null) {
+                    failure = error;
+                } else {
+                    failure.addSuppressed(error);
+                }
+            }
+        }
+        pool.awaitTermination(Long.MAX_VALUE, TimeUnit.DAYS);
+        if (failure != null) {
+            throw failure;
+        }
+    }
+
+    //play one game to the end
+    public MatchResult playGame(int gameId) {
+        long start = System.currentTimeMillis();
+        Board board = new Board(boardSize);
+        GomokuController controller = new GomokuController(board);
+        controller.setRules(rules);
+        AIPlayer[] engines = {new AIPlayer(blackDepth, 1, TABLE_BITS), new AIPlayer(whiteDepth, 1, TABLE_BITS)};
+        for (AIPlayer engine : engines) {
+            engine.setOpeningBook(book);
+            engine.setRules(rules);
+        }
+        long[] mainLeft = {timeControl.getInitialMillis(), timeControl.getInitialMillis()};
+        int[] periodsLeft = {timeControl.getPeriods(), timeControl.getPeriods()};
+        int moves = playOpening(controller, gameId);
+
+        while (!controller.isGameOver()) {
+            int player = controller.getCurrentPlayer();
+            long main = mainLeft[player - 1];
+            int periods = periodsLeft[player - 1];
+            long moveStart = System.nanoTime();
+            SearchResult move = engines[player - 1].chooseMove(board, player, timeControl.moveBudget(main, periods));
+            long used = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - moveStart);
+
+            //same accounting as clock.GameClock: main time first, then a move made within a
+            //period keeps it and every period run past is used up
+            if (used > main + periods * timeControl.getPeriodMillis()) {
+                return new MatchResult(gameId, 3 - player, MatchResult.TIME, moves, System.currentTimeMillis() - start,
+                        forfeit(controller, 3 - player));
+            }
+            if (used > main) {
+                periodsLeft[player - 1] = periods - (int) ((used - main) / timeControl.getPeriodMillis());
+                main = 0;
+            } else {
+                main -= used;
+            }
+            mainLeft[player - 1] = main + timeControl.getIncrementMillis();
+
+            if (!controller.makeMove(move.getRow(), move.getCol())) {
+                return new MatchResult(gameId, 3 - player, MatchResult.ILLEGAL, moves, System.currentTimeMillis() - start,
+                        forfeit(controller, 3 - player));
+            }
+            moves++;
+        }
+
+        int winner = controller.getWinner();
+        return new MatchResult(gameId, winner, winner == 0 ? MatchResult.DRAW : MatchResult.FIVE,
+                moves, System.currentTimeMillis() - start, GameRecord.of(controller));
+    }
+
+    //record of a game lost on time or by an illegal move, the board alone does not show the winner
+    private GameRecord forfeit(GomokuController controller, int winner) {
+        return new GameRecord(boardSize, rules.getId(), winner, controller.getMoveHistory());
+    }
+
+    //random stones close to the centre, seeded by game id so a run can be repeated; stops early
+    //if a random stone ends the game or no free cell is found in OPENING_ATTEMPTS tries
+    private int playOpening(GomokuController controller, int gameId) {
+        Random random = new Random(gameId);
+        int low = boardSize / 2 - OPENING_AREA / 2;
+        int moves = 0;
+        for (int attempt = 0; attempt < OPENING_ATTEMPTS && moves < openingMoves && !controller.isGameOver(); attempt++) {
+            int row = low + random.nextInt(OPENING_AREA);
+            int col = low + random.nextInt(OPENING_AREA);
+            if (controller.makeMove(row, col)) {
+                moves++;
+            }
+        }
+        return moves;
+    }
+}
@@ -0,0 +1,26 @@
+//Connection class is the server's state for one client socket: a small input
+//buffer for half-received messages, the bytes the socket would not take yet,
+//and the game and colour the client plays. an idle connection costs a few
+//dozen bytes plus the socket, the output buffer only exists while a write is stuck
+package server;
+
+import java.nio.ByteBuffer;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.SocketChannel;
+
+class Connection {
+    private static final int INPUT_SIZE = 64; //a few pipelined messages per read
+
+    final SocketChannel channel;
+    final SelectionKey key;
+    final ByteBuffer input = ByteBuffer.allocate(INPUT_SIZE);
+    ByteBuffer pending; //unsent output in write mode (send() puts, flush() flips, writes and compacts), null when all is sent
+    ServerGame game; //null when not playing
+    int colour; //1 black, 2 white while playing
+    int queue = -1; //matchmaking queue the connection waits in, -1 if none
+
+    Connection(SocketChannel channel, SelectionKey key) {
+        this.channel = channel;
+        this.key = key;
+    }
+}
@@ -0,0 +1,347 @@
+//GameServer class hosts many network games on one thread with non-blocking NIO:
+//a single Selector accepts clients, reads their Protocol messages and answers
+//them, so an idle client costs one socket and a small Connection, not a thread.
+//clients send JOIN with a board size and rules and are paired in order of arrival;
+//every pair plays a ServerGame. a move is parsed, checked by the game's controller
+//and sent to both players within one pass of the loop, with no allocation on the way.
+//each game has a GameClock on one TimingWheel the loop advances every millisecond
+//usage: java server.GameServer [--port=7777] [--report=10]
+//       [--time=300] [--inc=5] [--byoyomi=0] [--periods=0] (clock, in seconds)
+//(holding 10k connections needs the open file limit raised, e.g. ulimit -n 65536)
+package server;
+
+import clock.TimingWheel;
+import logic.SparseBoard;
+import rules.RuleSet;
+import runner.TimeControl;
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.net.StandardSocketOptions;
+import java.nio.ByteBuffer;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.Selector;
+import java.nio.channels.ServerSocketChannel;
+import java.nio.channels.SocketChannel;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+public class GameServer {
+    public static final int DEFAULT_PORT = 7777;
+    private static final int BACKLOG = 4096; //room for bursts of connects
+    private static final int MAX_PENDING = 64 * 1024; //a client further behind than this is dropped
+
+    private final Selector selector;
+    private final ServerSocketChannel listener;
+    private final ByteBuffer message = ByteBuffer.allocateDirect(Protocol.MAX_MESSAGE); //outgoing message being built
+    private final Map<Integer, Connection> waiting = new HashMap<>(); //queue (size << 8 | rules) -> first client
+    private final List<Connection> closing = new ArrayList<>(); //failed connections, closed after the current pass
+    private final TimingWheel wheel = new TimingWheel(); //every game's clock
+    private TimeControl timeControl = new TimeControl(300_000, 5_000);
+    private long reportMillis; //0 = no reports
+    private int nextGameId = 1;
+    private volatile boolean running;
+    private volatile int connections;
+    private volatile int games;
+    private volatile long moves;
+
+    //port 0 picks a free port, see getPort()
+    public GameServer(int port) throws IOException {
+        selector = Selector.open();
+        listener = ServerSocketChannel.open();
+        listener.bind(new InetSocketAddress(port), BACKLOG);
+        listener.configureBlocking(false);
+        listener.register(selector, SelectionKey.OP_ACCEPT);
+    }
+
+    public int getPort() {
+        return listener.socket().getLocalPort();
+    }
+
+    public int getConnectionCount() {
+        return connections;
+    }
+
+    public int getGameCount() {
+        return games;
+    }
+
+    public long getMovesPlayed() {
+        return moves;
+    }
+
+    //clock for games started from now on
+    public void setTimeControl(TimeControl timeControl) {
+        this.timeControl = timeControl;
+    }
+
+    public TimeControl getTimeControl() {
+        return timeControl;
+    }
+
+    TimingWheel getWheel() {
+        return wheel;
+    }
+
+    //print connection, game and move counts to stdout every millis while running
+    public void setReportInterval(long millis) {
+        this.reportMillis = millis;
+    }
+
+    //serve clients on the calling thread until stop() is called
+    public void run() throws IOException {
+        running = true;
+        long nextReport = System.currentTimeMillis() + reportMillis;
+        long lastMoves = 0;
+        try {
+            while (running) {
+                //wake up every tick while clocks are running
+                selector.select(this::handle, wheel.size() > 0 ? 1 : reportMillis);
+                wheel.advance();
+                closeFailed();
+                if (reportMillis > 0 && System.currentTimeMillis() >= nextReport) {
+                    long played = moves;
+                    System.out.println("connections=" + connections + " games=" + games
+                            + " moves/s=" + (played - lastMoves) * 1000 / reportMillis);
+                    lastMoves = played;
+                    nextReport += reportMillis;
+                }
+            }
+        } finally {
+            for (SelectionKey key : selector.keys()) {
+                key.channel().close();
+            }
+            selector.close();
+        }
+    }
+
+    //ask run() to return; safe from any thread
+    public void stop() {
+        running = false;
+        selector.wakeup();
+    }
+
+    //the shared buffer for building one outgoing message, cleared
+    ByteBuffer message() {
+        return message.clear();
+    }
+
+    //send the flipped message to c; what the socket won't take now is kept and sent
+    //when it becomes writable. the message is left as it was, so it can go to another client
+    void send(Connection c, ByteBuffer out) {
+        if (!c.key.isValid()) {
+            return; //closed, or failed earlier in this pass
+        }
+        out.rewind();
+        try {
+            if (c.pending == null) {
+                c.channel.write(out);
+                if (!out.hasRemaining()) {
+                    return;
+                }
+                c.pending = ByteBuffer.allocate(Math.max(256, out.remaining()));
+                c.key.interestOps(SelectionKey.OP_READ | SelectionKey.OP_WRITE);
+            } else if (c.pending.remaining() < out.remaining()) {
+                if (c.pending.capacity() >= MAX_PENDING) {
+                    fail(c);
+                    return;
+                }
+                ByteBuffer larger = ByteBuffer.allocate(c.pending.capacity() * 2);
+                c.pending = larger.put(c.pending.flip());
+            }
+            c.pending.put(out);
+        } catch (IOException e) {
+            fail(c);
+        }
+    }
+
+    void gameEnded(ServerGame game) {
+        games--;
+    }
+
+    private void handle(SelectionKey key) {
+        if (!key.isValid()) {
+            return;
+        }
+        if (key.isAcceptable()) {
+            accept();
+            return;
+        }
+        Connection c = (Connection) key.attachment();
+        try {
+            if (key.isWritable()) {
+                flush(c);
+            }
+            if (key.isValid() && key.isReadable()) {
+                read(c);
+            }
+        } catch (IOException e) {
+            fail(c);
+        }
+    }
+
+    //take every connection that is waiting
+    private void accept() {
+        try {
+            SocketChannel channel;
+            while ((channel = listener.accept()) != null) {
+                channel.configureBlocking(false);
+                channel.setOption(StandardSocketOptions.TCP_NODELAY, true); //one small message per move
+                SelectionKey key = channel.register(selector, SelectionKey.OP_READ);
+                key.attach(new Connection(channel, key));
+                connections++;
+            }
+        } catch (IOException e) {
+            //out of file descriptors or the client gave up, the rest are accepted next pass
+        }
+    }
+
+    private void read(Connection c) throws IOException {
+        if (c.channel.read(c.input) < 0) {
+            fail(c);
+            return;
+        }
+        ByteBuffer input = c.input.flip();
+        int length;
+        while ((length = Protocol.messageLength(input)) > 0) {
+            int end = input.position() + length;
+            dispatch(c, input.get(), input);
+            input.position(end);
+            if (!c.key.isValid()) {
+                return;
+            }
+        }
+        if (length < 0) {
+            fail(c); //not speaking the protocol
+            return;
+        }
+        input.compact();
+    }
+
+    //one complete message; input is positioned at its payload
+    private void dispatch(Connection c, byte type, ByteBuffer input) {
+        switch (type) {
+            case Protocol.JOIN:
+                join(c, input.get() & 0xFF, input.get());
+                break;
+            case Protocol.MOVE:
+                if (c.game == null) {
+                    error(c, Protocol.NOT_PLAYING);
+                } else {
+                    moves++;
+                    c.game.move(c, input.getShort() & 0xFFFF, input.getShort() & 0xFFFF);
+                }
+                break;
+            case Protocol.RESIGN:
+                if (c.game == null) {
+                    error(c, Protocol.NOT_PLAYING);
+                } else {
+                    c.game.resign(c);
+                }
+                break;
+            case Protocol.PING:
+                ByteBuffer out = message();
+                Protocol.pong(out, input.getLong());
+                send(c, out.flip());
+                break;
+            default:
+                fail(c); //server messages are not accepted from clients
+        }
+    }
+
+    //queue c for a game with these settings, or start one with the client already waiting
+    private void join(Connection c, int boardSize, int rules) {
+        boolean sizeOk = boardSize == SparseBoard.UNBOUNDED || (boardSize >= 5 && boardSize <= 20);
+        boolean rulesOk = rules >= RuleSet.FREESTYLE && rules <= RuleSet.RENJU
+                && !(boardSize == SparseBoard.UNBOUNDED && rules == RuleSet.RENJU); //renju needs a fixed size
+        if (c.game != null || c.queue >= 0 || !sizeOk || !rulesOk) {
+            error(c, Protocol.BAD_JOIN);
+            return;
+        }
+        int queue = boardSize << 8 | rules;
+        Connection first = waiting.remove(queue);
+        if (first == null) {
+            waiting.put(queue, c);
+            c.queue = queue;
+            ByteBuffer out = message();
+            Protocol.waiting(out);
+            send(c, out.flip());
+            return;
+        }
+        first.queue = -1;
+        games++;
+        new ServerGame(this, nextGameId++, boardSize, rules, first, c);
+    }
+
+    private void error(Connection c, int code) {
+        ByteBuffer out = message();
+        Protocol.error(out, code);
+        send(c, out.flip());
+    }
+
+    //write the output that was held back
+    private void flush(Connection c) throws IOException {
+        c.channel.write(c.pending.flip());
+        if (c.pending.hasRemaining()) {
+            c.pending.compact();
+            return;
+        }
+        c.pending = null;
+        c.key.interestOps(SelectionKey.OP_READ);
+    }
+
+    //stop serving c now, the socket is closed after the current pass
+    private void fail(Connection c) {
+        if (c.key.isValid()) {
+            c.key.cancel();
+            closing.add(c);
+        }
+    }
+
+    //close failed connections; their games end and their opponents win
+    private void closeFailed() {
+        for (int i = 0; i < closing.size(); i++) {
+            Connection c = closing.get(i);
+            if (c.queue >= 0) {
+                waiting.remove(c.queue, c);
+            }
+            if (c.game != null) {
+                c.game.left(c);
+            }
+            try {
+                c.channel.close();
+            } catch (IOException e) {
+                //nothing left to do with it
+            }
+            connections--;
+        }
+        closing.clear();
+    }
+
+    //clock from --time, --inc, --byoyomi and --periods, all but periods in seconds
+    static TimeControl timeControl(Map<String, String> options) {
+        return new TimeControl(
+                (long) (Double.parseDouble(options.getOrDefault("time", "300")) * 1000),
+                (long) (Double.parseDouble(options.getOrDefault("inc", "5")) * 1000),
+                (long) (Double.parseDouble(options.getOrDefault("byoyomi", "0")) * 1000),
+                Integer.parseInt(options.getOrDefault("periods", "0")));
+    }
+
+    public static void main(String[] args) throws IOException {
+        Map<String, String> options = new HashMap<>();
+        for (String arg : args) {
+            int split = arg.indexOf('=');
+            if (!arg.startsWith("--") || split < 0) {
+                System.err.println("bad option: " + arg);
+                System.exit(2);
+            }
+            options.put(arg.substring(2, split), arg.substring(split + 1));
+        }
+        GameServer server = new GameServer(Integer.parseInt(options.getOrDefault("port", String.valueOf(DEFAULT_PORT))));
+        server.setReportInterval(Integer.parseInt(options.getOrDefault("report", "10")) * 1000L);
+        server.setTimeControl(timeControl(options));
+        System.out.println("listening on port " + server.getPort());
+        server.run();
+    }
+}
@@ -0,0 +1,404 @@
+//LoadClient class drives a GameServer over loopback (or any host) to check it under load:
+//it opens idle connections that never send anything, plus two connections per
+//active game that JOIN and play random legal-looking moves against each other,
+//all from one Selector thread. every move's round trip (MOVE sent until its MOVED
+//comes back) is timed and the percentiles are printed at the end.
+//--think delays every move by up to twice that many milliseconds, on a TimingWheel
+//like the server's clocks, so slow players and timeouts can be tried too
+//usage: java server.LoadClient [--local] [--host=localhost] [--port=7777] [--games=1000]
+//       [--rounds=5] [--idle=0] [--size=15] [--rules=freestyle] [--seed=1] [--think=0]
+//--local starts a server on a free port in this JVM first; it takes GameServer's clock options
+package server;
+
+import clock.Deadline;
+import clock.TimingWheel;
+import logic.SparseBoard;
+import rules.Rules;
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.net.StandardSocketOptions;
+import java.nio.ByteBuffer;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.Selector;
+import java.nio.channels.SocketChannel;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+
+public class LoadClient {
+    private static final int WINDOW = 20; //clients play inside this many rows and columns
+    private static final int MAX_CONNECTING = 512; //connects in flight, more would overflow the server's backlog
+
+    private final InetSocketAddress address;
+    private final int games;
+    private final int rounds;
+    private final int idle;
+    private final int boardSize;
+    private final int rules;
+    private final Random random;
+    private final int think; //average milliseconds before a move, 0 to answer at once
+    private final TimingWheel wheel = new TimingWheel(); //moves waiting for their think time
+    private final ByteBuffer message = ByteBuffer.allocateDirect(Protocol.MAX_MESSAGE);
+    private Selector selector;
+    private int opened; //connections started
+    private int connecting;
+    private int connected;
+    private int activeLeft; //active connections that still have rounds to play
+    private int gamesFinished;
+    private int timeouts;
+    private long movesPlayed;
+    private long[] latencies = new long[1 << 16]; //nanoseconds per round trip
+    private int samples;
+
+    public LoadClient(InetSocketAddress address, int games, int rounds, int idle, int boardSize, int rules, long seed,
+                      int think) {
+        this.address = address;
+        this.games = games;
+        this.rounds = rounds;
+        this.idle = idle;
+        this.boardSize = boardSize;
+        this.rules = rules;
+        this.random = new Random(seed);
+        this.think = think;
+    }
+
+    //connect everything, play every round, then print the report
+    public void run() throws IOException {
+        selector = Selector.open();
+        activeLeft = 2 * games;
+        long start = System.nanoTime();
+        try {
+            while (activeLeft > 0) {
+                openMore();
+                selector.select(this::handle, wheel.size() > 0 ? 1 : 1000);
+                wheel.advance();
+            }
+        } finally {
+            for (SelectionKey key : selector.keys()) {
+                key.channel().close();
+            }
+            selector.close();
+        }
+        report(System.nanoTime() - start);
+    }
+
+    //one client socket and what it knows about its game
+    private class Client {
+        final boolean active; //idle clients only connect
+        final SocketChannel channel;
+        final ByteBuffer input = ByteBuffer.allocate(64);
+        final byte[] cells = new byte[WINDOW * WINDOW]; //stones seen inside the window
+        ByteBuffer pending; //unsent output, null if none
+        int roundsLeft;
+        int colour; //0 while not playing
+        int toMove; //player whose turn it is
+        final Deadline thinking = new Deadline(this::sendMove); //armed while the next move waits
+        int originRow; //board position of the window's top-left cell
+        int originCol;
+        int span; //rows and columns of the window actually on the board
+        long sentAt; //System.nanoTime() when our last move went out, 0 if none is out
+
+        Client(boolean active, SocketChannel channel, int roundsLeft) {
+            this.active = active;
+            this.channel = channel;
+            this.roundsLeft = roundsLeft;
+        }
+
+        private void sendMove() {
+            try {
+                move(this);
+            } catch (IOException e) {
+                throw new IllegalStateException("connection lost: " + e.getMessage(), e);
+            }
+        }
+    }
+
+    //start connects up to the limit in flight, idle clients first
+    private void openMore() throws IOException {
+        while (opened < idle + 2 * games && connecting < MAX_CONNECTING) {
+            SocketChannel channel = SocketChannel.open();
+            channel.configureBlocking(false);
+            channel.setOption(StandardSocketOptions.TCP_NODELAY, true);
+            Client client = new Client(opened >= idle, channel, rounds);
+            if (channel.connect(address)) {
+                channel.register(selector, SelectionKey.OP_READ, client);
+                connectedTo(client);
+            } else {
+                channel.register(selector, SelectionKey.OP_CONNECT, client);
+                connecting++;
+            }
+            opened++;
+        }
+    }
+
+    private void handle(SelectionKey key) {
+        Client client = (Client) key.attachment();
+        try {
+            if (key.isConnectable()) {
+                client.channel.finishConnect();
+                connecting--;
+                key.interestOps(SelectionKey.OP_READ);
+                connectedTo(client);
+                return;
+            }
+            if (key.isWritable()) {
+                client.channel.write(client.pending.flip());
+                if (client.pending.hasRemaining()) {
+                    client.pending.compact();
+                } else {
+                    client.pending = null;
+                    key.interestOps(SelectionKey.OP_READ);
+                }
+            }
+            if (key.isReadable()) {
+                read(key, client);
+            }
+        } catch (IOException e) {
+            throw new IllegalStateException("connection lost: " + e.getMessage(), e);
+        }
+    }
+
+    private void connectedTo(Client client) throws IOException {
+        connected++;
+        if (client.active) {
+            Protocol.join(message.clear(), boardSize, rules);
+            send(client, message.flip());
+        }
+    }
+
+    private void read(SelectionKey key, Client client) throws IOException {
+        if (client.channel.read(client.input) < 0) {
+            throw new IOException("server closed the connection");
+        }
+        ByteBuffer input = client.input.flip();
+        int length;
+        while ((length = Protocol.messageLength(input)) > 0) {
+            int end = input.position() + length;
+            dispatch(key, client, input.get(), input);
+            input.position(end);
+        }
+        if (length < 0) {
+            throw new IOException("bad message type " + input.get(input.position()));
+        }
+        input.compact();
+    }
+
+    private void dispatch(SelectionKey key, Client client, byte type, ByteBuffer input) throws IOException {
+        switch (type) {
+            case Protocol.START:
+                input.getInt(); //game id
+                client.colour = input.get();
+                client.toMove = 1;
+                startGame(client);
+                if (client.colour == 1) {
+                    play(client);
+                }
+                break;
+            case Protocol.MOVED:
+                int row = input.getShort() & 0xFFFF;
+                int col = input.getShort() & 0xFFFF;
+                int player = input.get();
+                client.toMove = 3 - player;
+                mark(client, row, col, player);
+                if (player == client.colour) {
+                    record(System.nanoTime() - client.sentAt);
+                    client.sentAt = 0;
+                    movesPlayed++;
+                } else if (client.colour != 0) {
+                    play(client); //the game may have ended with that move, then the server says NOT_PLAYING
+                }
+                break;
+            case Protocol.REJECTED:
+                mark(client, input.getShort() & 0xFFFF, input.getShort() & 0xFFFF, 3); //never try it again
+                client.sentAt = 0;
+                play(client);
+                break;
+            case Protocol.TIMEOUT:
+                int late = input.get();
+                client.toMove = 3 - late;
+                if (late == client.colour) {
+                    timeouts++; //counted once, by the player who was late
+                    client.sentAt = 0; //that move will be rejected
+                    wheel.cancel(client.thinking);
+                } else if (client.colour != 0) {
+                    play(client);
+                }
+                break;
+            case Protocol.GAME_OVER:
+                client.colour = 0;
+                client.sentAt = 0;
+                wheel.cancel(client.thinking);
+                if (client.active && client.roundsLeft > 0) {
+                    gamesFinished++; //counted by both players, halved in the report
+                    if (--client.roundsLeft > 0) {
+                        Protocol.join(message.clear(), boardSize, rules);
+                        send(client, message.flip());
+                    } else {
+                        activeLeft--;
+                        key.cancel();
+                        client.channel.close();
+                    }
+                }
+                break;
+            case Protocol.ERROR:
+                if (input.get() != Protocol.NOT_PLAYING) {
+                    throw new IOException("server refused the game settings");
+                }
+                break;
+            default:
+                break; //WAITING and PONG need no answer
+        }
+    }
+
+    //the window the clients play in: the whole board if it fits, else WINDOW cells around the centre
+    private void startGame(Client client) {
+        Arrays.fill(client.cells, (byte) 0);
+        client.sentAt = 0;
+        if (boardSize == SparseBoard.UNBOUNDED) {
+            client.span = WINDOW;
+            client.originRow = SparseBoard.CENTER - WINDOW / 2;
+            client.originCol = SparseBoard.CENTER - WINDOW / 2;
+        } else {
+            client.span = Math.min(boardSize, WINDOW);
+            client.originRow = 0;
+            client.originCol = 0;
+        }
+    }
+
+    private void mark(Client client, int row, int col, int player) {
+        int r = row - client.originRow;
+        int c = col - client.originCol;
+        if (r >= 0 && r < client.span && c >= 0 && c < client.span) {
+            client.cells[r * WINDOW + c] = (byte) player;
+        }
+    }
+
+    //move now, or after a random think time
+    private void play(Client client) throws IOException {
+        if (client.sentAt != 0 || client.thinking.isArmed() || client.toMove != client.colour) {
+            return; //one move in flight at a time, and only on our turn
+        }
+        if (think > 0) {
+            wheel.arm(client.thinking, wheel.now() + random.nextInt(2 * think + 1));
+        } else {
+            move(client);
+        }
+    }
+
+    //send a move on a random empty cell of the window
+    private void move(Client client) throws IOException {
+        if (client.colour == 0 || client.toMove != client.colour) {
+            return; //the game ended or the turn passed while thinking
+        }
+        int free = 0;
+        for (int i = 0; i < client.span * WINDOW; i++) {
+            if (i % WINDOW < client.span && client.cells[i] == 0) {
+                free++;
+            }
+        }
+        if (free == 0) {
+            Protocol.resign(message.clear());
+            send(client, message.flip());
+            return;
+        }
+        int pick = random.nextInt(free);
+        for (int i = 0; ; i++) {
+            if (i % WINDOW < client.span && client.cells[i] == 0 && pick-- == 0) {
+                Protocol.move(message.clear(), client.originRow + i / WINDOW, client.originCol + i % WINDOW);
+                client.sentAt = System.nanoTime();
+                send(client, message.flip());
+                return;
+            }
+        }
+    }
+
+    private void send(Client client, ByteBuffer out) throws IOException {
+        if (client.pending == null) {
+            client.channel.write(out);
+            if (!out.hasRemaining()) {
+                return;
+            }
+            client.pending = ByteBuffer.allocate(256);
+            client.channel.keyFor(selector).interestOps(SelectionKey.OP_READ | SelectionKey.OP_WRITE);
+        }
+        client.pending.put(out);
+    }
+
+    private void record(long nanos) {
+        if (samples == latencies.length) {
+            latencies = Arrays.copyOf(latencies, samples * 2);
+        }
+        latencies[samples++] = nanos;
+    }
+
+    private void report(long elapsedNanos) {
+        Arrays.sort(latencies, 0, samples);
+        double seconds = elapsedNanos / 1e9;
+        System.out.println("connections " + connected + " (" + idle + " idle), games " + gamesFinished / 2
+                + ", moves " + movesPlayed + " in " + String.format("%.2f", seconds) + "s ("
+                + Math.round(movesPlayed / seconds) + " moves/s), timeouts " + timeouts);
+        if (samples > 0) {
+            System.out.println("move round trip us: p50=" + micros(0.50) + " p90=" + micros(0.90)
+                    + " p99=" + micros(0.99) + " p99.9=" + micros(0.999) + " max=" + micros(1.0));
+        }
+    }
+
+    private String micros(double quantile) {
+        int index = Math.min(samples - 1, (int) (quantile * samples));
+        return String.format("%.1f", latencies[index] / 1000.0);
+    }
+
+    public static void main(String[] args) throws IOException, InterruptedException {
+        Map<String, String> options = new HashMap<>();
+        for (String arg : args) {
+            if (arg.equals("--local")) {
+                options.put("local", "true");
+                continue;
+            }
+            int split = arg.indexOf('=');
+            if (!arg.startsWith("--") || split < 0) {
+                System.err.println("bad option: " + arg);
+                System.exit(2);
+            }
+            options.put(arg.substring(2, split), arg.substring(split + 1));
+        }
+
+        GameServer server = null;
+        Thread serverThread = null;
+        int port = Integer.parseInt(options.getOrDefault("port", String.valueOf(GameServer.DEFAULT_PORT)));
+        if (options.containsKey("local")) {
+            GameServer local = new GameServer(0);
+            local.setTimeControl(GameServer.timeControl(options));
+            serverThread = new Thread(() -> {
+                try {
+                    local.run();
+                } catch (IOException e) {
+                    e.printStackTrace();
+                }
+            }, "gomoku-server");
+            serverThread.setDaemon(true);
+            serverThread.start();
+            server = local;
+            port = local.getPort();
+        }
+
+        String sizeOption = options.getOrDefault("size", "15");
+        int size = "infinite".equalsIgnoreCase(sizeOption) ? SparseBoard.UNBOUNDED : Integer.parseInt(sizeOption);
+        LoadClient client = new LoadClient(new InetSocketAddress(options.getOrDefault("host", "localhost"), port),
+                Integer.parseInt(options.getOrDefault("games", "1000")),
+                Integer.parseInt(options.getOrDefault("rounds", "5")),
+                Integer.parseInt(options.getOrDefault("idle", "0")),
+                size,
+                Rules.forName(options.getOrDefault("rules", "freestyle")).getId(),
+                Long.parseLong(options.getOrDefault("seed", "1")),
+                Integer.parseInt(options.getOrDefault("think", "0")));
+        client.run();
+
+        if (server != null) {
+            System.out.println("server: " + server.getMovesPlayed() + " moves received");
+            server.stop();
+            serverThread.join();
+        }
+    }
+}
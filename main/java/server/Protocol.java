@@ -0,0 +1,127 @@
+//Protocol class defines the binary messages between GameServer and its clients.
+//every message is one type byte followed by a fixed-size payload for that type
+//(big-endian), so there is no length field and the longest message is 9 bytes.
+//coordinates are unsigned shorts so unbounded boards (size 0) fit too
+package server;
+
+import java.nio.ByteBuffer;
+
+public class Protocol {
+    //client to server
+    public static final byte JOIN = 0x01; //board size (0 = unbounded), rules id
+    public static final byte MOVE = 0x02; //row, col (2 bytes each)
+    public static final byte RESIGN = 0x03;
+    public static final byte PING = 0x04; //8 byte token, echoed back in PONG
+
+    //server to client
+    public static final byte WAITING = 0x41; //queued until an opponent with the same settings joins
+    public static final byte START = 0x42; //game id (4 bytes), your colour, board size, rules id
+    public static final byte MOVED = 0x43; //row, col (2 bytes each), player
+    public static final byte REJECTED = 0x44; //row, col: the move was not legal, still your turn
+    public static final byte GAME_OVER = 0x45; //winner (0 = draw), reason
+    public static final byte PONG = 0x46; //the token from PING
+    public static final byte ERROR = 0x47; //error code; the server keeps the connection open
+    public static final byte TIMEOUT = 0x48; //player ran out of time, the turn passed to the opponent
+
+    //GAME_OVER reasons
+    public static final int FINISHED = 0; //five in a row or full board
+    public static final int RESIGNED = 1;
+    public static final int LEFT = 2; //the loser's connection closed
+
+    //ERROR codes
+    public static final int BAD_JOIN = 1; //unsupported board size or rules, or already playing
+    public static final int NOT_PLAYING = 2; //move or resign outside a game
+
+    public static final int MAX_MESSAGE = 9;
+
+    private Protocol() {
+    }
+
+    //payload bytes after the type byte, -1 for an unknown type
+    public static int payloadLength(byte type) {
+        switch (type) {
+            case JOIN:
+            case GAME_OVER:
+                return 2;
+            case MOVE:
+            case REJECTED:
+                return 4;
+            case RESIGN:
+            case WAITING:
+                return 0;
+            case PING:
+            case PONG:
+                return 8;
+            case START:
+                return 7;
+            case MOVED:
+                return 5;
+            case ERROR:
+            case TIMEOUT:
+                return 1;
+            default:
+                return -1;
+        }
+    }
+
+    //bytes of the first complete message in buffer (between position and limit),
+    //0 if it is not all there yet, -1 if the type is unknown
+    public static int messageLength(ByteBuffer buffer) {
+        if (!buffer.hasRemaining()) {
+            return 0;
+        }
+        int payload = payloadLength(buffer.get(buffer.position()));
+        if (payload < 0) {
+            return -1;
+        }
+        return buffer.remaining() > payload ? payload + 1 : 0;
+    }
+
+    public static void join(ByteBuffer out, int boardSize, int rules) {
+        out.put(JOIN).put((byte) boardSize).put((byte) rules);
+    }
+
+    public static void move(ByteBuffer out, int row, int col) {
+        out.put(MOVE).putShort((short) row).putShort((short) col);
+    }
+
+    public static void resign(ByteBuffer out) {
+        out.put(RESIGN);
+    }
+
+    public static void ping(ByteBuffer out, long token) {
+        out.put(PING).putLong(token);
+    }
+
+    public static void waiting(ByteBuffer out) {
+        out.put(WAITING);
+    }
+
+    public static void start(ByteBuffer out, int gameId, int colour, int boardSize, int rules) {
+        out.put(START).putInt(gameId).put((byte) colour).put((byte) boardSize).put((byte) rules);
+    }
+
+    public static void moved(ByteBuffer out, int row, int col, int player) {
+        out.put(MOVED).putShort((short) row).putShort((short) col).put((byte) player);
+    }
+
+    public static void rejected(ByteBuffer out, int row, int col) {
+        out.put(REJECTED).putShort((short) row).putShort((short) col);
+    }
+
+    public static void gameOver(ByteBuffer out, int winner, int reason) {
+        out.put(GAME_OVER).put((byte) winner).put((byte) reason);
+    }
+
+    public static void pong(ByteBuffer out, long token) {
+        out.put(PONG).putLong(token);
+    }
+
+    public static void error(ByteBuffer out, int code) {
+        out.put(ERROR).put((byte) code);
+    }
+
+    public static void timeout(ByteBuffer out, int player) {
+        out.put(TIMEOUT).put((byte) player);
+    }
+}
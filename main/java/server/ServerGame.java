@@ -0,0 +1,141 @@
+//ServerGame class is one game hosted by GameServer: a GomokuController on its own
+//board plays the moves, and as a GameEventListener it tells both clients what
+//happened. its GameClock sits on the server's timing wheel; a timeout passes the
+//turn through the controller like anywhere else. it only runs on the server's
+//selector thread, so nothing is locked
+package server;
+
+import clock.GameClock;
+import controller.GameEventListener;
+import controller.GomokuController;
+import logic.Board;
+import logic.GameBoard;
+import logic.SparseBoard;
+import rules.Rules;
+import java.nio.ByteBuffer;
+
+class ServerGame implements GameEventListener {
+    private final GameServer server;
+    private final int id;
+    private final GomokuController controller;
+    private final GameClock clock;
+    private Connection black;
+    private Connection white;
+    private Connection mover; //client whose move the controller is handling
+
+    ServerGame(GameServer server, int id, int boardSize, int rules, Connection black, Connection white) {
+        this.server = server;
+        this.id = id;
+        GameBoard board = boardSize == SparseBoard.UNBOUNDED ? new SparseBoard() : new Board(boardSize);
+        this.controller = new GomokuController(board);
+        controller.setRules(Rules.of(rules));
+        controller.addListener(this);
+        //the wheel is advanced on this thread, so the clock's expiry can run right away
+        clock = new GameClock(server.getTimeControl(), server.getWheel(), Runnable::run, player -> timeOut());
+        this.black = black;
+        this.white = white;
+        black.game = this;
+        black.colour = 1;
+        white.game = this;
+        white.colour = 2;
+
+        ByteBuffer out = server.message();
+        Protocol.start(out, id, 1, boardSize, rules);
+        server.send(black, out.flip());
+        out = server.message();
+        Protocol.start(out, id, 2, boardSize, rules);
+        server.send(white, out.flip());
+        clock.start(1);
+    }
+
+    int getId() {
+        return id;
+    }
+
+    //a client asks to play at (row,col)
+    void move(Connection player, int row, int col) {
+        if (player.colour != controller.getCurrentPlayer()) {
+            onInvalidMoveBy(player, row, col);
+            return;
+        }
+        mover = player;
+        controller.makeMove(row, col); //the listener methods answer the clients
+        mover = null;
+    }
+
+    void resign(Connection player) {
+        finish(3 - player.colour, Protocol.RESIGNED);
+    }
+
+    //player's connection is gone, the other one wins
+    void left(Connection player) {
+        finish(3 - player.colour, Protocol.LEFT);
+    }
+
+    @Override
+    public void onMoveApplied(int row, int col, int player) {
+        if (!controller.isGameOver()) {
+            clock.moved();
+        }
+        ByteBuffer out = server.message();
+        Protocol.moved(out, row, col, player);
+        out.flip();
+        server.send(black, out);
+        server.send(white, out);
+    }
+
+    @Override
+    public void onTimeout(int player) {
+        ByteBuffer out = server.message();
+        Protocol.timeout(out, player);
+        out.flip();
+        server.send(black, out);
+        server.send(white, out);
+    }
+
+    @Override
+    public void onInvalidMove(int row, int col) {
+        if (mover != null) {
+            onInvalidMoveBy(mover, row, col);
+        }
+    }
+
+    @Override
+    public void onGameOver(int winner) {
+        finish(winner, Protocol.FINISHED);
+    }
+
+    //the player to move is out of time
+    private void timeOut() {
+        if (black != null && controller.timeOut()) {
+            clock.start(controller.getCurrentPlayer());
+        }
+    }
+
+    private void onInvalidMoveBy(Connection player, int row, int col) {
+        ByteBuffer out = server.message();
+        Protocol.rejected(out, row, col);
+        server.send(player, out.flip());
+    }
+
+    //tell both clients the result and release them, they may join again
+    private void finish(int winner, int reason) {
+        Connection first = black;
+        Connection second = white;
+        black = null;
+        white = null;
+        if (first == null) {
+            return; //already finished
+        }
+        clock.stop();
+        //detach both before sending, a failed send closes its connection
+        first.game = null;
+        second.game = null;
+        ByteBuffer out = server.message();
+        Protocol.gameOver(out, winner, reason);
+        out.flip();
+        server.send(first, out);
+        server.send(second, out);
+        server.gameEnded(this);
+    }
+}
@@ -0,0 +1,176 @@
+//GameArchive class is an append-only store for many games.
+//the data file holds encoded records back to back, and "<file>.idx" holds one
+//8-byte offset per game, so game i is found without reading the games before it.
+//reads go through memory-mapped windows of the data file. when the archive is opened,
+//whole records past the last index entry are indexed again (a crash between the data
+//and index writes, or a single saved game with no index) and a torn tail is cut off
+package storage;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+public class GameArchive implements Closeable {
+    private static final long WINDOW_SIZE = 1L << 26; //64 MB of data mapped at a time
+
+    private final FileChannel data;
+    private final FileChannel index;
+    private long dataSize;
+    private int count;
+    private MappedByteBuffer indexMap; //offsets of the first indexMap.capacity() / 8 games
+    private MappedByteBuffer window; //data bytes from windowStart, null until the first read
+    private long windowStart;
+
+    public GameArchive(Path file) throws IOException {
+        data = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        index = FileChannel.open(file.resolveSibling(file.getFileName() + ".idx"),
+                StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        recover();
+    }
+
+    //drop index entries whose record is missing or cut short, index whole records after
+    //the last good entry, then cut off whatever is left
+    private void recover() throws IOException {
+        long size = data.size();
+        long end = 0;
+        int entries = (int) Math.min(index.size() / 8, Integer.MAX_VALUE);
+        while (entries > 0) {
+            long offset = readLong(index, (entries - 1) * 8L);
+            ByteBuffer header = ByteBuffer.allocate(GameCodec.HEADER_SIZE);
+            if (offset >= 0 && offset + GameCodec.HEADER_SIZE <= size && readFully(data, header, offset)) {
+                try {
+                    int length = GameCodec.recordLength(header, 0);
+                    if (offset + length <= size) {
+                        end = offset + length;
+                        break;
+                    }
+                } catch (IOException e) {
+                    //damaged header, drop the entry
+                }
+            }
+            entries--;
+        }
+        index.truncate(entries * 8L);
+
+        ByteBuffer header = ByteBuffer.allocate(GameCodec.HEADER_SIZE);
+        while (entries < Integer.MAX_VALUE && end + GameCodec.HEADER_SIZE <= size) {
+            header.clear();
+            int length;
+            try {
+                if (!readFully(data, header, end)) {
+                    break;
+                }
+                length = GameCodec.recordLength(header, 0);
+            } catch (IOException e) {
+                break; //not a record, the rest is garbage
+            }
+            if (end + length > size) {
+                break;
+            }
+            ByteBuffer entry = ByteBuffer.allocate(8).putLong(0, end);
+            while (entry.hasRemaining()) {
+                index.write(entry, entries * 8L + entry.position());
+            }
+            entries++;
+            end += length;
+        }
+        data.truncate(end);
+        dataSize = end;
+        count = entries;
+    }
+
+    //number of games in the archive
+    public synchronized int size() {
+        return count;
+    }
+
+    //add a game at the end, returns its index
+    public synchronized int append(GameRecord record) throws IOException {
+        if (count == Integer.MAX_VALUE) {
+            throw new IOException("archive is full");
+        }
+        ByteBuffer bytes = ByteBuffer.wrap(GameCodec.encode(record));
+        long offset = dataSize;
+        while (bytes.hasRemaining()) {
+            data.write(bytes, offset + bytes.position());
+        }
+
+        //the index entry goes last, so after a crash recover() finds either a whole record or a torn tail
+        ByteBuffer entry = ByteBuffer.allocate(8).putLong(0, offset);
+        while (entry.hasRemaining()) {
+            index.write(entry, count * 8L + entry.position());
+        }
+        dataSize = offset + bytes.capacity();
+        return count++;
+    }
+
+    //load game i (0-based) straight from the mapped data, earlier games are never parsed
+    public synchronized GameRecord read(int i) throws IOException {
+        if (i < 0 || i >= count) {
+            throw new IndexOutOfBoundsException("game " + i + " of " + count);
+        }
+        long offset = offsetOf(i);
+        ByteBuffer view = mapped(offset, GameCodec.HEADER_SIZE);
+        int length = GameCodec.recordLength(view, view.position());
+        view = mapped(offset, length);
+        return GameCodec.decode(view);
+    }
+
+    //push appended games to disk
+    public synchronized void sync() throws IOException {
+        data.force(false);
+        index.force(false);
+    }
+
+    @Override
+    public synchronized void close() throws IOException {
+        window = null;
+        indexMap = null;
+        try {
+            data.close();
+        } finally {
+            index.close();
+        }
+    }
+
+    private long offsetOf(int i) throws IOException {
+        if (indexMap == null || indexMap.capacity() < (i + 1) * 8L) {
+            indexMap = index.map(FileChannel.MapMode.READ_ONLY, 0, count * 8L); //remap after appends
+        }
+        return indexMap.getLong(i * 8);
+    }
+
+    //buffer positioned at offset with at least length bytes after it
+    private ByteBuffer mapped(long offset, int length) throws IOException {
+        if (window == null || offset < windowStart || offset + length > windowStart + window.capacity()) {
+            //windows start on WINDOW_SIZE boundaries and overlap by one record, so any record fits in one
+            windowStart = offset / WINDOW_SIZE * WINDOW_SIZE;
+            long mapLength = Math.min(WINDOW_SIZE + GameCodec.MAX_RECORD, dataSize - windowStart);
+            window = data.map(FileChannel.MapMode.READ_ONLY, windowStart, mapLength);
+        }
+        ByteBuffer view = window.duplicate();
+        view.position((int) (offset - windowStart));
+        return view;
+    }
+
+    private static long readLong(FileChannel channel, long position) throws IOException {
+        ByteBuffer buffer = ByteBuffer.allocate(8);
+        if (!readFully(channel, buffer, position)) {
+            throw new IOException("index cut short at byte " + position);
+        }
+        return buffer.getLong(0);
+    }
+
+    private static boolean readFully(FileChannel channel, ByteBuffer buffer, long position) throws IOException {
+        while (buffer.hasRemaining()) {
+            if (channel.read(buffer, position + buffer.position()) < 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+}
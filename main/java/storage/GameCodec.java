@@ -0,0 +1,201 @@
+//GameCodec class turns a GameRecord into bytes and back.
+//layout: magic "GMK", version, board size, rules, result, move count (2 bytes),
+//then one byte per move (row in the high nibble, col in the low one) on boards up
+//to 16x16, or a 2-byte cell index (row * size + col) on bigger boards, or 2-byte row
+//and col on boards with no fixed size (size 0, SparseBoard),
+//then one bit per move telling whether white played it (turns can be skipped on timeout),
+//then for a won game the winning line: start row and col (2 bytes each), direction and
+//length (see logic.WinLine, length 0 when it is not known). version 1 files have no line
+package storage;
+
+import logic.Move;
+import logic.WinLine;
+import logic.SparseBoard;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+public class GameCodec {
+    public static final int HEADER_SIZE = 9;
+    public static final int VERSION = 2;
+    public static final int MAX_MOVES = 0xFFFF;
+    public static final int WIN_LINE_SIZE = 6;
+    public static final int MAX_RECORD = HEADER_SIZE + 4 * MAX_MOVES + (MAX_MOVES + 7) / 8 + WIN_LINE_SIZE;
+    private static final byte[] MAGIC = {'G', 'M', 'K'};
+    private static final int NIBBLE_LIMIT = 16; //biggest board whose row and col fit in one byte
+
+    private GameCodec() {
+    }
+
+    //number of bytes encode() writes for this record
+    public static int encodedSize(GameRecord record) {
+        return encodedSize(VERSION, record.getBoardSize(), record.getResult(), record.getMoves().size());
+    }
+
+    private static int encodedSize(int version, int boardSize, int result, int count) {
+        int length = HEADER_SIZE + count * bytesPerMove(boardSize) + (count + 7) / 8;
+        return hasWinLine(version, result) ? length + WIN_LINE_SIZE : length;
+    }
+
+    private static boolean hasWinLine(int version, int result) {
+        return version >= 2 && (result == GameRecord.BLACK_WINS || result == GameRecord.WHITE_WINS);
+    }
+
+    public static byte[] encode(GameRecord record) {
+        ByteBuffer buffer = ByteBuffer.allocate(encodedSize(record));
+        encode(record, buffer);
+        return buffer.array();
+    }
+
+    //write the record at the buffer's position and advance it
+    public static void encode(GameRecord record, ByteBuffer buffer) {
+        int size = record.getBoardSize();
+        List<Move> moves = record.getMoves();
+        if ((size != SparseBoard.UNBOUNDED && (size < 5 || size > 255)) || moves.size() > MAX_MOVES) {
+            throw new IllegalArgumentException("cannot encode game: size " + size + ", " + moves.size() + " moves");
+        }
+
+        buffer.put(MAGIC);
+        buffer.put((byte) VERSION);
+        buffer.put((byte) size);
+        buffer.put((byte) record.getRules());
+        buffer.put((byte) record.getResult());
+        buffer.putShort((short) moves.size());
+
+        //coordinates
+        for (Move move : moves) {
+            if (size == SparseBoard.UNBOUNDED) {
+                buffer.putShort((short) move.getRow());
+                buffer.putShort((short) move.getCol());
+            } else if (size <= NIBBLE_LIMIT) {
+                buffer.put((byte) (move.getRow() << 4 | move.getCol()));
+            } else {
+                buffer.putShort((short) (move.getRow() * size + move.getCol()));
+            }
+        }
+
+        //players, bit set = white
+        int bits = 0;
+        for (int i = 0; i < moves.size(); i++) {
+            if (moves.get(i).getPlayer() == 2) {
+                bits |= 1 << (i & 7);
+            }
+            if ((i & 7) == 7) {
+                buffer.put((byte) bits);
+                bits = 0;
+            }
+        }
+        if ((moves.size() & 7) != 0) {
+            buffer.put((byte) bits);
+        }
+
+        if (hasWinLine(VERSION, record.getResult())) {
+            long line = record.getWinLine();
+            buffer.putShort((short) WinLine.startRow(line));
+            buffer.putShort((short) WinLine.startCol(line));
+            buffer.put((byte) WinLine.direction(line));
+            buffer.put((byte) WinLine.length(line));
+        }
+    }
+
+    //read the record at the buffer's position and advance past it
+    public static GameRecord decode(ByteBuffer buffer) throws IOException {
+        int start = buffer.position();
+        int length = recordLength(buffer, start);
+        if (buffer.remaining() < length) {
+            throw new IOException("game record cut short at byte " + start);
+        }
+
+        int version = buffer.get(start + 3);
+        int size = buffer.get(start + 4) & 0xFF;
+        int rules = buffer.get(start + 5) & 0xFF;
+        int result = buffer.get(start + 6) & 0xFF;
+        int count = buffer.getShort(start + 7) & 0xFFFF;
+        int coords = start + HEADER_SIZE;
+        int players = coords + count * bytesPerMove(size);
+
+        List<Move> moves = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            int row;
+            int col;
+            if (size == SparseBoard.UNBOUNDED) {
+                row = buffer.getShort(coords + 4 * i) & 0xFFFF;
+                col = buffer.getShort(coords + 4 * i + 2) & 0xFFFF;
+            } else if (size <= NIBBLE_LIMIT) {
+                int packed = buffer.get(coords + i) & 0xFF;
+                row = packed >>> 4;
+                col = packed & 0xF;
+            } else {
+                int cell = buffer.getShort(coords + 2 * i) & 0xFFFF;
+                row = cell / size;
+                col = cell % size;
+            }
+            int player = (buffer.get(players + (i >>> 3)) >>> (i & 7) & 1) == 1 ? 2 : 1;
+            int limit = size == SparseBoard.UNBOUNDED ? SparseBoard.LIMIT : size;
+            if (row >= limit || col >= limit) {
+                throw new IOException("move " + i + " is off the board in record at byte " + start);
+            }
+            moves.add(new Move(row, col, player));
+        }
+
+        long line = WinLine.NONE;
+        if (hasWinLine(version, result)) {
+            int at = players + (count + 7) / 8;
+            line = WinLine.of(buffer.getShort(at) & 0xFFFF, buffer.getShort(at + 2) & 0xFFFF,
+                    buffer.get(at + 4) & 0x3, buffer.get(at + 5) & 0xFF);
+            int last = WinLine.length(line) - 1;
+            if (last < 0) {
+                line = WinLine.NONE;
+            } else if (!onBoard(size, WinLine.rowAt(line, 0), WinLine.colAt(line, 0))
+                    || !onBoard(size, WinLine.rowAt(line, last), WinLine.colAt(line, last))) {
+                throw new IOException("winning line is off the board in record at byte " + start);
+            }
+        }
+        buffer.position(start + length);
+        return new GameRecord(size, rules, result, moves, line);
+    }
+
+    //total length of the record starting at offset, read from its header only
+    public static int recordLength(ByteBuffer buffer, int offset) throws IOException {
+        if (buffer.limit() - offset < HEADER_SIZE) {
+            throw new IOException("game header cut short at byte " + offset);
+        }
+        for (int i = 0; i < MAGIC.length; i++) {
+            if (buffer.get(offset + i) != MAGIC[i]) {
+                throw new IOException("not a game record at byte " + offset);
+            }
+        }
+        int version = buffer.get(offset + 3);
+        if (version < 1 || version > VERSION) {
+            throw new IOException("unsupported game format version " + version);
+        }
+        int size = buffer.get(offset + 4) & 0xFF;
+        int result = buffer.get(offset + 6) & 0xFF;
+        int count = buffer.getShort(offset + 7) & 0xFFFF;
+        return encodedSize(version, size, result, count);
+    }
+
+    //single game file, the same bytes as one archive entry
+    public static void write(GameRecord record, Path file) throws IOException {
+        Files.write(file, encode(record));
+    }
+
+    public static GameRecord read(Path file) throws IOException {
+        return decode(ByteBuffer.wrap(Files.readAllBytes(file)));
+    }
+
+    private static boolean onBoard(int size, int row, int col) {
+        int limit = size == SparseBoard.UNBOUNDED ? SparseBoard.LIMIT : size;
+        return row >= 0 && row < limit && col >= 0 && col < limit;
+    }
+
+    private static int bytesPerMove(int boardSize) {
+        if (boardSize == SparseBoard.UNBOUNDED) {
+            return 4;
+        }
+        return boardSize <= NIBBLE_LIMIT ? 1 : 2;
+    }
+}
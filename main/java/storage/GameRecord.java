@@ -0,0 +1,79 @@
+//GameRecord class is one finished or unfinished game as it is stored on disk:
+//board size, rule set, result and the moves in the order they were played
+package storage;
+
+import controller.GomokuController;
+import logic.Move;
+import logic.WinLine;
+import rules.RuleSet;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+public class GameRecord {
+    //rules: a RuleSet id, plus SWAP2 when the game opened with Swap2
+    public static final int FREESTYLE = RuleSet.FREESTYLE; //five or more in a row wins
+    public static final int STANDARD = RuleSet.STANDARD; //exactly five wins
+    public static final int RENJU = RuleSet.RENJU; //exactly five for black, who has forbidden moves
+    public static final int SWAP2 = 0x10;
+    public static final int RULES_MASK = 0x0F;
+
+    public static final int UNFINISHED = 0;
+    public static final int BLACK_WINS = 1;
+    public static final int WHITE_WINS = 2;
+    public static final int DRAW = 3;
+
+    private final int boardSize;
+    private final int rules;
+    private final int result; //UNFINISHED, BLACK_WINS, WHITE_WINS or DRAW
+    private final List<Move> moves;
+    private final long winLine; //the winner's five as a logic.WinLine, NONE if unknown or no one won
+
+    public GameRecord(int boardSize, int rules, int result, List<Move> moves) {
+        this(boardSize, rules, result, moves, WinLine.NONE);
+    }
+
+    public GameRecord(int boardSize, int rules, int result, List<Move> moves, long winLine) {
+        this.boardSize = boardSize;
+        this.rules = rules;
+        this.result = result;
+        this.moves = Collections.unmodifiableList(new ArrayList<>(moves));
+        this.winLine = winLine;
+    }
+
+    //snapshot of the game a controller is playing
+    public static GameRecord of(GomokuController controller) {
+        int result = UNFINISHED;
+        if (controller.isGameOver()) {
+            result = controller.getWinner() == 0 ? DRAW : controller.getWinner();
+        }
+        int rules = controller.getRules().getId() | (controller.getSwap2() != null ? SWAP2 : 0);
+        return new GameRecord(controller.getBoard().getBoardSize(), rules, result, controller.getMoveHistory(),
+                controller.getWinLine());
+    }
+
+    public int getBoardSize() {
+        return boardSize;
+    }
+
+    public int getRules() {
+        return rules;
+    }
+
+    //the RuleSet id without the opening flag
+    public int getRuleSet() {
+        return rules & RULES_MASK;
+    }
+
+    public int getResult() {
+        return result;
+    }
+
+    public List<Move> getMoves() {
+        return moves;
+    }
+
+    public long getWinLine() {
+        return winLine;
+    }
+}
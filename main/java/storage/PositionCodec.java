@@ -0,0 +1,91 @@
+//PositionCodec class turns a single Board position into bytes and back, for bulk
+//analysis where whole games are not needed. layout: board size, player to move,
+//stone count (2 bytes), then 2 bytes per stone: (row * size + col) << 1, plus 1 for white.
+//decode() fills a board the caller owns, so a worker can reuse one board for every position
+package storage;
+
+import logic.Board;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+
+public class PositionCodec {
+    public static final int HEADER_SIZE = 4;
+    public static final int MAX_SIZE = 20; //largest Board
+
+    private PositionCodec() {
+    }
+
+    //number of bytes encode() writes for a board with this many stones
+    public static int encodedSize(int stones) {
+        return HEADER_SIZE + 2 * stones;
+    }
+
+    public static ByteBuffer encode(Board board, int toMove) {
+        int stones = 0;
+        int size = board.getBoardSize();
+        for (int row = 0; row < size; row++) {
+            for (int col = 0; col < size; col++) {
+                if (board.getCell(row, col) != 0) {
+                    stones++;
+                }
+            }
+        }
+        ByteBuffer buffer = ByteBuffer.allocate(encodedSize(stones));
+        encode(board, toMove, stones, buffer);
+        return buffer.flip();
+    }
+
+    //write the position at the buffer's position and advance it
+    public static void encode(Board board, int toMove, int stones, ByteBuffer buffer) {
+        int size = board.getBoardSize();
+        if (size < 5 || size > MAX_SIZE || (toMove != 1 && toMove != 2)) {
+            throw new IllegalArgumentException("cannot encode position: size " + size + ", player " + toMove);
+        }
+        buffer.put((byte) size);
+        buffer.put((byte) toMove);
+        buffer.putShort((short) stones);
+        for (int row = 0; row < size; row++) {
+            for (int col = 0; col < size; col++) {
+                int player = board.getCell(row, col);
+                if (player != 0) {
+                    buffer.putShort((short) ((row * size + col) << 1 | (player - 1)));
+                }
+            }
+        }
+    }
+
+    //board size of the position at the buffer's position, without moving it
+    public static int peekBoardSize(ByteBuffer buffer) throws IOException {
+        if (buffer.remaining() < HEADER_SIZE) {
+            throw new IOException("truncated position");
+        }
+        int size = buffer.get(buffer.position()) & 0xFF;
+        if (size < 5 || size > MAX_SIZE) {
+            throw new IOException("bad position: size " + size);
+        }
+        return size;
+    }
+
+    //clear board (which must have the position's size) and place the position's stones on it;
+    //returns the player to move and advances the buffer past the position
+    public static int decode(ByteBuffer buffer, Board board) throws IOException {
+        if (buffer.remaining() < HEADER_SIZE) {
+            throw new IOException("truncated position");
+        }
+        int size = buffer.get() & 0xFF;
+        int toMove = buffer.get();
+        int stones = buffer.getShort() & 0xFFFF;
+        if (size != board.getBoardSize() || (toMove != 1 && toMove != 2) || buffer.remaining() < 2 * stones) {
+            throw new IOException("bad position: size " + size + ", player " + toMove + ", " + stones + " stones");
+        }
+        board.clearBoard();
+        for (int i = 0; i < stones; i++) {
+            int stone = buffer.getShort() & 0xFFFF;
+            int cell = stone >>> 1;
+            if (cell >= size * size || !board.placeStone(cell / size, cell % size, (stone & 1) + 1)) {
+                throw new IOException("bad stone in position: cell " + cell);
+            }
+        }
+        return toMove;
+    }
+}
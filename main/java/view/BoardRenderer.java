@@ -0,0 +1,393 @@
+//BoardRenderer class draws the game board on three stacked canvases:
+//a static board layer (background and grid, drawn once per view), a stone layer where
+//only cells that changed are repainted, and a hover overlay for the move
+//preview and invalid-move flashes, so moving the mouse repaints two cells.
+//the canvases show a viewport onto the board: dragging pans it and the scroll
+//wheel zooms around the cursor, which is how an unbounded board (size 0) is
+//explored; only the visible cells are ever read or painted
+package view;
+
+import javafx.animation.KeyFrame;
+import javafx.animation.Timeline;
+import javafx.scene.canvas.Canvas;
+import javafx.scene.canvas.GraphicsContext;
+import javafx.scene.input.MouseEvent;
+import javafx.scene.input.ScrollEvent;
+import javafx.scene.layout.StackPane;
+import javafx.scene.paint.Color;
+import javafx.util.Duration;
+import logic.GameBoard;
+import logic.SparseBoard;
+import logic.WinLine;
+import java.util.Arrays;
+
+public class BoardRenderer extends StackPane {
+    public static final int DEFAULT_CELL_SIZE = 30;
+    public static final int UNBOUNDED_VIEW = 21; //grid lines across the canvas of an unbounded board
+    private static final int BORDER_WIDTH = 20;
+    private static final int BACKGROUND_PADDING = 70;
+    private static final int MARGIN = BORDER_WIDTH + BACKGROUND_PADDING / 2; //canvas edge to the first grid line
+    private static final int MIN_CELL_SIZE = 12;
+    private static final int MAX_CELL_SIZE = 80;
+    private static final double ZOOM_STEP = 1.15;
+
+    private final int boardSize; //0 = unbounded
+    private int cellSize; //pixels between grid lines, changed by zooming
+    private double hoverRadius;
+    private double invalidRadius;
+    private double originRow; //board coordinates of the first grid line, fractional while panning
+    private double originCol;
+    private final Canvas boardLayer;
+    private final Canvas stoneLayer;
+    private final Canvas hoverLayer;
+    private int firstRow; //visible cells, shown[] covers exactly these
+    private int firstCol;
+    private int lastRow;
+    private int lastCol;
+    private int[] shown = new int[0]; //stone currently painted in each visible cell (0 = none)
+    private final StoneSprites sprites = new StoneSprites();
+    private GameBoard lastBoard; //board painted last, repainted when the view moves
+    private int hoverRow = -1; //cell with the hover ring, -1 if none
+    private int hoverCol = -1;
+    private int hintRow = -1; //cell marked by showHint, -1 if none
+    private int hintCol = -1;
+    private double dragX; //mouse position at the last drag event
+    private double dragY;
+
+    //the canvases are sized to fit the board, see canvasSize(); an unbounded
+    //board gets UNBOUNDED_VIEW lines centred on SparseBoard.CENTER
+    public BoardRenderer(int boardSize, int cellSize) {
+        this.boardSize = boardSize;
+        double size = canvasSize(boardSize == 0 ? UNBOUNDED_VIEW : boardSize, cellSize);
+        this.boardLayer = new Canvas(size, size);
+        this.stoneLayer = new Canvas(size, size);
+        this.hoverLayer = new Canvas(size, size);
+        getChildren().addAll(boardLayer, stoneLayer, hoverLayer);
+        setCellSize(cellSize);
+        if (boardSize == 0) {
+            originRow = SparseBoard.CENTER - UNBOUNDED_VIEW / 2;
+            originCol = SparseBoard.CENTER - UNBOUNDED_VIEW / 2;
+        }
+        updateVisible();
+        drawBoard();
+
+        //added as handlers so the game's own mouse handlers stay in place
+        addEventHandler(MouseEvent.MOUSE_PRESSED, e -> {
+            dragX = e.getX();
+            dragY = e.getY();
+        });
+        addEventHandler(MouseEvent.MOUSE_DRAGGED, e -> {
+            pan(e.getX() - dragX, e.getY() - dragY);
+            dragX = e.getX();
+            dragY = e.getY();
+        });
+        addEventHandler(ScrollEvent.SCROLL, e -> {
+            if (e.getDeltaY() != 0) {
+                zoom(e.getDeltaY() > 0 ? ZOOM_STEP : 1 / ZOOM_STEP, e.getX(), e.getY());
+            }
+        });
+    }
+
+    //width and height of a canvas that fits the whole board
+    public static double canvasSize(int boardSize, int cellSize) {
+        return cellSize * (boardSize - 1) + 2 * BORDER_WIDTH + BACKGROUND_PADDING;
+    }
+
+    //draw the board with orange background and grid (static layer)
+    public void drawBoard() {
+        GraphicsContext gc = boardLayer.getGraphicsContext2D();
+        double width = boardLayer.getWidth();
+        double height = boardLayer.getHeight();
+
+        //fill the canvas with black
+        gc.setFill(Color.BLACK);
+        gc.fillRect(0, 0, width, height);
+
+        gc.setStroke(Color.BLACK);
+        gc.setLineWidth(2);
+        if (boardSize == 0) {
+            //no edges: orange everywhere and lines right across
+            gc.setFill(Color.ORANGE);
+            gc.fillRect(0, 0, width, height);
+            for (int row = firstRow; row <= lastRow; row++) {
+                gc.strokeLine(0, centerY(row), width, centerY(row));
+            }
+            for (int col = firstCol; col <= lastCol; col++) {
+                gc.strokeLine(centerX(col), 0, centerX(col), height);
+            }
+            return;
+        }
+
+        //board area
+        double left = centerX(0);
+        double top = centerY(0);
+        double boardLength = cellSize * (boardSize - 1);
+        gc.setFill(Color.ORANGE);
+        gc.fillRect(left - BORDER_WIDTH, top - BORDER_WIDTH, boardLength + 2 * BORDER_WIDTH, boardLength + 2 * BORDER_WIDTH);
+
+        //grid lines
+        for (int i = 0; i < boardSize; i++) {
+            gc.strokeLine(centerX(i), top, centerX(i), top + boardLength);
+            gc.strokeLine(left, centerY(i), left + boardLength, centerY(i));
+        }
+        gc.strokeRect(left, top, boardLength, boardLength);
+    }
+
+    //repaint only the cells whose stone differs from what is on screen
+    public void syncStones(GameBoard board) {
+        lastBoard = board;
+        GraphicsContext gc = stoneLayer.getGraphicsContext2D();
+        int width = lastCol - firstCol + 1;
+        for (int row = firstRow; row <= lastRow; row++) {
+            for (int col = firstCol; col <= lastCol; col++) {
+                int stone = board.getCell(row, col);
+                int cell = (row - firstRow) * width + col - firstCol;
+                if (stone != shown[cell]) {
+                    clearCell(gc, row, col);
+                    if (stone != 0) {
+                        drawStone(gc, row, col, stone, 1.0);
+                    }
+                    shown[cell] = stone;
+                }
+            }
+        }
+    }
+
+    //clear the stone layer and paint every visible stone again
+    public void redrawStones(GameBoard board) {
+        lastBoard = board;
+        GraphicsContext gc = stoneLayer.getGraphicsContext2D();
+        gc.clearRect(0, 0, stoneLayer.getWidth(), stoneLayer.getHeight());
+        int width = lastCol - firstCol + 1;
+        for (int row = firstRow; row <= lastRow; row++) {
+            for (int col = firstCol; col <= lastCol; col++) {
+                int stone = board.getCell(row, col);
+                if (stone != 0) {
+                    drawStone(gc, row, col, stone, 1.0);
+                }
+                shown[(row - firstRow) * width + col - firstCol] = stone;
+            }
+        }
+        drawHint();
+    }
+
+    //draws all stones with opacity (for flicker); redrawStones puts them back
+    public void drawStonesOpacity(GameBoard board, double opacity) {
+        GraphicsContext gc = stoneLayer.getGraphicsContext2D();
+        gc.clearRect(0, 0, stoneLayer.getWidth(), stoneLayer.getHeight());
+        for (int row = firstRow; row <= lastRow; row++) {
+            for (int col = firstCol; col <= lastCol; col++) {
+                int stone = board.getCell(row, col);
+                if (stone != 0) {
+                    drawStone(gc, row, col, stone, opacity);
+                }
+            }
+        }
+    }
+
+    //repaint just the stones of a logic.WinLine with opacity (the win flicker), 1.0 puts them back
+    public void drawLineOpacity(GameBoard board, long winLine, double opacity) {
+        GraphicsContext gc = stoneLayer.getGraphicsContext2D();
+        for (int i = 0; i < WinLine.length(winLine); i++) {
+            int row = WinLine.rowAt(winLine, i);
+            int col = WinLine.colAt(winLine, i);
+            if (isVisible(row, col)) {
+                clearCell(gc, row, col);
+                drawStone(gc, row, col, board.getCell(row, col), opacity);
+            }
+        }
+    }
+
+    //move the view so (row,col) is in the middle of the canvas
+    public void centerOn(int row, int col) {
+        double half = (boardLayer.getWidth() / 2 - MARGIN) / cellSize;
+        originRow = row - half;
+        originCol = col - half;
+        viewChanged();
+    }
+
+    //gold ring on the empty cell (row,col) for a suggested move; it sits on the stone layer,
+    //so the hover ring doesn't wipe it, and stays until clearHint or a stone covers it
+    public void showHint(int row, int col) {
+        clearHint();
+        hintRow = row;
+        hintCol = col;
+        drawHint();
+    }
+
+    public void clearHint() {
+        if (hintRow >= 0) {
+            if (isVisible(hintRow, hintCol) && shown[(hintRow - firstRow) * (lastCol - firstCol + 1) + hintCol - firstCol] == 0) {
+                clearCell(stoneLayer.getGraphicsContext2D(), hintRow, hintCol);
+            }
+            hintRow = -1;
+            hintCol = -1;
+        }
+    }
+
+    private void drawHint() {
+        if (hintRow >= 0 && isVisible(hintRow, hintCol)) {
+            GraphicsContext gc = stoneLayer.getGraphicsContext2D();
+            gc.setStroke(Color.GOLD);
+            gc.setLineWidth(3);
+            gc.strokeOval(centerX(hintCol) - hoverRadius, centerY(hintRow) - hoverRadius, hoverRadius * 2, hoverRadius * 2);
+        }
+    }
+
+    private boolean isVisible(int row, int col) {
+        return row >= firstRow && row <= lastRow && col >= firstCol && col <= lastCol;
+    }
+
+    //semi-transparent ring preview at (row,col), only the old and new cells are repainted
+    public void showHover(int row, int col, int player) {
+        if (row == hoverRow && col == hoverCol) {
+            return;
+        }
+        clearHover();
+        GraphicsContext gc = hoverLayer.getGraphicsContext2D();
+        gc.setStroke(player == 1 ? Color.rgb(0, 0, 0, 0.5) : Color.rgb(255, 255, 255, 0.5));
+        gc.setLineWidth(2);
+        double centerX = centerX(col);
+        double centerY = centerY(row);
+        gc.strokeOval(centerX - hoverRadius, centerY - hoverRadius, hoverRadius * 2, hoverRadius * 2);
+        hoverRow = row;
+        hoverCol = col;
+    }
+
+    public void clearHover() {
+        if (hoverRow >= 0) {
+            clearCell(hoverLayer.getGraphicsContext2D(), hoverRow, hoverCol);
+            hoverRow = -1;
+            hoverCol = -1;
+        }
+    }
+
+    //flashes a red circle at invalid move location on the overlay
+    public void flashInvalid(int row, int col) {
+        final int flashes = 2; //number of flashes
+        final int duration = 100; //milliseconds per flash
+
+        //calculate center of cell
+        double centerX = centerX(col);
+        double centerY = centerY(row);
+        double radius = invalidRadius;
+        double extent = radius + 2; //half size of the square the circle (and its stroke) covers
+
+        Timeline timeline = new Timeline();
+        for (int i = 0; i < flashes; i++) {
+            //flash "on" (draw red circle)
+            KeyFrame showFrame = new KeyFrame(Duration.millis(i * 2 * duration), e -> {
+                GraphicsContext gc = hoverLayer.getGraphicsContext2D();
+                gc.setStroke(Color.RED);
+                gc.setLineWidth(3);
+                gc.strokeOval(centerX - radius, centerY - radius, radius * 2, radius * 2);
+            });
+
+            //flash "off" (clear the circle, the layers below are untouched)
+            KeyFrame hideFrame = new KeyFrame(Duration.millis((i * 2 + 1) * duration), e -> {
+                hoverLayer.getGraphicsContext2D().clearRect(centerX - extent, centerY - extent, extent * 2, extent * 2);
+                hoverRow = -1; //the hover ring may have been wiped too
+                hoverCol = -1;
+            });
+
+            //add both frames to the timeline
+            timeline.getKeyFrames().addAll(showFrame, hideFrame);
+        }
+        timeline.play(); //start animation
+    }
+
+    //intersection nearest to a mouse position, may be off the board
+    public int rowAt(double y) {
+        return (int) Math.round((y - MARGIN) / cellSize + originRow);
+    }
+
+    public int colAt(double x) {
+        return (int) Math.round((x - MARGIN) / cellSize + originCol);
+    }
+
+    //shift the view by a mouse movement in pixels
+    private void pan(double dx, double dy) {
+        originRow -= dy / cellSize;
+        originCol -= dx / cellSize;
+        viewChanged();
+    }
+
+    //scale the cells by factor, keeping the point under (x,y) in place
+    private void zoom(double factor, double x, double y) {
+        int size = (int) Math.round(cellSize * factor);
+        size = Math.max(MIN_CELL_SIZE, Math.min(MAX_CELL_SIZE, size));
+        if (size == cellSize) {
+            return;
+        }
+        double row = (y - MARGIN) / cellSize + originRow;
+        double col = (x - MARGIN) / cellSize + originCol;
+        setCellSize(size);
+        originRow = row - (y - MARGIN) / cellSize;
+        originCol = col - (x - MARGIN) / cellSize;
+        viewChanged();
+    }
+
+    private void setCellSize(int cellSize) {
+        this.cellSize = cellSize;
+        this.hoverRadius = cellSize / 3;
+        this.invalidRadius = cellSize / 2.2 + 5;
+    }
+
+    //redraw every layer after a pan or zoom
+    private void viewChanged() {
+        clampOrigin();
+        updateVisible();
+        hoverLayer.getGraphicsContext2D().clearRect(0, 0, hoverLayer.getWidth(), hoverLayer.getHeight());
+        hoverRow = -1;
+        hoverCol = -1;
+        drawBoard();
+        if (lastBoard != null) {
+            redrawStones(lastBoard);
+        } else {
+            stoneLayer.getGraphicsContext2D().clearRect(0, 0, stoneLayer.getWidth(), stoneLayer.getHeight());
+        }
+    }
+
+    //keep at least one line of the board on screen
+    private void clampOrigin() {
+        int limit = boardSize == 0 ? SparseBoard.LIMIT : boardSize;
+        double across = (boardLayer.getWidth() - 2 * MARGIN) / cellSize; //cells between the first and last line
+        originRow = Math.max(-across, Math.min(limit - 1, originRow));
+        originCol = Math.max(-across, Math.min(limit - 1, originCol));
+    }
+
+    //work out which cells the canvas shows and size shown[] to match
+    private void updateVisible() {
+        int limit = boardSize == 0 ? SparseBoard.LIMIT : boardSize;
+        //cells whose stone reaches into the canvas, half a cell past its edge
+        firstRow = Math.max(0, (int) Math.floor(originRow - (double) MARGIN / cellSize));
+        firstCol = Math.max(0, (int) Math.floor(originCol - (double) MARGIN / cellSize));
+        lastRow = Math.min(limit - 1, (int) Math.ceil(originRow + (boardLayer.getHeight() - MARGIN) / cellSize));
+        lastCol = Math.min(limit - 1, (int) Math.ceil(originCol + (boardLayer.getWidth() - MARGIN) / cellSize));
+        int cells = Math.max(0, lastRow - firstRow + 1) * Math.max(0, lastCol - firstCol + 1);
+        if (shown.length != cells) {
+            shown = new int[cells];
+        } else {
+            Arrays.fill(shown, 0);
+        }
+    }
+
+    private double centerX(int col) {
+        return (col - originCol) * cellSize + MARGIN;
+    }
+
+    private double centerY(int row) {
+        return (row - originRow) * cellSize + MARGIN;
+    }
+
+    //clear the square around one intersection on a transparent layer
+    private void clearCell(GraphicsContext gc, int row, int col) {
+        gc.clearRect(centerX(col) - cellSize / 2.0, centerY(row) - cellSize / 2.0, cellSize, cellSize);
+    }
+
+    //draw a single stone from the pre-rasterized sprite
+    private void drawStone(GraphicsContext gc, int row, int col, int player, double opacity) {
+        int offset = StoneSprites.offset(cellSize);
+        gc.drawImage(sprites.get(player, opacity, cellSize), centerX(col) - offset, centerY(row) - offset);
+    }
+}
@@ -0,0 +1,92 @@
+//FxGameListener class is the JavaFX subscriber of controller events:
+//it updates the status bar and timeline, shows/hides warnings, plays the win animation
+//and tells the game view to ponder again whenever the position changes
+package view;
+
+import controller.GameEventListener;
+import controller.GomokuController;
+import logic.Move;
+
+public class FxGameListener implements GameEventListener {
+    private final GomokuController controller;
+    private final StatusBar statusBar;
+    private final InvalidMove invalidMove;
+    private final GomokuGameFX gameView;
+    private final GameSidebar gameSidebar;
+
+    public FxGameListener(GomokuController controller, StatusBar statusBar, InvalidMove invalidMove,
+                          GomokuGameFX gameView, GameSidebar gameSidebar) {
+        this.controller = controller;
+        this.statusBar = statusBar;
+        this.invalidMove = invalidMove;
+        this.gameView = gameView;
+        this.gameSidebar = gameSidebar;
+    }
+
+    @Override
+    public void onMoveApplied(int row, int col, int player) {
+        invalidMove.hideWarning(); //hide previous warning if any
+        if (!controller.isGameOver()) {
+            statusBar.updateStatus(controller.getCurrentPlayer(), false, 0);
+        }
+        updateTimeline();
+        gameView.positionChanged();
+    }
+
+    @Override
+    public void onUndo(Move move) {
+        statusBar.updateStatus(controller.getCurrentPlayer(), false, 0);
+        updateTimeline();
+        gameView.positionChanged();
+    }
+
+    @Override
+    public void onRedo(Move move) {
+        statusBar.updateStatus(controller.getCurrentPlayer(), false, 0);
+        updateTimeline();
+        gameView.positionChanged();
+    }
+
+    @Override
+    public void onJump(int moveNumber) {
+        invalidMove.hideWarning();
+        statusBar.updateStatus(controller.getCurrentPlayer(), controller.isGameOver(), controller.getWinner());
+        updateTimeline();
+        gameView.positionChanged();
+    }
+
+    @Override
+    public void onSwapChoice(int seat, int choice) {
+        gameView.positionChanged(); //the colours (and so the side to ponder for) may have changed
+    }
+
+    @Override
+    public void onGameOver(int winner) {
+        statusBar.updateStatus(controller.getCurrentPlayer(), true, winner); //show winner or draw
+        gameView.animateWinningStones(); //play win animation
+    }
+
+    @Override
+    public void onTimeout(int player) {
+        invalidMove.showWarning("Time's up! Switching player...");
+        statusBar.updateStatus(controller.getCurrentPlayer(), false, 0);
+        gameView.positionChanged();
+    }
+
+    @Override
+    public void onInvalidMove(int row, int col) {
+        gameView.showInvalidMove(row, col);
+    }
+
+    @Override
+    public void onGameReset() {
+        statusBar.updateStatus(controller.getCurrentPlayer(), false, 0); //reset status bar
+        invalidMove.hideWarning(); //hide any warnings
+        updateTimeline();
+        gameView.positionChanged();
+    }
+
+    private void updateTimeline() {
+        gameSidebar.updateTimeline(controller.getMoveCount(), controller.getLineLength());
+    }
+}
@@ -6,12 +6,14 @@ package view;
 import javafx.geometry.Insets;
 import javafx.scene.control.Button;
 import javafx.scene.control.Label;
+import javafx.scene.control.Slider;
 import javafx.scene.layout.GridPane;
 import javafx.scene.layout.HBox; // Import HBox
 import javafx.scene.layout.VBox;
 import javafx.geometry.Pos;
 import javafx.scene.text.Font;
 import javafx.scene.paint.Color;
+import java.util.function.IntConsumer;
 
 public class GameSidebar extends VBox {
 
@@ -20,6 +22,7 @@ public class GameSidebar extends VBox {
     private Button exitButton;
     private Button saveButton;
     private Button loadButton;
+    private Button cpuButton;
     private Label blackMovesLabel;
     private Label whiteMovesLabel;
     private Label blackMaxLabel;
@@ -33,6 +36,10 @@ public class GameSidebar extends VBox {
 
     private Button undoButton; //button for undo
     private Button redoButton; //button for redo
+    private Button hintButton; //shows the engine's suggestion for the player to move
+    private Slider timeline; //replay slider over the moves of the game
+    private Label timelineLabel;
+    private boolean updatingTimeline = false; //set while the game moves the slider, not the user
 
     public GameSidebar() {
         setPadding(new Insets(20)); //set padding around sidebar
@@ -55,6 +62,7 @@ public class GameSidebar extends VBox {
         exitButton = createStartExitButton("EXIT GAME");
         saveButton = createSaveLoadButton("SAVE");
         loadButton = createSaveLoadButton("LOAD");
+        cpuButton = createStartExitButton("VS CPU: OFF");
 
         //create an HBox to place save and load buttons side by side
         HBox buttonBox = new HBox(10);
@@ -64,7 +72,7 @@ public class GameSidebar extends VBox {
         //create a VBox to add the start and exit buttons, as well as the buttonBox
         VBox buttons = new VBox(10);
         buttons.setAlignment(Pos.CENTER);
-        buttons.getChildren().addAll(resetButton, exitButton, buttonBox);
+        buttons.getChildren().addAll(resetButton, cpuButton, exitButton, buttonBox);
 
         //move tracker section
         GridPane moveTracker = new GridPane();
@@ -109,16 +117,28 @@ public class GameSidebar extends VBox {
         moveTracker.add(blackMaxLabel, 0, 3);
         moveTracker.add(whiteMaxLabel, 1, 3);
 
-        //undo and redo buttons setup
+        //undo, redo and hint buttons setup
         HBox undoRedoBox = new HBox(10);
         undoRedoBox.setAlignment(Pos.CENTER);
 
         undoButton = createUndoRedoButton("<");
         redoButton = createUndoRedoButton(">");
-        undoRedoBox.getChildren().addAll(undoButton, redoButton);
+        hintButton = createUndoRedoButton("?");
+        undoRedoBox.getChildren().addAll(undoButton, redoButton, hintButton);
+
+        //timeline slider to scrub back and forth through the game
+        timeline = new Slider(0, 0, 0);
+        timeline.setBlockIncrement(1);
+        timeline.setMaxWidth(250);
+        timelineLabel = new Label("MOVE 0/0");
+        timelineLabel.setFont(labelFont);
+        timelineLabel.setTextFill(Color.WHITE);
+        VBox timelineBox = new VBox(5);
+        timelineBox.setAlignment(Pos.CENTER);
+        timelineBox.getChildren().addAll(timelineLabel, timeline);
 
         //add elements to sidebar
-        getChildren().addAll(title, buttons, moveTracker, undoRedoBox);
+        getChildren().addAll(title, buttons, moveTracker, undoRedoBox, timelineBox);
 
         //reset button to start new game
         resetButton.setOnAction(e -> startNewGame());
@@ -215,10 +235,46 @@ public class GameSidebar extends VBox {
     }
 
 
+    //show the position on the timeline: move moves of a line of length moves
+    public void updateTimeline(int move, int length) {
+        updatingTimeline = true;
+        timeline.setMax(length);
+        timeline.setValue(move);
+        updatingTimeline = false;
+        timelineLabel.setText("MOVE " + move + "/" + length);
+    }
+
+    //handler gets the move number whenever the user drags or clicks the slider
+    public void setOnTimelineMoved(IntConsumer handler) {
+        timeline.valueProperty().addListener((observable, oldValue, newValue) -> {
+            int move = (int) Math.round(newValue.doubleValue());
+            if (!updatingTimeline && move != (int) Math.round(oldValue.doubleValue())) {
+                handler.accept(move);
+            }
+        });
+    }
+
     public Button getResetButton() {
         return resetButton;
     }
 
+    public Button getCpuButton() {
+        return cpuButton;
+    }
+
+    //show whether the computer opponent is on
+    public void setCpuEnabled(boolean enabled) {
+        cpuButton.setText(enabled ? "VS CPU: ON" : "VS CPU: OFF");
+    }
+
+    public Button getSaveButton() {
+        return saveButton;
+    }
+
+    public Button getLoadButton() {
+        return loadButton;
+    }
+
     public Button getExitButton() {
         return exitButton;
     }
@@ -230,4 +286,8 @@ public class GameSidebar extends VBox {
     public Button getRedoButton() {
         return redoButton;
     }
+
+    public Button getHintButton() {
+        return hintButton;
+    }
 }
\ No newline at end of file
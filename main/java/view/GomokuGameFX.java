@@ -1,10 +1,20 @@
 //GomokuGameFX class implements the core Gomoku game interface
 //with interactive board, player turn management, and animated effects (move visual, time-limited turns, etc.)
+//board size, cell size, rules and opening come from the command line:
+//--size=20 --cell=30 --rules=freestyle|standard|renju --opening=swap2
+//--size=infinite plays on an unbounded board, dragged to pan and scrolled to zoom
+//turn clock in seconds: --time=0 --inc=0 --byoyomi=30 --periods=1 (the default: 30s per move)
 package view;
 
+import ai.AIPlayer;
+import ai.OpeningBook;
+import ai.PonderService;
+import ai.SearchResult;
+import clock.ClockService;
+import clock.Deadline;
+import clock.GameClock;
 import controller.GomokuController;
 import controller.SidebarControl;
-import javafx.animation.Animation;
 import javafx.animation.FadeTransition;
 import javafx.animation.KeyFrame;
 import javafx.application.Application;
@@ -13,34 +23,65 @@ import javafx.scene.Scene;
 import javafx.scene.control.Label;
 import javafx.scene.layout.*;
 import javafx.scene.paint.Color;
-import javafx.scene.canvas.Canvas;
-import javafx.scene.canvas.GraphicsContext;
 import javafx.scene.text.Font;
+import javafx.stage.FileChooser;
 import javafx.stage.Stage;
 import javafx.util.Duration;
 import logic.Board;
+import logic.GameBoard;
+import logic.SparseBoard;
+import logic.WinLine;
+import rules.RuleSet;
+import rules.Rules;
+import rules.Swap2Opening;
+import runner.TimeControl;
+import storage.GameCodec;
+import storage.GameRecord;
 import javafx.geometry.Insets;
 import javafx.animation.Timeline;
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
 
 public class GomokuGameFX extends Application {
-    private static final int CELL_SIZE = 30;
-    private static final int BOARD_SIZE = 20;
-    private static final int BOARD_LENGTH = CELL_SIZE * (BOARD_SIZE - 1);
-    private static final int BORDER_WIDTH = 20;
-    private static final int PIXEL_SIZE = 2;
-    private static final int BACKGROUND_PADDING = 70;
+    private static final int DEFAULT_BOARD_SIZE = 20;
+    private static final int CPU_PLAYER = 2; //the computer plays white
+    private static final long CPU_THINK_MS = 3000; //max thinking time per move
+    private static final String BOOK_FILE = "gomoku.book"; //opening book in the working directory, optional
 
     private GomokuController controller;
-    private Canvas canvas;
-    private double backgroundWidth = 700;
-    private double backgroundHeight = 700;
+    private BoardRenderer renderer;
+    private int boardSize;
     private InvalidMove invalidMove;
     private Label warningLabel;
     private Label currentPlayerLabel;
     private Label timeLabel;
-    private int timeLimit;
-    private Timeline countdown = new Timeline();
+    private static final ClockService CLOCKS = new ClockService("gomoku-clock"); //one timer thread for every clock
+    private TimeControl timeControl;
+    private GameClock gameClock;
+    private final Deadline labelTick = new Deadline(() -> Platform.runLater(this::updateTimeLabel));
     private boolean isFirstMove = true;
+    private GameBoard board;
+    private GameSidebar gameSidebar;
+    private SidebarControl sidebarControl;
+    private final AIPlayer aiPlayer = new AIPlayer();
+    private boolean cpuEnabled = false;
+    private boolean cpuThinking = false;
+    private volatile int cpuRequest = 0; //bumped on reset/undo/redo so stale CPU moves are dropped
+    //one search at a time, so a new CPU move starts only after the stopped one has returned
+    private final ExecutorService cpuThinker = Executors.newSingleThreadExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "gomoku-cpu");
+        thread.setDaemon(true);
+        return thread;
+    });
+    private PonderService ponder; //searches the human's position in the background for the hint button
+    private boolean ponderQueued = false; //a position change is waiting to restart pondering
+    private boolean hintShown = false; //the hint for this position is on the board and follows the search
 
     private Font loadFont(String path, double fontSize) {
         //Load font from resources
@@ -49,11 +90,33 @@ public class GomokuGameFX extends Application {
 
     @Override
     public void start(Stage primaryStage) {
+        //game settings from the command line
+        Map<String, String> options = getParameters().getNamed();
+        boolean unbounded = "infinite".equalsIgnoreCase(options.get("size")) || "0".equals(options.get("size"));
+        boardSize = unbounded ? SparseBoard.UNBOUNDED : intOption(options, "size", DEFAULT_BOARD_SIZE, 5, 20);
+        int cellSize = intOption(options, "cell", BoardRenderer.DEFAULT_CELL_SIZE, 16, 60);
+        RuleSet rules = Rules.FREESTYLE;
+        try {
+            rules = Rules.forName(options.getOrDefault("rules", rules.getName()));
+        } catch (IllegalArgumentException e) {
+            System.err.println(e.getMessage() + ", playing " + rules.getName());
+        }
+        if (unbounded && rules.getId() == RuleSet.RENJU) {
+            System.err.println("renju needs a board of fixed size, playing " + Rules.FREESTYLE.getName());
+            rules = Rules.FREESTYLE;
+        }
+
+        timeControl = new TimeControl(
+                intOption(options, "time", 0, 0, 86400) * 1000L,
+                intOption(options, "inc", 0, 0, 3600) * 1000L,
+                intOption(options, "byoyomi", 30, 0, 3600) * 1000L,
+                intOption(options, "periods", 1, 0, 100));
+
         //create a new game board, sidebar, and controller
-        Board board = new Board(BOARD_SIZE);
+        board = unbounded ? new SparseBoard() : new Board(boardSize);
         StatusBar statusBar = new StatusBar();
-        GameSidebar gameSidebar = new GameSidebar();
-        SidebarControl sidebarControl = new SidebarControl(gameSidebar);
+        gameSidebar = new GameSidebar();
+        sidebarControl = new SidebarControl(gameSidebar);
 
         Font labelFont = loadFont("/fonts/PressStart2P.ttf", 12);
 
@@ -64,7 +127,27 @@ public class GomokuGameFX extends Application {
         warningLabel.setFont(labelFont);
         invalidMove = new InvalidMove(warningLabel);
 
-        controller = new GomokuController(board, statusBar,invalidMove, this);
+        //the computer plays from the opening book when there is one
+        Path bookFile = Paths.get(BOOK_FILE);
+        OpeningBook book = null;
+        if (Files.exists(bookFile)) {
+            try {
+                book = new OpeningBook(bookFile);
+                aiPlayer.setOpeningBook(book);
+            } catch (IOException e) {
+                System.err.println("opening book not loaded: " + e.getMessage());
+            }
+        }
+
+        controller = new GomokuController(board);
+        controller.setRules(rules);
+        controller.setSwap2("swap2".equalsIgnoreCase(options.get("opening")));
+        aiPlayer.setRules(rules);
+        controller.addListener(new FxGameListener(controller, statusBar, invalidMove, this, gameSidebar));
+        gameClock = new GameClock(timeControl, CLOCKS, Platform::runLater, player -> timeOut());
+        ponder = new PonderService(CLOCKS, Platform::runLater, this::ponderUpdate);
+        ponder.setRules(rules);
+        ponder.setOpeningBook(book); //hints agree with the computer's book moves
 
         //label to show current player (BLACK or WHITE)
         currentPlayerLabel = new Label("Current Player: BLACK");
@@ -72,16 +155,16 @@ public class GomokuGameFX extends Application {
         currentPlayerLabel.setFont(labelFont);
 
         //label to show remaining time
-        timeLabel = new Label("Time Limit: 30s");
+        timeLabel = new Label();
         timeLabel.setTextFill(Color.WHITE);
         timeLabel.setFont(labelFont);
+        updateTimeLabel();
 
-        //canvas to draw the board and stones
-        canvas = new Canvas(backgroundWidth, backgroundHeight);
+        //layered canvases to draw the board and stones
+        renderer = new BoardRenderer(boardSize, cellSize);
 
         //set up board visuals
-        drawBoard();
-        drawStones(board);
+        renderer.syncStones(board);
         setupHoverEffect(); //add hover highlight for current move
 
         //main root layout
@@ -97,7 +180,7 @@ public class GomokuGameFX extends Application {
         //combine top labels, board canvas, and warning label
         VBox boardContainer = new VBox();
         boardContainer.setAlignment(javafx.geometry.Pos.CENTER);
-        boardContainer.getChildren().addAll(topRow, canvas, warningLabel);
+        boardContainer.getChildren().addAll(topRow, renderer, warningLabel);
         root.setCenter(boardContainer);
 
         //sidebar for controls such as Undo, Redo, Reset
@@ -110,50 +193,28 @@ public class GomokuGameFX extends Application {
         warningLabel.setAlignment(javafx.geometry.Pos.CENTER);
 
         //handle mouse click to place a stone
-        canvas.setOnMouseClicked(e -> {
-            double x = e.getX() - BORDER_WIDTH - (BACKGROUND_PADDING / 2);
-            double y = e.getY() - BORDER_WIDTH - (BACKGROUND_PADDING / 2);
-
-            int col = (int) Math.round(x / CELL_SIZE);
-            int row = (int) Math.round(y / CELL_SIZE);
-
-            if (controller.makeMove(row, col)) {
-                drawBoard();
-                drawStones(board);
-
-                int blackMoves = controller.getBlackMoves();
-                int whiteMoves = controller.getWhiteMoves();
-                int maxBlackRow = controller.getMaxBlackRow();
-                int maxWhiteRow = controller.getMaxWhiteRow();
-                sidebarControl.updateMoves(blackMoves, whiteMoves);
-                gameSidebar.updateMaxRow(maxBlackRow, maxWhiteRow);
-
-                if (controller.isGameOver()) {
-                    int winner = controller.getWinner();
-                    countdown.stop();
-                } else{
-                    updateCurrentPlayerLabel();
-                    if (isFirstMove) {
-                        isFirstMove = false;
-                        startCountdown();
-                    } else {
-                        countdown.stop();
-                        startCountdown();
-                    }
-                }
-            } else{
-                invalidMoveAnimation(row, col);
-                invalidMove.showWarning("Invalid move!");
+        renderer.setOnMouseClicked(e -> {
+            if (cpuThinking) {
+                return; //wait for the computer to move
+            }
+            if (controller.isAwaitingSwapChoice()) {
+                askSwapChoice(); //after undo or a jump the choice is due again
+                return;
             }
+            if (!e.isStillSincePress()) {
+                return; //the mouse was dragged to pan the board
+            }
+            playMove(renderer.rowAt(e.getY()), renderer.colAt(e.getX()));
         });
 
         //undo button event handler
         gameSidebar.getUndoButton().setOnAction(e -> {
             //revert previous move
+            cancelCpuMove();
             if (controller.undoMove()) {
-                drawBoard();
-                drawStones(board);
+                renderer.syncStones(board);
                 updateCurrentPlayerLabel();
+                followTurn();
 
                 int blackMoves = controller.getBlackMoves();
                 int whiteMoves = controller.getWhiteMoves();
@@ -167,10 +228,11 @@ public class GomokuGameFX extends Application {
         //redo button event handler
         gameSidebar.getRedoButton().setOnAction(e -> {
             //redo previously undone move
+            cancelCpuMove();
             if (controller.redoMove()) {
-                drawBoard();
-                drawStones(board);
+                renderer.syncStones(board);
                 updateCurrentPlayerLabel();
+                followTurn();
 
                 int blackMoves = controller.getBlackMoves();
                 int whiteMoves = controller.getWhiteMoves();
@@ -181,242 +243,405 @@ public class GomokuGameFX extends Application {
             }
         });
 
+        //hint button marks the best move found so far; pondering started when the turn did
+        gameSidebar.getHintButton().setOnAction(e -> showHint());
+
+        //timeline slider jumps to any move of the game for review; playing a move from
+        //an earlier position starts a new line from there
+        gameSidebar.setOnTimelineMoved(move -> {
+            cancelCpuMove();
+            gameClock.stop();
+            if (controller.jumpToMove(move)) {
+                showPosition();
+            }
+        });
+
+        //CPU button toggles the computer opponent for white
+        gameSidebar.getCpuButton().setOnAction(e -> {
+            cpuEnabled = !cpuEnabled;
+            gameSidebar.setCpuEnabled(cpuEnabled);
+            if (cpuEnabled) {
+                requestCpuMove();
+            } else {
+                cancelCpuMove();
+            }
+            positionChanged(); //the computer's turn is no longer pondered, or now is
+        });
+
+        //save button writes the current game to a .gmk file
+        gameSidebar.getSaveButton().setOnAction(e -> {
+            File file = gameFileChooser().showSaveDialog(primaryStage);
+            if (file != null) {
+                try {
+                    GameCodec.write(GameRecord.of(controller), file.toPath());
+                } catch (IOException ex) {
+                    invalidMove.showWarning("Could not save the game!");
+                }
+            }
+        });
+
+        //load button replays a saved game onto the board
+        gameSidebar.getLoadButton().setOnAction(e -> {
+            File file = gameFileChooser().showOpenDialog(primaryStage);
+            if (file != null) {
+                loadGame(file);
+            }
+        });
+
         //exit button closes the game window
         gameSidebar.getExitButton().setOnAction(e ->
             primaryStage.close());
 
         //reset button clears the board and resets everything
         gameSidebar.getResetButton().setOnAction(e -> {
-            if (countdown != null) {
-                countdown.stop();
-            }
+            gameClock.reset();
+            cancelCpuMove();
             controller.resetGame();     //clear the board and reset game
+            renderer.clearHover();
             drawBoardWithFade();        //redraw the empty board
-            drawStones(board);
             updateCurrentPlayerLabel();  //reset to "BLACK"
             isFirstMove = true;          //the timer reset if the first move is done
-            timeLimit = 30;
-            timeLabel.setText("Time Limit: " + timeLimit + "s");
-            countdown.stop();           //stop any running timer
+            updateTimeLabel();
             sidebarControl.updateMoves(0, 0);  //force move counts to 0
             gameSidebar.updateMaxRow(0, 0); //force max counts to 0
         });
 
         //create scene with black background
         Scene scene = new Scene(root, Color.BLACK);
-        primaryStage.setTitle("Gomoku Game");
+        primaryStage.setTitle("Gomoku Game - " + rules.getName() + (controller.getSwap2() != null ? ", swap2" : ""));
         primaryStage.setScene(scene);
         primaryStage.show();
+        positionChanged(); //black's first move can be hinted too
     }
 
-    //fills the canvas with black
-    private void drawBackground() {
-        GraphicsContext gc = canvas.getGraphicsContext2D();
-        gc.setFill(Color.BLACK);
-        gc.fillRect(0, 0, canvas.getWidth(), canvas.getHeight());
+    //place a stone for the current player and refresh board, stats and timer
+    private void playMove(int row, int col) {
+        if (controller.makeMove(row, col)) {
+            renderer.clearHover();
+            renderer.syncStones(board);
+
+            int blackMoves = controller.getBlackMoves();
+            int whiteMoves = controller.getWhiteMoves();
+            int maxBlackRow = controller.getMaxBlackRow();
+            int maxWhiteRow = controller.getMaxWhiteRow();
+            sidebarControl.updateMoves(blackMoves, whiteMoves);
+            gameSidebar.updateMaxRow(maxBlackRow, maxWhiteRow);
+
+            if (controller.isGameOver()) {
+                gameClock.stop();
+            } else{
+                updateCurrentPlayerLabel();
+                if (isFirstMove) {
+                    isFirstMove = false;
+                    gameClock.start(controller.getCurrentPlayer());
+                } else {
+                    gameClock.moved();
+                }
+                updateTimeLabel();
+                requestCpuMove();
+                if (controller.isAwaitingSwapChoice()) {
+                    Platform.runLater(this::askSwapChoice); //once this click is handled
+                }
+            }
+        }
     }
 
-    //draw the board with orange background and grid
-    private void drawBoard() {
-        drawBackground();
-        GraphicsContext gc = canvas.getGraphicsContext2D();
-
-        //board area
-        gc.setFill(Color.ORANGE);
-        gc.fillRect(BACKGROUND_PADDING / 2, BACKGROUND_PADDING / 2, BOARD_LENGTH + 2 * BORDER_WIDTH, BOARD_LENGTH + 2 * BORDER_WIDTH);
-
-        //grid lines
-        gc.setStroke(Color.BLACK);
-        gc.setLineWidth(2);
-        for (int i = 0; i < BOARD_SIZE; i++) {
-            double pos = i * CELL_SIZE + BORDER_WIDTH + (BACKGROUND_PADDING / 2);
-            gc.strokeLine(pos, BORDER_WIDTH + (BACKGROUND_PADDING / 2), pos, BOARD_LENGTH + BORDER_WIDTH + (BACKGROUND_PADDING / 2));
-            gc.strokeLine(BORDER_WIDTH + (BACKGROUND_PADDING / 2), pos, BOARD_LENGTH + BORDER_WIDTH + (BACKGROUND_PADDING / 2), pos);
+    //ask for the Swap2 choice that is due; the turn clock waits meanwhile
+    private void askSwapChoice() {
+        if (!controller.isAwaitingSwapChoice()) {
+            return;
+        }
+        Swap2Opening swap2 = controller.getSwap2();
+        int stones = controller.getMoveCount();
+        boolean second = swap2.getPhase(stones) == Swap2Opening.SECOND_CHOICE;
+        gameClock.stop();
+        int choice = new SwapChoice(second ? 2 : 1, second).showAndWait();
+        if (choice != Swap2Opening.NONE && controller.chooseSwap(choice)) {
+            updateCurrentPlayerLabel();
+            if (!isFirstMove) {
+                gameClock.start(controller.getCurrentPlayer());
+            }
+            updateTimeLabel();
+            requestCpuMove();
         }
-        gc.setStroke(Color.BLACK);
-        gc.setLineWidth(2);
-        gc.strokeRect(BORDER_WIDTH + (BACKGROUND_PADDING / 2), BORDER_WIDTH + (BACKGROUND_PADDING / 2), BOARD_LENGTH, BOARD_LENGTH);
     }
 
-    //draw stones on the board
-    private void drawStones(Board board) {
-        GraphicsContext gc = canvas.getGraphicsContext2D();
-        int[][] gameBoard = board.getBoard();
-        for (int row = 0; row < gameBoard.length; row++) {
-            for (int col = 0; col < gameBoard[row].length; col++) {
-                int stone = gameBoard[row][col];
-                if (stone != 0) {
-                    drawStone(gc, row, col, stone);
-                }
-            }
+    //file dialog for saved games
+    private FileChooser gameFileChooser() {
+        FileChooser chooser = new FileChooser();
+        chooser.setTitle("Gomoku game");
+        chooser.getExtensionFilters().add(new FileChooser.ExtensionFilter("Gomoku games", "*.gmk"));
+        return chooser;
+    }
+
+    //replace the game in progress with a saved one
+    private void loadGame(File file) {
+        GameRecord record;
+        try {
+            record = GameCodec.read(file.toPath());
+        } catch (IOException ex) {
+            invalidMove.showWarning("Not a saved game!");
+            return;
+        }
+        if (record.getBoardSize() != boardSize) {
+            invalidMove.showWarning(record.getBoardSize() == SparseBoard.UNBOUNDED
+                    ? "Saved game is for an unbounded board!"
+                    : "Saved game is for a " + record.getBoardSize() + "x" + record.getBoardSize() + " board!");
+            return;
+        }
+        if (record.getRuleSet() != controller.getRules().getId()) {
+            invalidMove.showWarning("Saved game uses other rules!");
+            return;
+        }
+
+        cancelCpuMove();
+        if (!controller.loadGame(record.getMoves())) {
+            invalidMove.showWarning("Saved game has an illegal move!");
         }
+        showPosition();
+        requestCpuMove();
     }
 
-    //draw a single stone pixel by pixel
-    private void drawStone(GraphicsContext gc, int row, int col, int player) {
-        double centerX = col * CELL_SIZE + BORDER_WIDTH + (BACKGROUND_PADDING / 2);
-        double centerY = row * CELL_SIZE + BORDER_WIDTH + (BACKGROUND_PADDING / 2);
-        double radius = CELL_SIZE / 2.2;
+    //redraw everything from the controller after it moved to a new position (load or jump)
+    private void showPosition() {
+        renderer.clearHover();
+        renderer.syncStones(board);
+        updateCurrentPlayerLabel();
+        isFirstMove = true; //the clock starts again with the next move
+        gameClock.reset();
+        updateTimeLabel();
+        sidebarControl.updateMoves(controller.getBlackMoves(), controller.getWhiteMoves());
+        gameSidebar.updateMaxRow(controller.getMaxBlackRow(), controller.getMaxWhiteRow());
+    }
 
-        gc.setFill(player == 1 ? Color.BLACK : Color.WHITE);
+    //called by FxGameListener when the controller rejects a move
+    void showInvalidMove(int row, int col) {
+        renderer.flashInvalid(row, col);
+        if (controller.isAwaitingSwapChoice()) {
+            invalidMove.showWarning("Choose a colour first!");
+        } else if (!controller.isGameOver() && controller.getBoard().isValidPos(row, col) && controller.isForbidden(row, col)) {
+            invalidMove.showWarning("Forbidden move for black!");
+        } else {
+            invalidMove.showWarning("Invalid move!");
+        }
+    }
 
-        for (int x = -((int) radius); x <= radius; x += PIXEL_SIZE) {
-            for (int y = -((int) radius); y <= radius; y += PIXEL_SIZE) {
-                double distance = Math.sqrt(x * x + y * y);
-                if (distance <= radius) {
-                    gc.fillRect(centerX + x, centerY + y, PIXEL_SIZE, PIXEL_SIZE);
-                }
+    //let the computer search off the FX thread when it is its turn
+    private void requestCpuMove() {
+        if (!cpuEnabled || cpuThinking || controller.isGameOver() || controller.getCurrentPlayer() != CPU_PLAYER) {
+            return;
+        }
+        //under Swap2 the players make the opening, the computer joins once it is settled
+        Swap2Opening swap2 = controller.getSwap2();
+        if (swap2 != null && swap2.getPhase(controller.getMoveCount()) != Swap2Opening.PLAY) {
+            return;
+        }
+        cpuThinking = true;
+        int request = ++cpuRequest;
+
+        //the budget follows the turn clock so the move lands before time runs out
+        long budget = isFirstMove ? CPU_THINK_MS : Math.min(CPU_THINK_MS, gameClock.timeLeft(CPU_PLAYER));
+        GameBoard position;
+        if (boardSize == SparseBoard.UNBOUNDED) {
+            SparseBoard copy = new SparseBoard();
+            copy.copyFrom(board);
+            position = copy;
+        } else {
+            Board copy = new Board(boardSize);
+            copy.copyFrom(board);
+            position = copy;
+        }
+
+        cpuThinker.execute(() -> {
+            //resume before looking at cpuRequest: a cancel after this look stops the search below
+            aiPlayer.resume();
+            if (request != cpuRequest) {
+                return; //cancelled while an older search was still stopping
             }
+            SearchResult result = aiPlayer.chooseMove(position, CPU_PLAYER, budget);
+            Platform.runLater(() -> {
+                if (request != cpuRequest) {
+                    return; //position changed while thinking
+                }
+                cpuThinking = false;
+                if (result.getRow() >= 0 && controller.getCurrentPlayer() == CPU_PLAYER) {
+                    playMove(result.getRow(), result.getCol());
+                }
+            });
+        });
+    }
+
+    //drop any search in progress and stop it, so the next CPU move does not wait for its deadline
+    private void cancelCpuMove() {
+        cpuRequest++;
+        cpuThinking = false;
+        aiPlayer.stop();
+    }
+
+    //called by FxGameListener when the position or the side to move changed: the hint is
+    //gone and pondering restarts once the current event (maybe a whole loaded game) is handled
+    void positionChanged() {
+        renderer.clearHint();
+        hintShown = false;
+        if (!ponderQueued) {
+            ponderQueued = true;
+            Platform.runLater(this::ponderPosition);
         }
     }
 
-    //start the 30-second countdown timer
-    private void startCountdown() {
-        //update every second, switch player when time's up
-        if (countdown != null && countdown.getStatus() == Animation.Status.RUNNING) {
-            countdown.stop();
+    //ponder while a human is to move; the computer's own turn, a finished game, a due
+    //Swap2 choice or an unbounded board leave the CPU idle
+    private void ponderPosition() {
+        ponderQueued = false;
+        boolean cpuTurn = cpuEnabled && controller.getCurrentPlayer() == CPU_PLAYER;
+        if (controller.isGameOver() || cpuTurn || controller.isAwaitingSwapChoice() || boardSize == SparseBoard.UNBOUNDED) {
+            ponder.stop();
+        } else {
+            ponder.start(board, controller.getCurrentPlayer());
+        }
+    }
+
+    //hint button: mark the best move so far; it moves along as pondering gets deeper
+    private void showHint() {
+        if (boardSize == SparseBoard.UNBOUNDED) {
+            invalidMove.showWarning("No hints on an unbounded board!");
+            return;
+        }
+        if (controller.isGameOver() || cpuThinking || controller.isAwaitingSwapChoice()) {
+            return;
+        }
+        hintShown = true;
+        SearchResult best = ponder.getBest();
+        if (best == null) {
+            invalidMove.showWarning("Thinking...");
+        } else {
+            ponderUpdate(best);
+        }
+    }
+
+    //a deeper pondering result for the position on the board (throttled by PonderService)
+    private void ponderUpdate(SearchResult result) {
+        if (hintShown && result.getRow() >= 0) {
+            invalidMove.hideWarning();
+            renderer.showHint(result.getRow(), result.getCol());
         }
-        timeLimit = 30;
-        timeLabel.setText("Time Limit: " + timeLimit + "s");
-        countdown = new Timeline(new KeyFrame(Duration.seconds(1), event -> {
-            timeLimit--;
-            timeLabel.setText("Time Limit: " + timeLimit + "s");
-            if (timeLimit <= 0) {
-                countdown.stop();
-                invalidMove.showWarning("Time's up! Switching player...");
-                controller.switchPlayer();
-                updateCurrentPlayerLabel();
-                startCountdown();
-            }
-        }));
-        countdown.setCycleCount(Animation.INDEFINITE);
-        countdown.play();
     }
 
-    //change label depending on player's turn
+    //the player to move ran out of time: the controller passes the turn and the clock follows
+    private void timeOut() {
+        cancelCpuMove();
+        if (controller.timeOut()) {
+            updateCurrentPlayerLabel();
+            gameClock.start(controller.getCurrentPlayer());
+            requestCpuMove();
+        }
+        updateTimeLabel();
+    }
+
+    //after undo/redo the other side is to move, its time runs instead
+    private void followTurn() {
+        if (controller.isGameOver()) {
+            gameClock.stop(); //redo reached the winning move
+        } else if (gameClock.getRunning() != 0) {
+            gameClock.start(controller.getCurrentPlayer());
+        }
+        updateTimeLabel();
+    }
+
+    //show the time the player to move has for this move; while a clock runs the label
+    //is refreshed through the shared clock service whenever the shown second changes
+    private void updateTimeLabel() {
+        int player = gameClock.getRunning();
+        int shown = player != 0 ? player : controller.getCurrentPlayer();
+        long main = gameClock.mainTimeLeft(shown);
+        int periods = gameClock.periodsLeft(shown);
+        long left = main > 0 || periods == 0 ? main : gameClock.timeLeft(shown) - (periods - 1) * timeControl.getPeriodMillis();
+        String text = "Time Limit: " + (left + 999) / 1000 + "s";
+        if (main == 0 && periods > 1) {
+            text += " (" + periods + ")";
+        }
+        timeLabel.setText(text);
+
+        if (player == 0) {
+            CLOCKS.cancel(labelTick);
+        } else {
+            long untilChange = left % 1000 == 0 ? 1000 : left % 1000;
+            CLOCKS.arm(labelTick, CLOCKS.now() + untilChange + 1);
+        }
+    }
+
+    //change label depending on player's turn, with the seat to move under Swap2
     private void updateCurrentPlayerLabel() {
         int currentPlayer = controller.getCurrentPlayer();
-        currentPlayerLabel.setText("Current Player: " + (currentPlayer == 1 ? "BLACK" : "WHITE"));
+        String text = "Current Player: " + (currentPlayer == 1 ? "BLACK" : "WHITE");
+        Swap2Opening swap2 = controller.getSwap2();
+        if (swap2 != null) {
+            text += " (P" + swap2.seatToMove(controller.getMoveCount(), currentPlayer) + ")";
+        }
+        currentPlayerLabel.setText(text);
+    }
+
+    //integer option in [min, max], or the default with a message when it is missing or bad
+    private static int intOption(Map<String, String> options, String name, int defaultValue, int min, int max) {
+        String value = options.get(name);
+        if (value == null) {
+            return defaultValue;
+        }
+        try {
+            int parsed = Integer.parseInt(value);
+            if (parsed >= min && parsed <= max) {
+                return parsed;
+            }
+        } catch (NumberFormatException e) {
+            //fall through to the default
+        }
+        System.err.println("--" + name + " must be " + min + "-" + max + ", using " + defaultValue);
+        return defaultValue;
     }
 
     //display semi-transparent circle (stone) preview when hovering over valid cell
     private void setupHoverEffect() {
-        canvas.setOnMouseMoved(e -> {
+        renderer.setOnMouseMoved(e -> {
             if (controller.isGameOver()) return;
 
-            //clear previous hover
-            drawBoard();
-            drawStones(controller.getBoard());
-
             //calculate intersection position
-            double x = e.getX() - BORDER_WIDTH - (BACKGROUND_PADDING / 2);
-            double y = e.getY() - BORDER_WIDTH - (BACKGROUND_PADDING / 2);
-
-            int col = (int) Math.round(x / CELL_SIZE);
-            int row = (int) Math.round(y / CELL_SIZE);
+            int col = renderer.colAt(e.getX());
+            int row = renderer.rowAt(e.getY());
 
             //only highlight if the position is valid and empty
             if (controller.getBoard().isValidPos(row, col) &&
                     controller.getBoard().getCell(row, col) == 0) {
-
-                GraphicsContext gc = canvas.getGraphicsContext2D();
-                gc.setStroke(controller.getCurrentPlayer() == 1 ?
-                        Color.rgb(0, 0, 0, 0.5) : Color.rgb(255, 255, 255, 0.5));
-                gc.setLineWidth(2);
-
-                double centerX = col * CELL_SIZE + BORDER_WIDTH + (BACKGROUND_PADDING / 2);
-                double centerY = row * CELL_SIZE + BORDER_WIDTH + (BACKGROUND_PADDING / 2);
-                double radius = CELL_SIZE / 3;
-
-                gc.strokeOval(centerX - radius, centerY - radius, radius * 2, radius * 2);
+                renderer.showHover(row, col, controller.getCurrentPlayer());
+            } else {
+                renderer.clearHover();
             }
         });
         //clear hover when mouse exits canvas
-        canvas.setOnMouseExited(e -> {
-            drawBoard();
-            drawStones(controller.getBoard());
-        });
-    }
-
-    //flashes a red circle at invalid move location
-    private void invalidMoveAnimation(int row, int col) {
-        final int flashes = 2; //number of flashes
-        final int duration = 100; //milliseconds per flash
-
-        //calculate center of cell
-        double centerX = col * CELL_SIZE + BORDER_WIDTH + (BACKGROUND_PADDING / 2);
-        double centerY = row * CELL_SIZE + BORDER_WIDTH + (BACKGROUND_PADDING / 2);
-        double radius = CELL_SIZE / 2.2 + 5;
-
-        Timeline timeline = new Timeline();
-
-        for (int i = 0; i < flashes; i++) {
-            //flash "on" (draw red circle)
-            KeyFrame showFrame = new KeyFrame(Duration.millis(i * 2 * duration), e -> {
-                GraphicsContext gc = canvas.getGraphicsContext2D();
-                gc.setStroke(Color.RED);
-                gc.setLineWidth(3);
-                gc.strokeOval(centerX - radius, centerY - radius, radius * 2, radius * 2);
-            });
-
-            //flash "off" (draw normal board and stones)
-            KeyFrame hideFrame = new KeyFrame(Duration.millis((i * 2 + 1) * duration), e -> {
-                drawBoard();
-                drawStones(controller.getBoard());
-            });
-
-            //add both frames to the timeline
-            timeline.getKeyFrames().addAll(showFrame, hideFrame);
-        }
-
-        timeline.play(); //start animation
+        renderer.setOnMouseExited(e -> renderer.clearHover());
     }
 
     //fades out amd back in when the board is redrawn
     private void drawBoardWithFade() {
-        FadeTransition fadeOut = new FadeTransition(Duration.millis(300), canvas);
+        FadeTransition fadeOut = new FadeTransition(Duration.millis(300), renderer);
         fadeOut.setFromValue(1.0); //full opacity
         fadeOut.setToValue(0.5); //half transparent
 
-        FadeTransition fadeIn = new FadeTransition(Duration.millis(200), canvas);
+        FadeTransition fadeIn = new FadeTransition(Duration.millis(200), renderer);
         fadeIn.setFromValue(0.5); //half transparent
         fadeIn.setToValue(1.0); //full opacity
 
         //when fade out finishes, update board, then fade in
         fadeOut.setOnFinished(e -> {
-            drawBoard();
-            drawStones(controller.getBoard());
+            renderer.syncStones(controller.getBoard());
             fadeIn.play();
         });
         fadeOut.play();
     }
 
-    //draw single stone with opacity
-    private void drawStonesOpacity(GraphicsContext gc, int row, int col, int player, double opacity) {
-        double centerX = col * CELL_SIZE + BORDER_WIDTH + (BACKGROUND_PADDING / 2);
-        double centerY = row * CELL_SIZE + BORDER_WIDTH + (BACKGROUND_PADDING / 2);
-        double radius = CELL_SIZE / 2.2;
-
-        //determine color with opacity (black or white)
-        Color stoneColor = player == 1 ?
-                Color.rgb(0, 0, 0, opacity) : //black with opacity
-                Color.rgb(255, 255, 255, opacity); //white with opacity
-
-        gc.setFill(stoneColor);
-
-        for (int x = -((int) radius); x <= radius; x += PIXEL_SIZE) {
-            for (int y = -((int) radius); y <= radius; y += PIXEL_SIZE) {
-                double distance = Math.sqrt(x * x + y * y);
-                if (distance <= radius) {
-                    gc.fillRect(centerX + x, centerY + y, PIXEL_SIZE, PIXEL_SIZE);
-                }
-            }
-        }
-    }
-
-    //flickers stones before showing game over
+    //flickers the winning five (the whole board if the game ended another way) before showing game over
     public void animateWinningStones() {
         Timeline flickerTimeline = new Timeline();
+        long winLine = controller.getWinLine();
 
         int flickerCount = 3; //number of flickers
         double duration = 200; //milliseconds per half-cycle
@@ -424,14 +649,20 @@ public class GomokuGameFX extends Application {
         for (int i = 0; i < flickerCount; i++) {
             //fade out
             KeyFrame fadeOut = new KeyFrame(Duration.millis(i * 2 * duration), e -> {
-                drawBoard();
-                stoneOpacityFlick(controller.getBoard(), 0.3); //stone dimmed
+                if (winLine != WinLine.NONE) {
+                    renderer.drawLineOpacity(controller.getBoard(), winLine, 0.3); //five dimmed
+                } else {
+                    renderer.drawStonesOpacity(controller.getBoard(), 0.3); //stone dimmed
+                }
             });
 
             //fade in
             KeyFrame fadeIn = new KeyFrame(Duration.millis((i * 2 + 1) * duration), e -> {
-                drawBoard();
-                drawStones(controller.getBoard());
+                if (winLine != WinLine.NONE) {
+                    renderer.drawLineOpacity(controller.getBoard(), winLine, 1.0);
+                } else {
+                    renderer.redrawStones(controller.getBoard());
+                }
             });
 
             flickerTimeline.getKeyFrames().addAll(fadeOut, fadeIn);
@@ -445,22 +676,6 @@ public class GomokuGameFX extends Application {
         flickerTimeline.play();
     }
 
-    //draws all stone with opacity (for flicker)
-    private void stoneOpacityFlick(Board board, double opacity) {
-        GraphicsContext gc = canvas.getGraphicsContext2D();
-        int[][] gameBoard = board.getBoard();
-
-        //loop through board and draw stones with opacity
-        for (int row = 0; row < gameBoard.length; row++) {
-            for (int col = 0; col < gameBoard[row].length; col++) {
-                int stone = gameBoard[row][col];
-                if (stone != 0) {
-                    drawStonesOpacity(gc, row, col, stone, opacity);
-                }
-            }
-        }
-    }
-
     //launch JavaFX application
     public static void main(String[] args) {
         launch(args);
@@ -0,0 +1,75 @@
+//StoneSprites class caches pre-rasterized pixel-art stones, so the circle mask
+//is computed once per (player, opacity, size) and every stone after that is a
+//single drawImage; the cache is emptied when the cell size or theme changes
+package view;
+
+import javafx.scene.image.Image;
+import javafx.scene.image.PixelWriter;
+import javafx.scene.image.WritableImage;
+import javafx.scene.paint.Color;
+import java.util.HashMap;
+import java.util.Map;
+
+public class StoneSprites {
+    private static final int PIXEL_SIZE = 2;
+
+    private final Map<Integer, WritableImage> cache = new HashMap<>();
+    private int cellSize = -1; //cell size the cached sprites were drawn for
+    private Color blackColor = Color.BLACK;
+    private Color whiteColor = Color.WHITE;
+
+    //sprite for player's stone; draw it at (centerX - offset(cellSize), centerY - offset(cellSize))
+    public Image get(int player, double opacity, int cellSize) {
+        if (cellSize != this.cellSize) {
+            cache.clear(); //sprites for the old size are no use any more
+            this.cellSize = cellSize;
+        }
+        int alpha = (int) Math.round(opacity * 100); //opacity in 1% steps
+        int key = alpha * 4 + player;
+        WritableImage sprite = cache.get(key);
+        if (sprite == null) {
+            sprite = rasterize(player == 1 ? blackColor : whiteColor, alpha / 100.0, cellSize);
+            cache.put(key, sprite);
+        }
+        return sprite;
+    }
+
+    //distance from the stone centre to the sprite's top-left corner
+    public static int offset(int cellSize) {
+        return (int) (cellSize / 2.2);
+    }
+
+    //change stone colours, all cached sprites are dropped
+    public void setTheme(Color blackColor, Color whiteColor) {
+        this.blackColor = blackColor;
+        this.whiteColor = whiteColor;
+        cache.clear();
+    }
+
+    public void clear() {
+        cache.clear();
+    }
+
+    //paint the pixel circle once, the same blocks the old fillRect loop produced
+    private static WritableImage rasterize(Color color, double opacity, int cellSize) {
+        double radius = cellSize / 2.2;
+        int offset = offset(cellSize);
+        int size = 2 * offset + PIXEL_SIZE;
+        WritableImage sprite = new WritableImage(size, size);
+        PixelWriter writer = sprite.getPixelWriter();
+        Color fill = Color.color(color.getRed(), color.getGreen(), color.getBlue(), color.getOpacity() * opacity);
+
+        for (int x = -offset; x <= radius; x += PIXEL_SIZE) {
+            for (int y = -offset; y <= radius; y += PIXEL_SIZE) {
+                if (Math.sqrt(x * x + y * y) <= radius) {
+                    for (int px = 0; px < PIXEL_SIZE; px++) {
+                        for (int py = 0; py < PIXEL_SIZE; py++) {
+                            writer.setColor(x + offset + px, y + offset + py, fill);
+                        }
+                    }
+                }
+            }
+        }
+        return sprite;
+    }
+}
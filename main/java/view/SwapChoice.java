@@ -0,0 +1,101 @@
+//SwapChoice class to display the Swap2 choice pop up window
+//(take black, take white, or place two more stones) in the game over window's style
+package view;
+
+import javafx.scene.Scene;
+import javafx.scene.control.Button;
+import javafx.scene.layout.HBox;
+import javafx.scene.layout.VBox;
+import javafx.scene.paint.Color;
+import javafx.scene.text.Font;
+import javafx.scene.text.Text;
+import javafx.geometry.Pos;
+import javafx.stage.Modality;
+import javafx.stage.Stage;
+import javafx.stage.StageStyle;
+import rules.Swap2Opening;
+import java.io.InputStream;
+
+public class SwapChoice {
+    private final Stage stage; //new stage to display the choice
+    private int choice = Swap2Opening.NONE;
+
+    //seat is the player choosing (1 or 2); only the second player may place two more stones
+    public SwapChoice(int seat, boolean canPlaceTwo) {
+        this.stage = new Stage();
+        stage.initModality(Modality.APPLICATION_MODAL); //blocks the board until a choice is made
+        stage.initStyle(StageStyle.UNDECORATED);
+        createUI(seat, canPlaceTwo);
+    }
+
+    private void createUI(int seat, boolean canPlaceTwo) {
+        Font titleFont = loadFont("/fonts/PressStart2P.ttf", 30);
+        Font textFont = loadFont("/fonts/PressStart2P.ttf", 12);
+        Font buttonFont = loadFont("/fonts/PressStart2P.ttf", 10);
+
+        Text title = new Text("SWAP2");
+        title.setFont(titleFont);
+        title.setFill(Color.GOLD);
+
+        Text prompt = new Text("PLAYER " + seat + ", CHOOSE:");
+        prompt.setFont(textFont);
+        prompt.setFill(Color.WHITE);
+
+        HBox buttons = new HBox(10);
+        buttons.setAlignment(Pos.CENTER);
+        buttons.getChildren().addAll(
+                choiceButton("BLACK", Swap2Opening.TAKE_BLACK, buttonFont),
+                choiceButton("WHITE", Swap2Opening.TAKE_WHITE, buttonFont));
+        if (canPlaceTwo) {
+            buttons.getChildren().add(choiceButton("PLACE 2", Swap2Opening.PLACE_TWO, buttonFont));
+        }
+
+        VBox layout = new VBox(15);
+        layout.getChildren().addAll(title, prompt, buttons);
+        layout.setStyle("" +
+                "-fx-alignment: center; " +
+                "-fx-padding: 20px; " +
+                "-fx-background-color: black;" +
+                "-fx-border-color: gold;" +
+                "-fx-border-width: 5px;" +
+                "-fx-border-style: solid;"
+        );
+
+        Scene scene = new Scene(layout, 400, 200);
+        scene.setFill(Color.BLACK);
+        stage.setScene(scene);
+    }
+
+    //gold button that closes the window with its choice
+    private Button choiceButton(String text, int value, Font font) {
+        Button button = new Button(text);
+        button.setFont(font);
+        button.setStyle("-fx-background-color: gold; -fx-text-fill: black;");
+        button.setOnAction(e -> {
+            choice = value;
+            stage.close();
+        });
+        button.setOnMouseEntered(e -> button.setStyle("-fx-background-color: orange; -fx-text-fill: black;"));
+        button.setOnMouseExited(e -> button.setStyle("-fx-background-color: gold; -fx-text-fill: black;"));
+        return button;
+    }
+
+    //show the window and wait; returns Swap2Opening.TAKE_BLACK, TAKE_WHITE or PLACE_TWO
+    public int showAndWait() {
+        stage.centerOnScreen();
+        stage.showAndWait();
+        return choice;
+    }
+
+    //helper method to load a custom font from a file
+    private Font loadFont(String path, double size) {
+        try (InputStream fontStream = getClass().getResourceAsStream(path)) {
+            if (fontStream != null) {
+                return Font.loadFont(fontStream, size);
+            }
+        } catch (Exception e) {
+            e.printStackTrace();
+        }
+        return Font.font("System", size);
+    }
+}